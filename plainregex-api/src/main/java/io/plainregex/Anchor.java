@@ -0,0 +1,177 @@
+package io.plainregex;
+
+/**
+ * Zero-width assertions with the exact semantics of the dialect they were parsed from.
+ */
+enum Anchor {
+
+    BEGIN_TEXT {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == 0;
+        }
+    },
+    END_TEXT {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == text.length();
+        }
+    },
+    /**
+     * Java {@code $} and {@code \Z}: end of input or before the final line terminator.
+     */
+    JAVA_END_TEXT {
+        @Override
+        boolean test(CharSequence text, int i) {
+            int length = text.length();
+            if (i == length) {
+                return true;
+            } else if (i == length - 2) {
+                return text.charAt(i) == '\r' && text.charAt(i + 1) == '\n';
+            } else if (i == length - 1) {
+                char c = text.charAt(i);
+                return c == '\n' ? i == 0 || text.charAt(i - 1) != '\r' : isJavaLineTerminator(c);
+            } else {
+                return false;
+            }
+        }
+    },
+    JAVA_UNIX_END_TEXT {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == text.length() || i == text.length() - 1 && text.charAt(i) == '\n';
+        }
+    },
+    /**
+     * Java multiline {@code ^}, which doesn't match at the end of input and between {@code \r\n}.
+     */
+    JAVA_BEGIN_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            if (i == text.length()) {
+                return false;
+            } else if (i == 0) {
+                return true;
+            }
+            char previous = text.charAt(i - 1);
+            return isJavaLineTerminator(previous) && !(previous == '\r' && text.charAt(i) == '\n');
+        }
+    },
+    JAVA_UNIX_BEGIN_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i < text.length() && (i == 0 || text.charAt(i - 1) == '\n');
+        }
+    },
+    JAVA_END_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            if (i == text.length()) {
+                return true;
+            }
+            char c = text.charAt(i);
+            return c == '\n' ? i == 0 || text.charAt(i - 1) != '\r' : isJavaLineTerminator(c);
+        }
+    },
+    JAVA_UNIX_END_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == text.length() || text.charAt(i) == '\n';
+        }
+    },
+    /**
+     * Java {@code \b}, where word characters are letters, digits and {@code _} in the Unicode sense and
+     * non-spacing marks following them.
+     */
+    JAVA_WORD_BOUNDARY {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return isJavaWordBefore(text, i) != isJavaWordAt(text, i);
+        }
+    },
+    JAVA_NOT_WORD_BOUNDARY {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return !JAVA_WORD_BOUNDARY.test(text, i);
+        }
+    },
+    /**
+     * RE2 multiline {@code ^}.
+     */
+    BEGIN_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == 0 || text.charAt(i - 1) == '\n';
+        }
+    },
+    /**
+     * RE2 multiline {@code $}.
+     */
+    END_LINE {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return i == text.length() || text.charAt(i) == '\n';
+        }
+    },
+    /**
+     * RE2 {@code \b}, with ASCII word characters.
+     */
+    WORD_BOUNDARY {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return (i > 0 && isAsciiWord(text.charAt(i - 1))) != (i < text.length() && isAsciiWord(text.charAt(i)));
+        }
+    },
+    NOT_WORD_BOUNDARY {
+        @Override
+        boolean test(CharSequence text, int i) {
+            return !WORD_BOUNDARY.test(text, i);
+        }
+    };
+
+    /**
+     * @param i position between characters, from {@code 0} to {@code text.length()}
+     */
+    abstract boolean test(CharSequence text, int i);
+
+    static boolean isJavaLineTerminator(int c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    static boolean isAsciiWord(int c) {
+        return c < 128 && (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_');
+    }
+
+    private static boolean isJavaWord(int c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isJavaWordBefore(CharSequence text, int i) {
+        if (i == 0) {
+            return false;
+        }
+        int c = Character.codePointBefore(text, i);
+        return isJavaWord(c) || Character.getType(c) == Character.NON_SPACING_MARK && hasBase(text, i - Character.charCount(c));
+    }
+
+    private static boolean isJavaWordAt(CharSequence text, int i) {
+        if (i == text.length()) {
+            return false;
+        }
+        int c = Character.codePointAt(text, i);
+        return isJavaWord(c) || Character.getType(c) == Character.NON_SPACING_MARK && hasBase(text, i);
+    }
+
+    private static boolean hasBase(CharSequence text, int i) {
+        for (int x = i; x >= 0; x--) {
+            int c = Character.codePointAt(text, x);
+            if (Character.isLetterOrDigit(c)) {
+                return true;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.plainregex;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * View of ASCII encoded bytes as characters, without copying them.
+ */
+class AsciiCharSequence implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+
+    AsciiCharSequence(ByteBuffer bytes) {
+        this(bytes, bytes.position(), bytes.remaining());
+    }
+
+    private AsciiCharSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.array = bytes.hasArray() ? bytes.array() : null;
+        this.offset = bytes.hasArray() ? bytes.arrayOffset() + offset : offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.format("Index %d is out of bounds of length %d.", index, length));
+        }
+        return (char) (array != null ? array[offset + index] : bytes.get(offset + index));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) is out of bounds of length %d.", start, end, length));
+        }
+        return new AsciiCharSequence(bytes, position(start), end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (array != null) {
+            return new String(array, offset, length, StandardCharsets.US_ASCII);
+        }
+        ByteBuffer view = bytes.duplicate();
+        view.limit(offset + length).position(offset);
+        return StandardCharsets.US_ASCII.decode(view).toString();
+    }
+
+    /**
+     * @return position in buffer of the given index
+     */
+    private int position(int index) {
+        return (array != null ? offset - bytes.arrayOffset() : offset) + index;
+    }
+
+}
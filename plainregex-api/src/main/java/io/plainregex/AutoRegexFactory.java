@@ -0,0 +1,150 @@
+package io.plainregex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Factory of {@link Engine#AUTO}, routing every pattern to one of the available engines after parsing it.
+ * Engines are tried in order of preference for the {@link Routing.Reason}, and {@link Engine#RE2J} only when
+ * it parses the pattern and flags into the same automaton, since it doesn't implement Java syntax.
+ */
+final class AutoRegexFactory implements RegexFactory {
+
+    private final Map<Engine, RegexFactory> factories;
+
+    AutoRegexFactory(Map<Engine, RegexFactory> factories) {
+        this.factories = factories;
+    }
+
+    @Override
+    public Engine engine() {
+        return Engine.AUTO;
+    }
+
+    @Override
+    public RegexFlagResolver resolver() {
+        return flag -> {
+            switch (flag) {
+                case DOTALL:
+                    return Pattern.DOTALL;
+                case CASE_INSENSITIVE:
+                    return Pattern.CASE_INSENSITIVE;
+                case LITERAL:
+                    return Pattern.LITERAL;
+                case UNIX_LINES:
+                    return Pattern.UNIX_LINES;
+                case MULTILINE:
+                    return Pattern.MULTILINE;
+                case COMMENTS:
+                    return Pattern.COMMENTS;
+                case CANON_EQ:
+                    return Pattern.CANON_EQ;
+                case UNICODE_CASE:
+                    return Pattern.UNICODE_CASE;
+                case UNICODE_CHARACTER_CLASS:
+                    return Pattern.UNICODE_CHARACTER_CLASS;
+                default:
+                    throw new UnsupportedOperationException(String.format("Auto regex can't handle flag: %s.", flag));
+            }
+        };
+    }
+
+    @Override
+    public Regex create(String pattern, int flags) {
+        Routing routing = route(pattern, flags);
+        RegexFactory factory = factories.get(routing.engine());
+        if (routing.engine() == Engine.RE2J) {
+            flags = RegexFlag.resolve(factory.resolver(), RegexFlag.decode(resolver(), flags).toArray(new RegexFlag[0]));
+        }
+        return new RoutedRegex(factory.create(pattern, flags), routing);
+    }
+
+    Routing route(String pattern, int flags) {
+        Set<RegexFlag> decoded = RegexFlag.decode(resolver(), flags);
+        if (LiteralRegex.literalOf(pattern, flags, resolver()) != null) {
+            return new Routing(preferred(pattern, flags, Engine.JAVA, Engine.DFA, Engine.RE2J), Routing.Reason.LITERAL, null);
+        }
+
+        ParsedPattern parsed;
+        try {
+            parsed = PatternParser.parse(pattern, Syntax.JAVA, decoded);
+        } catch (PatternSyntaxException e) {
+            return new Routing(preferred(pattern, flags, Engine.JAVA, Engine.DFA), Routing.Reason.UNANALYZED, e.getDescription());
+        }
+
+        String feature = parsed.opaqueFeature();
+        if (feature != null) {
+            if (!factories.containsKey(Engine.JAVA)) {
+                throw new IllegalStateException(String.format("Regex engine %s needed for %s isn't available on the classpath.", Engine.JAVA, feature));
+            }
+            return new Routing(Engine.JAVA, Routing.Reason.BACKTRACKING_CONSTRUCT, feature);
+        }
+        if (hasNestedQuantifier(parsed.root(), false)) {
+            return new Routing(preferred(pattern, flags, Engine.DFA, Engine.RE2J, Engine.JAVA), Routing.Reason.NESTED_QUANTIFIER, null);
+        }
+        return new Routing(preferred(pattern, flags, Engine.JAVA, Engine.DFA, Engine.RE2J), Routing.Reason.DEFAULT, null);
+    }
+
+    private Engine preferred(String pattern, int flags, Engine... engines) {
+        for (Engine engine : engines) {
+            if (factories.containsKey(engine) && (engine != Engine.RE2J || parsesSameInRe2(pattern, flags))) {
+                return engine;
+            }
+        }
+        throw new IllegalStateException(String.format("No regex engine on the classpath can handle pattern: %s.", pattern));
+    }
+
+    private boolean parsesSameInRe2(String pattern, int flags) {
+        Set<RegexFlag> decoded = RegexFlag.decode(resolver(), flags);
+        try {
+            RegexFlag[] array = decoded.toArray(new RegexFlag[0]);
+            RegexFlag.resolve(factories.get(Engine.RE2J).resolver(), array);
+            if ((flags & ~RegexFlag.resolve(resolver(), array)) != 0) {
+                return false;
+            }
+            Node java = PatternParser.parse(pattern, Syntax.JAVA, decoded).root();
+            Node re2 = PatternParser.parse(pattern, Syntax.RE2, decoded).root();
+            return !hasEmptyExit(java) && java.toString().equals(re2.toString());
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param repeated whether node is repeated more than once by an enclosing repetition
+     */
+    private static boolean hasNestedQuantifier(Node node, boolean repeated) {
+        if (node instanceof Node.Repeat) {
+            Node.Repeat repeat = (Node.Repeat) node;
+            if (repeated && repeat.min != repeat.max) {
+                return true;
+            }
+            return hasNestedQuantifier(repeat.node, repeated || repeat.max == Node.Repeat.UNBOUNDED || repeat.max > 1);
+        }
+        return children(node).stream().anyMatch(child -> hasNestedQuantifier(child, repeated));
+    }
+
+    private static boolean hasEmptyExit(Node node) {
+        return node instanceof Node.Repeat && ((Node.Repeat) node).exitsOnEmpty
+                || children(node).stream().anyMatch(AutoRegexFactory::hasEmptyExit);
+    }
+
+    private static List<Node> children(Node node) {
+        if (node instanceof Node.Concat) {
+            return ((Node.Concat) node).nodes;
+        } else if (node instanceof Node.Alternation) {
+            return ((Node.Alternation) node).nodes;
+        } else if (node instanceof Node.Repeat) {
+            return Collections.singletonList(((Node.Repeat) node).node);
+        } else if (node instanceof Node.Group) {
+            return Collections.singletonList(((Node.Group) node).node);
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+}
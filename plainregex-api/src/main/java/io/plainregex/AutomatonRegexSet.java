@@ -0,0 +1,249 @@
+package io.plainregex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link RegexSet} simulating NFA of all patterns at once. Patterns are validated by the engine of the
+ * factory, and the ones the parser can't turn into automaton are kept as the engine's regexes.
+ *
+ * <p> At every position only patterns which can start with the current character get a new thread, so
+ * the cost of a scan depends on number of live threads rather than on number of patterns.
+ */
+final class AutomatonRegexSet implements RegexSet {
+
+    private final List<String> patterns;
+    private final Program program;
+    private final int[] indices;
+    private final int[][] asciiStarts;
+    private final int[] otherStarts;
+    private final int[] emptyStarts;
+    private final List<Integer> fallbackIndices = new ArrayList<>();
+    private final List<Regex> fallbacks = new ArrayList<>();
+    private final AtomicReference<Simulation> idle = new AtomicReference<>();
+
+    AutomatonRegexSet(RegexFactory factory, List<String> patterns, RegexFlag... flags) {
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+
+        EnumSet<RegexFlag> flagSet = EnumSet.noneOf(RegexFlag.class);
+        Collections.addAll(flagSet, flags);
+        int resolved = RegexFlag.resolve(factory.resolver(), flags);
+
+        Program.Builder builder = new Program.Builder();
+        List<Integer> automatonIndices = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            Regex regex = factory.create(patterns.get(i), resolved);
+            try {
+                builder.add(PatternParser.parse(patterns.get(i), factory.syntax(), flagSet));
+                automatonIndices.add(i);
+            } catch (IllegalArgumentException e) {
+                fallbackIndices.add(i);
+                fallbacks.add(regex);
+            }
+        }
+        this.program = builder.build();
+        this.indices = automatonIndices.stream().mapToInt(Integer::intValue).toArray();
+
+        this.asciiStarts = new int[128][];
+        List<List<Integer>> ascii = new ArrayList<>();
+        for (int c = 0; c < 128; c++) {
+            ascii.add(new ArrayList<>());
+        }
+        List<Integer> other = new ArrayList<>();
+        List<Integer> empty = new ArrayList<>();
+        for (int p = 0; p < program.patternCount(); p++) {
+            CodePointSet.Builder first = new CodePointSet.Builder();
+            boolean nullable = firstCharacters(program.start(p), first);
+            CodePointSet set = first.build();
+            for (int c = 0; c < 128; c++) {
+                if (nullable || set.contains(c)) {
+                    ascii.get(c).add(p);
+                }
+            }
+            if (nullable || !set.isEmpty() && set.rangeEnd(set.rangeCount() - 1) >= 128) {
+                other.add(p);
+            }
+            if (nullable) {
+                empty.add(p);
+            }
+        }
+        for (int c = 0; c < 128; c++) {
+            asciiStarts[c] = toArray(ascii.get(c));
+        }
+        this.otherStarts = toArray(other);
+        this.emptyStarts = toArray(empty);
+    }
+
+    @Override
+    public int size() {
+        return patterns.size();
+    }
+
+    @Override
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    @Override
+    public BitSet matches(CharSequence text) {
+        BitSet result = run(text, true);
+        for (int i = 0; i < fallbacks.size(); i++) {
+            if (fallbacks.get(i).matches(text)) {
+                result.set(fallbackIndices.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public BitSet findIn(CharSequence text) {
+        BitSet result = run(text, false);
+        for (int i = 0; i < fallbacks.size(); i++) {
+            if (fallbacks.get(i).findFirstInAsMatch(text).isPresent()) {
+                result.set(fallbackIndices.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RegexSet" + patterns;
+    }
+
+    private BitSet run(CharSequence text, boolean anchored) {
+        BitSet result = new BitSet(patterns.size());
+        if (program.patternCount() == 0) {
+            return result;
+        }
+        Simulation simulation = idle.getAndSet(null);
+        if (simulation == null) {
+            simulation = new Simulation();
+        }
+        simulation.run(text, anchored, result);
+        idle.set(simulation);
+        return result;
+    }
+
+    /**
+     * Collects characters which can be consumed first from the given instruction, treating assertions as
+     * satisfied.
+     * @return whether pattern can match without consuming any character
+     */
+    private boolean firstCharacters(int start, CodePointSet.Builder first) {
+        SparseSet visited = new SparseSet(program.size());
+        List<Integer> stack = new ArrayList<>();
+        stack.add(start);
+        boolean nullable = false;
+        while (!stack.isEmpty()) {
+            int pc = stack.remove(stack.size() - 1);
+            if (!visited.add(pc)) {
+                continue;
+            }
+            switch (program.op(pc)) {
+                case Program.CHARS:
+                    first.add(program.set(pc));
+                    break;
+                case Program.MATCH:
+                    nullable = true;
+                    break;
+                case Program.SPLIT:
+                    stack.add(program.alt(pc));
+                    stack.add(program.out(pc));
+                    break;
+                default:
+                    stack.add(program.out(pc));
+            }
+        }
+        return nullable;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private final class Simulation {
+
+        private SparseSet current = new SparseSet(program.size());
+        private SparseSet next = new SparseSet(program.size());
+        private final int[] stack = new int[2 * program.size() + 1];
+        private final boolean[] found = new boolean[program.patternCount()];
+        private int remaining;
+
+        void run(CharSequence text, boolean anchored, BitSet result) {
+            Arrays.fill(found, false);
+            remaining = found.length;
+            current.clear();
+
+            int length = text.length();
+            int i = 0;
+            while (true) {
+                int c = i < length ? Character.codePointAt(text, i) : -1;
+                if (!anchored || i == 0) {
+                    for (int p : c < 0 ? emptyStarts : c < 128 ? asciiStarts[c] : otherStarts) {
+                        if (!found[p]) {
+                            addThread(current, program.start(p), text, i, anchored, result);
+                        }
+                    }
+                }
+                if (remaining == 0 || c < 0 || anchored && current.size() == 0) {
+                    return;
+                }
+
+                int following = i + Character.charCount(c);
+                next.clear();
+                for (int k = 0; k < current.size(); k++) {
+                    int pc = current.get(k);
+                    if (program.op(pc) == Program.CHARS && !found[program.patternOf(pc)] && program.set(pc).contains(c)) {
+                        addThread(next, program.out(pc), text, following, anchored, result);
+                    }
+                }
+                SparseSet swap = current;
+                current = next;
+                next = swap;
+                i = following;
+            }
+        }
+
+        private void addThread(SparseSet threads, int pc, CharSequence text, int i, boolean anchored, BitSet result) {
+            int top = 0;
+            stack[top++] = pc;
+            while (top > 0) {
+                pc = stack[--top];
+                if (!threads.add(pc)) {
+                    continue;
+                }
+                switch (program.op(pc)) {
+                    case Program.SPLIT:
+                        stack[top++] = program.alt(pc);
+                        stack[top++] = program.out(pc);
+                        break;
+                    case Program.ASSERT:
+                        if (program.anchor(pc).test(text, i)) {
+                            stack[top++] = program.out(pc);
+                        }
+                        break;
+                    case Program.SAVE:
+                        stack[top++] = program.out(pc);
+                        break;
+                    case Program.MATCH:
+                        int p = program.alt(pc);
+                        if (!found[p] && (!anchored || i == text.length())) {
+                            found[p] = true;
+                            remaining--;
+                            result.set(indices[p]);
+                        }
+                        break;
+                    default:
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.plainregex;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of bounds of matches, start and end of every match one after another.
+ */
+final class Bounds implements MatchVisitor {
+
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int start, int end) {
+        if (size + 2 > values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = start;
+        values[size++] = end;
+    }
+
+    @Override
+    public void visit(int start, int end) {
+        add(start, end);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+}
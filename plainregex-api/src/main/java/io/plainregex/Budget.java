@@ -0,0 +1,114 @@
+package io.plainregex;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limit of work a backtracking engine can do in a single search before failing with
+ * {@link BudgetExceededException}, see {@link Regex#withBudget(Budget)}.
+ *
+ * <p> Work is measured in steps, where a step is reading a character of the text. Backtracking engine
+ * reads the same characters again on every path it explores, so the number of steps grows with the time
+ * spent on the search independently of the machine.
+ */
+public final class Budget {
+
+    /**
+     * Budget which never runs out.
+     */
+    public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, null);
+
+    private final long maxSteps;
+    private final Duration timeout;
+
+    private Budget(long maxSteps, Duration timeout) {
+        this.maxSteps = maxSteps;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param maxSteps maximum number of characters read in a single search
+     * @return budget limited by number of steps
+     * @throws IllegalArgumentException if {@code maxSteps} isn't positive
+     */
+    public static Budget ofSteps(long maxSteps) {
+        return UNLIMITED.withSteps(maxSteps);
+    }
+
+    /**
+     * @param timeout maximum time of a single search
+     * @return budget limited by time
+     * @throws IllegalArgumentException if {@code timeout} isn't positive
+     */
+    public static Budget ofTimeout(Duration timeout) {
+        return UNLIMITED.withTimeout(timeout);
+    }
+
+    /**
+     * @param maxSteps maximum number of characters read in a single search
+     * @return copy of this budget limited by number of steps
+     * @throws IllegalArgumentException if {@code maxSteps} isn't positive
+     */
+    public Budget withSteps(long maxSteps) {
+        if (maxSteps <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum number of steps must be positive: %d.", maxSteps));
+        }
+        return new Budget(maxSteps, timeout);
+    }
+
+    /**
+     * @param timeout maximum time of a single search
+     * @return copy of this budget limited by time
+     * @throws IllegalArgumentException if {@code timeout} isn't positive
+     */
+    public Budget withTimeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException(String.format("Timeout must be positive: %s.", timeout));
+        }
+        return new Budget(maxSteps, timeout);
+    }
+
+    /**
+     * @return maximum number of characters read in a single search, {@link Long#MAX_VALUE} if unlimited
+     */
+    public long maxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * @return maximum time of a single search or {@code null} if unlimited
+     */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * @return true if this budget can run out
+     */
+    public boolean isLimited() {
+        return maxSteps != Long.MAX_VALUE || timeout != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Budget budget = (Budget) o;
+        return maxSteps == budget.maxSteps &&
+                Objects.equals(timeout, budget.timeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxSteps, timeout);
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{" +
+                "maxSteps=" + (maxSteps == Long.MAX_VALUE ? "unlimited" : maxSteps) +
+                ", timeout=" + (timeout == null ? "unlimited" : timeout) +
+                '}';
+    }
+
+}
@@ -0,0 +1,24 @@
+package io.plainregex;
+
+/**
+ * Thrown when a search runs out of its {@link Budget}.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Budget budget;
+
+    public BudgetExceededException(String message, Budget budget) {
+        super(message);
+        this.budget = budget;
+    }
+
+    /**
+     * @return the budget which ran out
+     */
+    public Budget budget() {
+        return budget;
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.plainregex;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counterpart of {@link MatchCursor} matching UTF-8 encoded text. All indices are in bytes.
+ */
+interface ByteMatchCursor {
+
+    /**
+     * Starts matching bytes between position and limit of the buffer. Index {@code 0} is
+     * the position of buffer. Buffer must not be modified while it's matched.
+     * @param bytes the UTF-8 encoded text to match
+     */
+    void reset(ByteBuffer bytes);
+
+    /**
+     * Finds next match starting at or after the given index. Search starts at the first
+     * character beginning at or after the index.
+     * @param from index of byte where search starts
+     * @return true if match was found
+     */
+    boolean find(int from);
+
+    int start();
+
+    int end();
+
+    static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Finds all matches of text to which cursor was reset.
+     * @param length length of text in bytes
+     * @return start and end of every match, one after another
+     */
+    static int[] findAll(ByteMatchCursor cursor, int length) {
+        Bounds bounds = new Bounds();
+        int position = 0;
+        while (position <= length && cursor.find(position)) {
+            bounds.add(cursor.start(), cursor.end());
+            position = ChunkedFinder.next(cursor.start(), cursor.end());
+        }
+        return bounds.toArray();
+    }
+
+    /**
+     * @return text of bytes between the given indices relative to position of the buffer
+     */
+    static String decode(ByteBuffer bytes, int start, int end) {
+        ByteBuffer view = bytes.duplicate();
+        view.limit(bytes.position() + end).position(bytes.position() + start);
+        return StandardCharsets.UTF_8.decode(view).toString();
+    }
+
+}
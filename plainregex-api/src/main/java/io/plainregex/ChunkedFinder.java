@@ -0,0 +1,197 @@
+package io.plainregex;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Finds all matches in large text by scanning its chunks in parallel in the common
+ * {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * <p> Every chunk is searched in a window extended by {@link #OVERLAP} characters on both sides,
+ * which serve as context of lookbehinds and lookaheads and let matches starting in the chunk
+ * end in the next one. Matches of chunks are then stitched in order: scan of a chunk starts at
+ * its beginning, so its matches are used only from the point where they continue the sequence of
+ * matches found so far. Matches which can't be taken from chunks are found directly in the whole
+ * text. Results are the same as of sequential search as long as no match, including its
+ * lookarounds, is longer than the overlap.
+ *
+ * <p> Chunk size and overlap can be set with {@code plainregex.parallel.chunkSize} and
+ * {@code plainregex.parallel.overlap} system properties.
+ */
+final class ChunkedFinder {
+
+    static final int CHUNK_SIZE = Integer.getInteger("plainregex.parallel.chunkSize", 1 << 18);
+    static final int OVERLAP = Integer.getInteger("plainregex.parallel.overlap", 1 << 13);
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Supplier<MatchCursor> cursors;
+    private final CharSequence text;
+    private final int chunkSize;
+    private final int overlap;
+
+    ChunkedFinder(Supplier<MatchCursor> cursors, CharSequence text) {
+        this(cursors, text, CHUNK_SIZE, OVERLAP);
+    }
+
+    ChunkedFinder(Supplier<MatchCursor> cursors, CharSequence text, int chunkSize, int overlap) {
+        if (chunkSize <= 0 || overlap <= 0) {
+            throw new IllegalArgumentException(String.format("Chunk size and overlap must be positive: %d, %d.", chunkSize, overlap));
+        }
+        this.cursors = cursors;
+        this.text = text;
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * @param length number of characters left to search
+     * @return true if searching in chunks is worth its overhead
+     */
+    boolean isWorthSplitting(int length) {
+        return length >= 2 * chunkSize;
+    }
+
+    /**
+     * Finds all matches as if searching sequentially from the given position.
+     * @param from index where search starts
+     * @return start and end of every match, one after another
+     */
+    int[] findAll(int from) {
+        int length = text.length();
+        if (from > length) {
+            return EMPTY;
+        }
+        int count = Math.max(1, (length - from) / chunkSize);
+        Chunk[] chunks = IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> scan(from + (int) ((long) (length - from) * i / count), from + (int) ((long) (length - from) * (i + 1) / count)))
+                .toArray(Chunk[]::new);
+        return stitch(chunks, from);
+    }
+
+    private Chunk scan(int start, int end) {
+        int length = text.length();
+        int windowStart = Math.max(0, start - overlap);
+        int windowEnd = (int) Math.min(length, (long) end + overlap);
+        boolean last = end == length;
+
+        MatchCursor cursor = cursors.get();
+        cursor.reset(text.subSequence(windowStart, windowEnd));
+
+        Chunk chunk = new Chunk(start, end);
+        int position = start;
+        while (position <= windowEnd && cursor.find(position - windowStart)) {
+            int matchStart = cursor.start() + windowStart;
+            int matchEnd = cursor.end() + windowStart;
+            if (matchStart >= end && !last) {
+                return chunk;
+            }
+            if (matchEnd + 2 >= windowEnd && windowEnd != length) {
+                chunk.complete = false;
+                return chunk;
+            }
+            chunk.add(matchStart, matchEnd);
+            position = next(matchStart, matchEnd);
+        }
+        return chunk;
+    }
+
+    private int[] stitch(Chunk[] chunks, int from) {
+        int length = text.length();
+        Bounds bounds = new Bounds();
+        MatchCursor direct = null;
+
+        int position = from;
+        int i = 0;
+        while (position <= length) {
+            while (i < chunks.length - 1 && position >= chunks[i].end) {
+                i++;
+            }
+            Chunk chunk = chunks[i];
+
+            int j = chunk.indexOf(position);
+            if (j >= 0) {
+                for (; j < chunk.size; j++) {
+                    bounds.add(chunk.starts[j], chunk.ends[j]);
+                    position = next(chunk.starts[j], chunk.ends[j]);
+                }
+                if (chunk.complete) {
+                    if (i == chunks.length - 1) {
+                        break;
+                    }
+                    position = Math.max(position, chunks[i + 1].start);
+                    continue;
+                }
+            }
+
+            if (direct == null) {
+                direct = cursors.get();
+                direct.reset(text);
+            }
+            if (!direct.find(position)) {
+                break;
+            }
+            bounds.add(direct.start(), direct.end());
+            position = next(direct.start(), direct.end());
+        }
+        return bounds.toArray();
+    }
+
+    static int next(int start, int end) {
+        return start == end ? end + 1 : end;
+    }
+
+    private static class Chunk {
+
+        final int start;
+        final int end;
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int size;
+        boolean complete = true;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void add(int matchStart, int matchEnd) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = matchStart;
+            ends[size] = matchEnd;
+            size++;
+        }
+
+        /**
+         * @return index of match found by searching from the given position, which is
+         * {@code size} if no more matches were found, or {@code -1} if scan of chunk
+         * never searched from that position
+         */
+        int indexOf(int position) {
+            if (position == start) {
+                return 0;
+            }
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int origin = next(starts[middle], ends[middle]);
+                if (origin < position) {
+                    low = middle + 1;
+                } else if (origin > position) {
+                    high = middle - 1;
+                } else {
+                    return middle + 1;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,308 @@
+package io.plainregex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable set of Unicode code points, kept as sorted, disjoint and non-adjacent ranges.
+ */
+final class CodePointSet {
+
+    static final CodePointSet EMPTY = new CodePointSet(new int[0]);
+    static final CodePointSet ALL = new CodePointSet(new int[]{0, Character.MAX_CODE_POINT});
+
+    private static volatile Map<Integer, int[]> caseOrbits;
+    private static volatile Map<Integer, int[]> caseSources;
+
+    private final int[] ranges;
+
+    private CodePointSet(int[] ranges) {
+        this.ranges = ranges;
+    }
+
+    static CodePointSet of(int codePoint) {
+        return new CodePointSet(new int[]{codePoint, codePoint});
+    }
+
+    static CodePointSet range(int from, int to) {
+        return from > to ? EMPTY : new CodePointSet(new int[]{from, to});
+    }
+
+    /**
+     * @param ranges pairs of first and last code point of every range, in any order
+     */
+    static CodePointSet ranges(int... ranges) {
+        Builder builder = new Builder();
+        for (int i = 0; i < ranges.length; i += 2) {
+            builder.add(ranges[i], ranges[i + 1]);
+        }
+        return builder.build();
+    }
+
+    static CodePointSet chars(String chars) {
+        return ranges(chars.codePoints().flatMap(c -> java.util.stream.IntStream.of(c, c)).toArray());
+    }
+
+    static CodePointSet matching(IntPredicate predicate) {
+        Builder builder = new Builder();
+        int start = -1;
+        for (int c = 0; c <= Character.MAX_CODE_POINT + 1; c++) {
+            boolean contained = c <= Character.MAX_CODE_POINT && predicate.test(c);
+            if (contained && start < 0) {
+                start = c;
+            } else if (!contained && start >= 0) {
+                builder.add(start, c - 1);
+                start = -1;
+            }
+        }
+        return builder.build();
+    }
+
+    boolean contains(int codePoint) {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (ranges[2 * middle + 1] < codePoint) {
+                low = middle + 1;
+            } else if (ranges[2 * middle] > codePoint) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return ranges.length == 0;
+    }
+
+    /**
+     * @return the only code point of set or {@code -1} if set has other size
+     */
+    int single() {
+        return ranges.length == 2 && ranges[0] == ranges[1] ? ranges[0] : -1;
+    }
+
+    int rangeCount() {
+        return ranges.length / 2;
+    }
+
+    int rangeStart(int i) {
+        return ranges[2 * i];
+    }
+
+    int rangeEnd(int i) {
+        return ranges[2 * i + 1];
+    }
+
+    CodePointSet union(CodePointSet other) {
+        Builder builder = new Builder();
+        builder.add(this);
+        builder.add(other);
+        return builder.build();
+    }
+
+    CodePointSet complement() {
+        Builder builder = new Builder();
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            builder.add(next, ranges[i] - 1);
+            next = ranges[i + 1] + 1;
+        }
+        builder.add(next, Character.MAX_CODE_POINT);
+        return builder.build();
+    }
+
+    CodePointSet intersection(CodePointSet other) {
+        return complement().union(other.complement()).complement();
+    }
+
+    CodePointSet minus(CodePointSet other) {
+        return intersection(other.complement());
+    }
+
+    /**
+     * Adds ASCII letters of other case for every ASCII letter in set.
+     */
+    CodePointSet withAsciiCase() {
+        Builder builder = new Builder();
+        builder.add(this);
+        for (int i = 0; i < ranges.length && ranges[i] <= 'z'; i += 2) {
+            for (int c = Math.max(ranges[i], 'A'); c <= Math.min(ranges[i + 1], 'z'); c++) {
+                if (c >= 'A' && c <= 'Z') {
+                    builder.add(c + 32, c + 32);
+                } else if (c >= 'a') {
+                    builder.add(c - 32, c - 32);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds every code point which is equal to some member of set when case is ignored.
+     */
+    CodePointSet withUnicodeCase() {
+        Map<Integer, int[]> orbits = caseOrbits();
+        Builder builder = new Builder();
+        builder.add(this);
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int c = ranges[i]; c <= ranges[i + 1]; c++) {
+                int[] orbit = orbits.get(c);
+                if (orbit != null) {
+                    for (int o : orbit) {
+                        builder.add(o, o);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds every code point whose upper case, or lower case of upper case, is a member of set. That's how
+     * {@link java.util.regex.Pattern} matches ranges with Unicode-aware case folding.
+     */
+    CodePointSet withUpperOrLowerCase() {
+        Map<Integer, int[]> sources = caseSources();
+        Builder builder = new Builder();
+        builder.add(this);
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int c = ranges[i]; c <= ranges[i + 1]; c++) {
+                int[] source = sources.get(c);
+                if (source != null) {
+                    for (int s : source) {
+                        builder.add(s, s);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static Map<Integer, int[]> caseSources() {
+        Map<Integer, int[]> sources = caseSources;
+        if (sources == null) {
+            sources = new HashMap<>();
+            for (int c = 0; c <= Character.MAX_CODE_POINT; c++) {
+                int upper = Character.toUpperCase(c);
+                int lower = Character.toLowerCase(upper);
+                if (upper != c) {
+                    addSource(sources, upper, c);
+                }
+                if (lower != c && lower != upper) {
+                    addSource(sources, lower, c);
+                }
+            }
+            caseSources = sources;
+        }
+        return sources;
+    }
+
+    private static void addSource(Map<Integer, int[]> sources, int target, int source) {
+        int[] existing = sources.get(target);
+        int[] extended = existing == null ? new int[1] : Arrays.copyOf(existing, existing.length + 1);
+        extended[extended.length - 1] = source;
+        sources.put(target, extended);
+    }
+
+    private static Map<Integer, int[]> caseOrbits() {
+        Map<Integer, int[]> orbits = caseOrbits;
+        if (orbits == null) {
+            Map<Integer, int[]> keyed = new HashMap<>();
+            for (int c = 0; c <= Character.MAX_CODE_POINT; c++) {
+                int key = Character.toLowerCase(Character.toUpperCase(c));
+                if (key != c || Character.toUpperCase(c) != c) {
+                    int[] orbit = keyed.get(key);
+                    int[] extended = orbit == null ? new int[]{key, c} : Arrays.copyOf(orbit, orbit.length + 1);
+                    if (orbit != null) {
+                        extended[orbit.length] = c;
+                    }
+                    keyed.put(key, extended);
+                }
+            }
+            orbits = new HashMap<>();
+            for (int[] orbit : keyed.values()) {
+                int[] distinct = Arrays.stream(orbit).distinct().toArray();
+                for (int c : distinct) {
+                    orbits.put(c, distinct);
+                }
+            }
+            caseOrbits = orbits;
+        }
+        return orbits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(ranges, ((CodePointSet) o).ranges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ranges);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < ranges.length; i += 2) {
+            sb.append(String.format(ranges[i] == ranges[i + 1] ? "%X" : "%X-%X", ranges[i], ranges[i + 1])).append(i + 2 < ranges.length ? " " : "");
+        }
+        return sb.append(']').toString();
+    }
+
+    static class Builder {
+
+        private int[] ranges = new int[16];
+        private int size;
+
+        Builder add(int from, int to) {
+            if (from <= to) {
+                if (size + 2 > ranges.length) {
+                    ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                }
+                ranges[size++] = from;
+                ranges[size++] = to;
+            }
+            return this;
+        }
+
+        Builder add(CodePointSet set) {
+            for (int i = 0; i < set.ranges.length; i += 2) {
+                add(set.ranges[i], set.ranges[i + 1]);
+            }
+            return this;
+        }
+
+        CodePointSet build() {
+            long[] sorted = new long[size / 2];
+            for (int i = 0; i < size; i += 2) {
+                sorted[i / 2] = (long) ranges[i] << 32 | ranges[i + 1];
+            }
+            Arrays.sort(sorted);
+
+            int[] merged = new int[size];
+            int count = 0;
+            for (long range : sorted) {
+                int from = (int) (range >>> 32);
+                int to = (int) range;
+                if (count > 0 && from <= merged[count - 1] + 1) {
+                    merged[count - 1] = Math.max(merged[count - 1], to);
+                } else {
+                    merged[count++] = from;
+                    merged[count++] = to;
+                }
+            }
+            return count == 0 ? EMPTY : new CodePointSet(Arrays.copyOf(merged, count));
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.plainregex;
+
+import java.util.Locale;
+
+/**
+ * Regular expression engines which can back {@link Regex}. An engine is available only
+ * when its module is on the classpath.
+ */
+public enum Engine {
+
+    /**
+     * Backtracking engine of {@link java.util.regex.Pattern}, provided by plainregex-java.
+     */
+    JAVA,
+
+    /**
+     * Linear time engine of RE2/J, provided by plainregex-re2j.
+     */
+    RE2J,
+
+    /**
+     * Linear time engine matching with lazily built DFA, provided by plainregex-dfa.
+     */
+    DFA,
+
+    /**
+     * Picks one of the other available engines for each pattern, see {@link Routing}. Patterns are
+     * written in the syntax of {@link #JAVA} and flags resolve to constants of {@link java.util.regex.Pattern}.
+     * Available when any other engine is.
+     */
+    AUTO;
+
+    /**
+     * Returns engine with the given name, ignoring case.
+     * @param name name of the engine, e.g. {@code "re2j"}
+     * @return the engine
+     * @throws IllegalArgumentException if there is no engine with such name
+     */
+    public static Engine named(String name) {
+        return Engine.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if module of this engine is on the classpath
+     */
+    public boolean isAvailable() {
+        return RegexFactories.find(this) != null;
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.plainregex;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Finds matches in text one by one. When split, which happens only in parallel streams, bounds
+ * of all remaining matches of large text are first found in parallel by {@link ChunkedFinder}, so
+ * the spliterator and its parts become sized and split further evenly.
+ */
+class FindingSpliterator implements Spliterator<Match> {
+
+    private final Supplier<MatchCursor> cursors;
+    private final CharSequence text;
+    private MatchCursor cursor;
+    private int position;
+
+    private int[] bounds;
+    private int index;
+    private int fence;
+
+    FindingSpliterator(Supplier<MatchCursor> cursors, CharSequence text) {
+        this.cursors = cursors;
+        this.text = text;
+    }
+
+    private FindingSpliterator(CharSequence text, int[] bounds, int index, int fence) {
+        this.cursors = null;
+        this.text = text;
+        this.bounds = bounds;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Match> consumer) {
+        if (bounds != null) {
+            if (index < fence) {
+                consumer.accept(match(bounds[2 * index], bounds[2 * index + 1]));
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        if (cursor == null) {
+            cursor = cursors.get();
+            cursor.reset(text);
+        }
+        if (position <= text.length() && cursor.find(position)) {
+            int start = cursor.start();
+            int end = cursor.end();
+            position = ChunkedFinder.next(start, end);
+            consumer.accept(match(start, end));
+            return true;
+        }
+        position = text.length() + 1;
+        return false;
+    }
+
+    /**
+     * Consumes remaining matches without creating them.
+     * @return number of remaining matches
+     */
+    long count() {
+        if (bounds != null) {
+            long count = fence - index;
+            index = fence;
+            return count;
+        }
+
+        if (cursor == null) {
+            cursor = cursors.get();
+            cursor.reset(text);
+        }
+        long count = 0;
+        while (position <= text.length() && cursor.find(position)) {
+            position = ChunkedFinder.next(cursor.start(), cursor.end());
+            count++;
+        }
+        position = text.length() + 1;
+        return count;
+    }
+
+    @Override
+    public Spliterator<Match> trySplit() {
+        if (bounds == null) {
+            ChunkedFinder finder = new ChunkedFinder(cursors, text);
+            if (!finder.isWorthSplitting(text.length() - position)) {
+                return null;
+            }
+            bounds = finder.findAll(position);
+            index = 0;
+            fence = bounds.length / 2;
+        }
+
+        int middle = (index + fence) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        Spliterator<Match> prefix = new FindingSpliterator(text, bounds, index, middle);
+        index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return bounds != null ? fence - index : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return bounds != null ? ORDERED | NONNULL | SIZED | SUBSIZED : ORDERED | NONNULL;
+    }
+
+    private Match match(int start, int end) {
+        return Match.of(text, start, end);
+    }
+
+}
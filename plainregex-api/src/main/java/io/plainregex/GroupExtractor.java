@@ -0,0 +1,374 @@
+package io.plainregex;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Fills objects with groups of matches. Group indices and setters are resolved once when the extractor is
+ * built, and groups are passed to setters directly from bounds visited by
+ * {@link Regex#forEachGroupMatch(CharSequence, GroupVisitor)}, without creating {@link Match} objects, and
+ * without creating substrings for numeric groups.
+ *
+ * <p> Extractor is thread safe as long as the setters are.
+ *
+ * @param <T> type of filled objects
+ */
+public final class GroupExtractor<T> {
+
+    private final Regex regex;
+    private final Supplier<? extends T> factory;
+    private final Binding<T>[] bindings;
+
+    private GroupExtractor(Regex regex, Supplier<? extends T> factory, Binding<T>[] bindings) {
+        this.regex = regex;
+        this.factory = factory;
+        this.bindings = bindings;
+    }
+
+    /**
+     * Creates builder of extractor, which binds groups of regex to setters of objects created by factory.
+     * @param regex regex whose groups are extracted
+     * @param factory creates filled objects
+     * @param <T> type of filled objects
+     * @return the builder
+     */
+    public static <T> Builder<T> builder(Regex regex, Supplier<? extends T> factory) {
+        return new Builder<>(regex, factory);
+    }
+
+    /**
+     * Creates extractor which binds every named group of regex to the setter, e.g. {@code setLevel} for
+     * group {@code level}, or else to the field of the same name of type. Setters and fields can be of
+     * type {@code String}, {@code CharSequence}, {@code int}, {@code long}, {@code double} or their
+     * wrappers. Objects are created by constructor without parameters.
+     * @param regex regex whose groups are extracted
+     * @param type type of filled objects
+     * @param <T> type of filled objects
+     * @return the extractor
+     * @throws IllegalArgumentException if type has no constructor without parameters or some group has no
+     * setter nor field of supported type
+     */
+    public static <T> GroupExtractor<T> of(Regex regex, Class<T> type) {
+        Builder<T> builder = builder(regex, constructor(type));
+        for (Map.Entry<String, Integer> group : regex.groupNames().entrySet()) {
+            builder.bind(group.getValue(), property(type, group.getKey()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Fills new object with groups of the first match in text.
+     * @param text the text to search
+     * @return the filled object, empty if there's no match
+     */
+    public Optional<T> extractFirst(CharSequence text) {
+        T target = factory.get();
+        return extractFirst(text, target) ? Optional.of(target) : Optional.empty();
+    }
+
+    /**
+     * Fills the given object with groups of the first match in text, e.g. to reuse it for many texts.
+     * Properties of groups which didn't match are left unchanged.
+     * @param text the text to search
+     * @param target the filled object
+     * @return true if text contains a match
+     */
+    public boolean extractFirst(CharSequence text, T target) {
+        return regex.forFirstGroupMatch(text, (group, start, end) -> set(target, text, group, start, end));
+    }
+
+    /**
+     * Fills new object with groups of every match in text.
+     * @param text the text to search
+     * @return filled objects, in order of matches
+     */
+    public List<T> extractAll(CharSequence text) {
+        List<T> targets = new ArrayList<>();
+        regex.forEachGroupMatch(text, new GroupVisitor() {
+
+            private T target;
+
+            @Override
+            public void visit(int group, int start, int end) {
+                if (group == 0) {
+                    target = factory.get();
+                    targets.add(target);
+                }
+                set(target, text, group, start, end);
+            }
+        });
+        return targets;
+    }
+
+    private void set(T target, CharSequence text, int group, int start, int end) {
+        if (start >= 0 && group < bindings.length && bindings[group] != null) {
+            bindings[group].set(target, text, start, end);
+        }
+    }
+
+    static long parseLong(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return Long.parseLong(text.subSequence(start, end).toString());
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                // leaves other digits and errors to the JDK
+                return Long.parseLong(text.subSequence(start, end).toString());
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    static int parseInt(CharSequence text, int start, int end) {
+        long value = parseLong(text, start, end);
+        if (value != (int) value) {
+            return Integer.parseInt(text.subSequence(start, end).toString());
+        }
+        return (int) value;
+    }
+
+    private static <T> Supplier<T> constructor(Class<T> type) {
+        MethodHandle handle;
+        try {
+            Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Type has no accessible constructor without parameters: %s.", type.getName()), e);
+        }
+        return () -> {
+            try {
+                return type.cast(handle.invokeExact());
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(String.format("Can't create instance of: %s.", type.getName()), e);
+            }
+        };
+    }
+
+    private static <T> Binding<T> property(Class<T> type, String name) {
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        try {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (method.getName().equals(setterName) && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())
+                            && isSupported(method.getParameterTypes()[0])) {
+                        method.setAccessible(true);
+                        return binding(MethodHandles.lookup().unreflect(method), method.getParameterTypes()[0], name);
+                    }
+                }
+            }
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())
+                            && isSupported(field.getType())) {
+                        field.setAccessible(true);
+                        return binding(MethodHandles.lookup().unreflectSetter(field), field.getType(), name);
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Can't access property %s of: %s.", name, type.getName()), e);
+        }
+        throw new IllegalArgumentException(String.format("Type %s has no setter nor field of supported type for group: %s.", type.getName(), name));
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return Arrays.asList(String.class, CharSequence.class, Object.class, int.class, Integer.class,
+                long.class, Long.class, double.class, Double.class).contains(type);
+    }
+
+    private static <T> Binding<T> binding(MethodHandle setter, Class<?> type, String name) {
+        if (type == int.class || type == Integer.class) {
+            MethodHandle handle = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+            return (target, text, start, end) -> {
+                int value = parseInt(text, start, end);
+                try {
+                    handle.invokeExact((Object) target, value);
+                } catch (Throwable e) {
+                    throw failed(e, name);
+                }
+            };
+        } else if (type == long.class || type == Long.class) {
+            MethodHandle handle = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+            return (target, text, start, end) -> {
+                long value = parseLong(text, start, end);
+                try {
+                    handle.invokeExact((Object) target, value);
+                } catch (Throwable e) {
+                    throw failed(e, name);
+                }
+            };
+        } else if (type == double.class || type == Double.class) {
+            MethodHandle handle = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+            return (target, text, start, end) -> {
+                double value = Double.parseDouble(text.subSequence(start, end).toString());
+                try {
+                    handle.invokeExact((Object) target, value);
+                } catch (Throwable e) {
+                    throw failed(e, name);
+                }
+            };
+        } else {
+            MethodHandle handle = setter.asType(MethodType.methodType(void.class, Object.class, String.class));
+            return (target, text, start, end) -> {
+                String value = text.subSequence(start, end).toString();
+                try {
+                    handle.invokeExact((Object) target, value);
+                } catch (Throwable e) {
+                    throw failed(e, name);
+                }
+            };
+        }
+    }
+
+    private static RuntimeException failed(Throwable e, String name) {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(String.format("Can't set property: %s.", name), e);
+    }
+
+    /**
+     * Sets group found in text between the given bounds to property of target.
+     */
+    @FunctionalInterface
+    private interface Binding<T> {
+
+        void set(T target, CharSequence text, int start, int end);
+
+    }
+
+    /**
+     * Builder of {@link GroupExtractor}. Groups without bound setter are skipped.
+     *
+     * @param <T> type of filled objects
+     */
+    public static final class Builder<T> {
+
+        private final Regex regex;
+        private final Supplier<? extends T> factory;
+        private final List<Binding<T>> bindings = new ArrayList<>();
+
+        private Builder(Regex regex, Supplier<? extends T> factory) {
+            this.regex = regex;
+            this.factory = factory;
+        }
+
+        /**
+         * @param group index of group, {@code 0} for the whole match
+         * @param setter receives text of group
+         * @return this builder
+         * @throws IllegalArgumentException if group is negative or already bound
+         */
+        public Builder<T> bind(int group, BiConsumer<? super T, String> setter) {
+            return bind(group, (target, text, start, end) -> setter.accept(target, text.subSequence(start, end).toString()));
+        }
+
+        /**
+         * @param group name of group
+         * @param setter receives text of group
+         * @return this builder
+         * @throws IllegalArgumentException if regex has no such group or it's already bound
+         */
+        public Builder<T> bind(String group, BiConsumer<? super T, String> setter) {
+            return bind(index(group), setter);
+        }
+
+        /**
+         * @param group index of group, {@code 0} for the whole match
+         * @param setter receives value of group parsed as decimal {@code int}
+         * @return this builder
+         * @throws IllegalArgumentException if group is negative or already bound
+         */
+        public Builder<T> bindInt(int group, ObjIntConsumer<? super T> setter) {
+            return bind(group, (target, text, start, end) -> setter.accept(target, parseInt(text, start, end)));
+        }
+
+        /**
+         * @param group name of group
+         * @param setter receives value of group parsed as decimal {@code int}
+         * @return this builder
+         * @throws IllegalArgumentException if regex has no such group or it's already bound
+         */
+        public Builder<T> bindInt(String group, ObjIntConsumer<? super T> setter) {
+            return bindInt(index(group), setter);
+        }
+
+        /**
+         * @param group index of group, {@code 0} for the whole match
+         * @param setter receives value of group parsed as decimal {@code long}
+         * @return this builder
+         * @throws IllegalArgumentException if group is negative or already bound
+         */
+        public Builder<T> bindLong(int group, ObjLongConsumer<? super T> setter) {
+            return bind(group, (target, text, start, end) -> setter.accept(target, parseLong(text, start, end)));
+        }
+
+        /**
+         * @param group name of group
+         * @param setter receives value of group parsed as decimal {@code long}
+         * @return this builder
+         * @throws IllegalArgumentException if regex has no such group or it's already bound
+         */
+        public Builder<T> bindLong(String group, ObjLongConsumer<? super T> setter) {
+            return bindLong(index(group), setter);
+        }
+
+        /**
+         * @return extractor with the bound setters
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public GroupExtractor<T> build() {
+            return new GroupExtractor<>(regex, factory, bindings.toArray(new Binding[0]));
+        }
+
+        private Builder<T> bind(int group, Binding<T> binding) {
+            if (group < 0) {
+                throw new IllegalArgumentException(String.format("Group index can't be negative: %d.", group));
+            }
+            while (bindings.size() <= group) {
+                bindings.add(null);
+            }
+            if (bindings.get(group) != null) {
+                throw new IllegalArgumentException(String.format("Group is already bound: %d.", group));
+            }
+            bindings.set(group, binding);
+            return this;
+        }
+
+        private int index(String group) {
+            Integer index = regex.groupNames().get(group);
+            if (index == null) {
+                throw new IllegalArgumentException(String.format("Regex has no group named: %s.", group));
+            }
+            return index;
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package io.plainregex;
+
+/**
+ * Receives bounds of groups found by {@link Regex#forEachGroupMatch(CharSequence, GroupVisitor)}.
+ */
+@FunctionalInterface
+public interface GroupVisitor {
+
+    /**
+     * Called for every group of every match. Group {@code 0} is the whole match and is
+     * visited first, followed by groups {@code 1} to {@code n}.
+     * @param group index of the group
+     * @param start index of the first character of group or {@code -1} if group didn't participate in match
+     * @param end index after the last character of group or {@code -1} if group didn't participate in match
+     */
+    void visit(int group, int start, int end);
+
+}
@@ -0,0 +1,169 @@
+package io.plainregex;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Finds matches in text pushed to it in chunks, e.g. as they arrive from network, created by
+ * {@link Regex#incrementalMatcher(int, Consumer)}.
+ *
+ * <p> Chunks are appended to a window of {@code 4 * maxMatchLength} characters, which is searched
+ * whenever it fills up. A match is final, and passed to the consumer, when at least
+ * {@code maxMatchLength} characters follow its start, so every match is reported at most
+ * {@code 4 * maxMatchLength} characters after its start arrives, or by {@link #finish()}. Between searches only
+ * {@code maxMatchLength} characters before the search position are kept, for lookbehinds and anchors,
+ * so every character is searched at most twice however the input is split into chunks. Results are the
+ * same as for the whole text if no match, including its lookarounds, is longer than {@code maxMatchLength}.
+ * Offsets of matches are absolute positions in the pushed text.
+ *
+ * <p> Matcher isn't thread safe.
+ */
+public final class IncrementalMatcher {
+
+    private final MatchCursor cursor;
+    private final int maxMatchLength;
+    private final Consumer<? super Match> consumer;
+    private final char[] buffer;
+
+    private long offset = 0;
+    private int length = 0;
+    private int position = 0;
+    private boolean finished = false;
+
+    private CharsetDecoder decoder;
+    private byte[] incomplete = new byte[0];
+
+    IncrementalMatcher(MatchCursor cursor, int maxMatchLength, Consumer<? super Match> consumer) {
+        if (maxMatchLength <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum length of match must be positive: %d.", maxMatchLength));
+        }
+        this.cursor = cursor;
+        this.maxMatchLength = maxMatchLength;
+        this.consumer = consumer;
+        this.buffer = new char[Math.multiplyExact(maxMatchLength, 4)];
+    }
+
+    /**
+     * Appends characters to the searched text.
+     * @param chunk array holding the characters
+     * @param offset index of the first character in array
+     * @param length number of characters
+     * @throws IllegalStateException if matcher is finished
+     */
+    public void feed(char[] chunk, int offset, int length) {
+        feed(CharBuffer.wrap(chunk, offset, length));
+    }
+
+    /**
+     * Appends characters to the searched text.
+     * @param chunk the characters
+     * @throws IllegalStateException if matcher is finished
+     */
+    public void feed(CharSequence chunk) {
+        checkNotFinished();
+        int index = 0;
+        while (index < chunk.length()) {
+            int count = Math.min(chunk.length() - index, buffer.length - length);
+            for (int i = 0; i < count; i++) {
+                buffer[length + i] = chunk.charAt(index + i);
+            }
+            length += count;
+            index += count;
+            if (length == buffer.length) {
+                search(false);
+            }
+        }
+    }
+
+    /**
+     * Appends UTF-8 encoded text. Characters split between chunks are joined, and malformed bytes are
+     * decoded as {@code U+FFFD}. Offsets of matches are positions of characters of the decoded text.
+     * @param chunk array holding the bytes
+     * @param offset index of the first byte in array
+     * @param length number of bytes
+     * @throws IllegalStateException if matcher is finished
+     */
+    public void feed(byte[] chunk, int offset, int length) {
+        checkNotFinished();
+        ByteBuffer bytes;
+        if (incomplete.length == 0) {
+            bytes = ByteBuffer.wrap(chunk, offset, length);
+        } else {
+            bytes = ByteBuffer.allocate(incomplete.length + length);
+            bytes.put(incomplete).put(chunk, offset, length).flip();
+        }
+        decode(bytes, false);
+        incomplete = new byte[bytes.remaining()];
+        bytes.get(incomplete);
+    }
+
+    /**
+     * Ends the text, passing all remaining matches to the consumer.
+     * @throws IllegalStateException if matcher is already finished
+     */
+    public void finish() {
+        checkNotFinished();
+        if (decoder != null) {
+            decode(ByteBuffer.wrap(incomplete), true);
+            incomplete = new byte[0];
+        }
+        search(true);
+        finished = true;
+    }
+
+    private void decode(ByteBuffer bytes, boolean endOfInput) {
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        while (true) {
+            CharBuffer chars = CharBuffer.wrap(buffer, length, buffer.length - length);
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (!result.isOverflow() && endOfInput) {
+                result = decoder.flush(chars);
+            }
+            length = chars.position();
+            if (!result.isOverflow()) {
+                return;
+            }
+            search(false);
+        }
+    }
+
+    /**
+     * Passes final matches of the window to the consumer and drops characters which aren't needed anymore.
+     * @param end whether the text ended
+     */
+    private void search(boolean end) {
+        int limit = end ? length : length - maxMatchLength;
+        cursor.reset(CharBuffer.wrap(buffer, 0, length));
+        while (position <= length && (end || position < limit) && cursor.find(position)) {
+            int start = cursor.start();
+            if (!end && start >= limit) {
+                break;
+            }
+            consumer.accept(new Match(new String(buffer, start, cursor.end() - start), offset + start, offset + cursor.end()));
+            position = ChunkedFinder.next(start, cursor.end());
+        }
+        position = Math.max(position, limit);
+
+        int discarded = Math.min(length, Math.max(0, position - maxMatchLength));
+        System.arraycopy(buffer, discarded, buffer, 0, length - discarded);
+        length -= discarded;
+        offset += discarded;
+        position -= discarded;
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Matcher is already finished.");
+        }
+    }
+
+}
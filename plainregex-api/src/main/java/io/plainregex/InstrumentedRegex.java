@@ -0,0 +1,302 @@
+package io.plainregex;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Regex recording time and outcome of every call of the wrapped regex in {@link PatternMetrics}.
+ */
+final class InstrumentedRegex implements Regex {
+
+    private final Regex regex;
+    private final PatternMetrics metrics;
+    private final RegexMetrics registry;
+
+    InstrumentedRegex(Regex regex, PatternMetrics metrics, RegexMetrics registry) {
+        this.regex = regex;
+        this.metrics = metrics;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+        long start = System.nanoTime();
+        boolean matched = regex.matches(text);
+        record(RegexOperation.MATCH, matched, start, text);
+        return matched;
+    }
+
+    @Override
+    public String replaceFirstIn(CharSequence text, String replacement) {
+        long start = System.nanoTime();
+        return replaced(text, regex.replaceFirstIn(text, replacement), start);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, String replacement) {
+        long start = System.nanoTime();
+        return replaced(text, regex.replaceIn(text, replacement), start);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, Function<String, String> replacer) {
+        long start = System.nanoTime();
+        return replaced(text, regex.replaceIn(text, replacer), start);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer) {
+        long start = System.nanoTime();
+        return replaced(text, regex.replaceIn(text, replacer), start);
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(CharSequence text) {
+        long start = System.nanoTime();
+        Optional<Match> match = regex.findFirstInAsMatch(text);
+        record(RegexOperation.FIND_FIRST, match.isPresent(), start, text);
+        return match;
+    }
+
+    @Override
+    public Optional<String> findFirstIn(CharSequence text) {
+        long start = System.nanoTime();
+        Optional<String> match = regex.findFirstIn(text);
+        record(RegexOperation.FIND_FIRST, match.isPresent(), start, text);
+        return match;
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(CharSequence text) {
+        long start = System.nanoTime();
+        return measured(regex.findAllInAsMatch(text), RegexOperation.FIND_ALL, start, text);
+    }
+
+    @Override
+    public Result<String> findAllIn(CharSequence text) {
+        long start = System.nanoTime();
+        return measured(regex.findAllIn(text), RegexOperation.FIND_ALL, start, text);
+    }
+
+    @Override
+    public Result<Match> findGroupsInAsMatch(CharSequence text) {
+        long start = System.nanoTime();
+        return measured(regex.findGroupsInAsMatch(text), RegexOperation.FIND_GROUPS, start, text);
+    }
+
+    @Override
+    public Result<String> findGroupsIn(CharSequence text) {
+        long start = System.nanoTime();
+        return measured(regex.findGroupsIn(text), RegexOperation.FIND_GROUPS, start, text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength) {
+        long start = System.nanoTime();
+        return measured(regex.findAllInAsMatch(reader, maxMatchLength), RegexOperation.FIND_ALL, start, null);
+    }
+
+    @Override
+    public IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer) {
+        return regex.incrementalMatcher(maxMatchLength, consumer);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Path path, int maxMatchLength) {
+        long start = System.nanoTime();
+        return measured(regex.findAllInAsMatch(path, maxMatchLength), RegexOperation.FIND_ALL, start, null);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer bytes) {
+        long start = System.nanoTime();
+        boolean matched = regex.matches(bytes);
+        registry.record(metrics, RegexOperation.MATCH, matched, System.nanoTime() - start, bytes.remaining(), null);
+        return matched;
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(ByteBuffer bytes) {
+        long start = System.nanoTime();
+        Optional<Match> match = regex.findFirstInAsMatch(bytes);
+        registry.record(metrics, RegexOperation.FIND_FIRST, match.isPresent(), System.nanoTime() - start, bytes.remaining(), null);
+        return match;
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(ByteBuffer bytes) {
+        long start = System.nanoTime();
+        return measured(regex.findAllInAsMatch(bytes), RegexOperation.FIND_ALL, start, null);
+    }
+
+    @Override
+    public int[] findAllOffsetsIn(ByteBuffer bytes) {
+        long start = System.nanoTime();
+        int[] offsets = regex.findAllOffsetsIn(bytes);
+        registry.record(metrics, RegexOperation.FOR_EACH, offsets.length > 0, System.nanoTime() - start, bytes.remaining(), null);
+        return offsets;
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchVisitor visitor) {
+        boolean[] visited = new boolean[1];
+        long start = System.nanoTime();
+        regex.forEachMatch(text, (matchStart, matchEnd) -> {
+            visited[0] = true;
+            visitor.visit(matchStart, matchEnd);
+        });
+        record(RegexOperation.FOR_EACH, visited[0], start, text);
+    }
+
+    @Override
+    public void forEachGroupMatch(CharSequence text, GroupVisitor visitor) {
+        boolean[] visited = new boolean[1];
+        long start = System.nanoTime();
+        regex.forEachGroupMatch(text, (group, groupStart, groupEnd) -> {
+            visited[0] = true;
+            visitor.visit(group, groupStart, groupEnd);
+        });
+        record(RegexOperation.FOR_EACH, visited[0], start, text);
+    }
+
+    @Override
+    public boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        long start = System.nanoTime();
+        boolean found = regex.forFirstGroupMatch(text, visitor);
+        record(RegexOperation.FIND_FIRST, found, start, text);
+        return found;
+    }
+
+    @Override
+    public Map<String, Integer> groupNames() {
+        return regex.groupNames();
+    }
+
+    @Override
+    public Result<String> split(CharSequence text) {
+        long start = System.nanoTime();
+        return measured(regex.split(text), RegexOperation.SPLIT, start, text);
+    }
+
+    @Override
+    public Predicate<String> asFindPredicate() {
+        Predicate<String> predicate = regex.asFindPredicate();
+        return string -> {
+            long start = System.nanoTime();
+            boolean found = predicate.test(string);
+            record(RegexOperation.FIND, found, start, string);
+            return found;
+        };
+    }
+
+    @Override
+    public Predicate<String> asMatchPredicate() {
+        Predicate<String> predicate = regex.asMatchPredicate();
+        return string -> {
+            long start = System.nanoTime();
+            boolean matched = predicate.test(string);
+            record(RegexOperation.MATCH, matched, start, string);
+            return matched;
+        };
+    }
+
+    @Override
+    public BitSet matchesAll(List<? extends CharSequence> texts) {
+        long start = System.nanoTime();
+        BitSet matched = regex.matchesAll(texts);
+        registry.record(metrics, RegexOperation.BATCH, !matched.isEmpty(), System.nanoTime() - start, length(texts), null);
+        return matched;
+    }
+
+    @Override
+    public BitSet findsAll(List<? extends CharSequence> texts) {
+        long start = System.nanoTime();
+        BitSet found = regex.findsAll(texts);
+        registry.record(metrics, RegexOperation.BATCH, !found.isEmpty(), System.nanoTime() - start, length(texts), null);
+        return found;
+    }
+
+    @Override
+    public List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        long start = System.nanoTime();
+        List<Match> matches = regex.findFirstInAll(texts);
+        registry.record(metrics, RegexOperation.BATCH, matches.stream().anyMatch(Objects::nonNull), System.nanoTime() - start, length(texts), null);
+        return matches;
+    }
+
+    @Override
+    public Regex withBudget(Budget budget) {
+        Regex budgeted = regex.withBudget(budget);
+        return budgeted == regex ? this : new InstrumentedRegex(budgeted, metrics, registry);
+    }
+
+    @Override
+    public Regex withMatcherReuse(boolean reuse) {
+        Regex reusing = regex.withMatcherReuse(reuse);
+        return reusing == regex ? this : new InstrumentedRegex(reusing, metrics, registry);
+    }
+
+    /**
+     * Engines return the text itself when nothing was replaced, so only copies of other char sequences need comparing.
+     */
+    private String replaced(CharSequence text, String replaced, long start) {
+        boolean changed = replaced != text && (text instanceof String || replaced.length() != text.length() || !replaced.contentEquals(text));
+        record(RegexOperation.REPLACE, changed, start, text);
+        return replaced;
+    }
+
+    private void record(RegexOperation operation, boolean hit, long start, CharSequence text) {
+        registry.record(metrics, operation, hit, System.nanoTime() - start, text.length(), text);
+    }
+
+    /**
+     * @param text searched text, {@code null} if the result doesn't come from a single text
+     */
+    private <S> Result<S> measured(Result<S> result, RegexOperation operation, long start, CharSequence text) {
+        long created = System.nanoTime() - start;
+        long characters = text == null ? 0 : text.length();
+        MeasuredSpliterator.Measurement measurement = new MeasuredSpliterator.Measurement() {
+            @Override
+            void finished(long elements, long nanos) {
+                registry.record(metrics, operation, isHit(operation, elements), created + nanos, characters, text);
+            }
+        };
+        Stream<S> stream = result.stream();
+        Stream<S> measuredStream = StreamSupport.stream(new MeasuredSpliterator<>(stream.spliterator(), measurement), false)
+                .onClose(stream::close);
+        if (!(result instanceof MatchedResult) || !((MatchedResult<S>) result).hasCounter()) {
+            return new MatchedResult<>(measuredStream);
+        }
+        return new MatchedResult<>(measuredStream, () -> {
+            long counting = System.nanoTime();
+            long count = result.count();
+            registry.record(metrics, operation, isHit(operation, count), created + System.nanoTime() - counting, characters, text);
+            return count;
+        });
+    }
+
+    private static boolean isHit(RegexOperation operation, long elements) {
+        return elements > (operation == RegexOperation.SPLIT ? 1 : 0);
+    }
+
+    private static long length(List<? extends CharSequence> texts) {
+        long length = 0;
+        for (CharSequence text : texts) {
+            length += text.length();
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.plainregex;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free histogram of latencies in nanoseconds with log-linear buckets, like HdrHistogram: values are
+ * grouped by their highest bit and every group is split into {@value #SUB_BUCKETS} linear buckets, so
+ * reported values are at most 1/16 above the recorded ones, from nanoseconds to centuries, with a fixed
+ * number of buckets.
+ *
+ * <p> Counts are striped like in {@link java.util.concurrent.atomic.LongAdder}: they are recorded in a
+ * shared array until two threads collide, and then every thread records in its own stripe, chosen by
+ * thread id and allocated on first use. Stripes are merged when the histogram is read.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLongArray base = new AtomicLongArray(BUCKETS);
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+    private volatile boolean contended = false;
+
+    void record(long nanos) {
+        int index = index(Math.max(0, nanos));
+        if (!contended) {
+            long count = base.get(index);
+            if (base.compareAndSet(index, count, count + 1)) {
+                return;
+            }
+            contended = true;
+        }
+        stripe().incrementAndGet(index);
+    }
+
+    private AtomicLongArray stripe() {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) (id * 0x9E3779B97F4A7C15L >>> 32) & (STRIPES - 1);
+        AtomicLongArray counts = stripes.get(stripe);
+        if (counts == null) {
+            stripes.compareAndSet(stripe, null, new AtomicLongArray(BUCKETS));
+            counts = stripes.get(stripe);
+        }
+        return counts;
+    }
+
+    long count() {
+        long count = 0;
+        for (long bucket : snapshot()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        add(snapshot, base);
+        for (int i = 0; i < STRIPES; i++) {
+            AtomicLongArray counts = stripes.get(i);
+            if (counts != null) {
+                add(snapshot, counts);
+            }
+        }
+        return snapshot;
+    }
+
+    private static void add(long[] snapshot, AtomicLongArray counts) {
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * @param percentile percentile between {@code 0} and {@code 100}
+     * @return highest value of the bucket holding the given percentile of recorded values, {@code 0} if
+     * nothing was recorded
+     */
+    long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile must be between 0 and 100: %s.", percentile));
+        }
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long bucket : snapshot) {
+            total += bucket;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
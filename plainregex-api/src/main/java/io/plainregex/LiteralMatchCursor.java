@@ -0,0 +1,38 @@
+package io.plainregex;
+
+/**
+ * Cursor finding occurrences of a literal.
+ */
+final class LiteralMatchCursor implements MatchCursor {
+
+    private final LiteralSearcher searcher;
+    private CharSequence text;
+    private int start = -1;
+
+    LiteralMatchCursor(LiteralSearcher searcher) {
+        this.searcher = searcher;
+    }
+
+    @Override
+    public void reset(CharSequence text) {
+        this.text = text;
+        this.start = -1;
+    }
+
+    @Override
+    public boolean find(int from) {
+        start = searcher.indexIn(text, from);
+        return start >= 0;
+    }
+
+    @Override
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int end() {
+        return start + searcher.literal().length();
+    }
+
+}
@@ -0,0 +1,250 @@
+package io.plainregex;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Regex of a pattern without metacharacters, or compiled with {@link RegexFlag#LITERAL}, searched with
+ * {@link LiteralSearcher} instead of the engine.
+ *
+ * <p> Replacements referring to groups or containing escapes are passed to the engine's regex, which is
+ * compiled on first use, so they are interpreted exactly like by the engine.
+ */
+final class LiteralRegex implements Regex {
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final String literal;
+    private final LiteralSearcher searcher;
+    private final Supplier<Regex> engine;
+    private volatile Regex compiled;
+
+    LiteralRegex(String literal, Supplier<Regex> engine) {
+        this.literal = literal;
+        this.searcher = new LiteralSearcher(literal);
+        this.engine = engine;
+    }
+
+    /**
+     * Returns literal matched by pattern if it can be searched as plain string.
+     * @param flags flags as understood by the engine
+     * @return the literal or {@code null} if pattern needs the engine
+     */
+    static String literalOf(String pattern, int flags, RegexFlagResolver resolver) {
+        Set<RegexFlag> decoded = RegexFlag.decode(resolver, flags);
+        if ((flags & ~RegexFlag.resolve(resolver, decoded.toArray(new RegexFlag[0]))) != 0
+                || decoded.contains(RegexFlag.CASE_INSENSITIVE) || decoded.contains(RegexFlag.CANON_EQ)
+                || pattern.isEmpty() || hasUnpairedSurrogate(pattern)) {
+            return null;
+        } else if (decoded.contains(RegexFlag.LITERAL)) {
+            return pattern;
+        } else if (decoded.contains(RegexFlag.COMMENTS) || pattern.chars().anyMatch(c -> METACHARACTERS.indexOf(c) >= 0)) {
+            return null;
+        } else {
+            return pattern;
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+        return literal.contentEquals(text);
+    }
+
+    @Override
+    public String replaceFirstIn(CharSequence text, String replacement) {
+        if (isSpecial(replacement)) {
+            return engine().replaceFirstIn(text, replacement);
+        }
+        int start = searcher.indexIn(text, 0);
+        if (start < 0) {
+            return text.toString();
+        }
+        return new StringBuilder(text.length() - literal.length() + replacement.length())
+                .append(text, 0, start)
+                .append(replacement)
+                .append(text, start + literal.length(), text.length())
+                .toString();
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, String replacement) {
+        if (isSpecial(replacement)) {
+            return engine().replaceIn(text, replacement);
+        }
+        return replaceIn(text, (i, s) -> replacement);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, Function<String, String> replacer) {
+        return replaceIn(text, (i, s) -> replacer.apply(s));
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer) {
+        int start = searcher.indexIn(text, 0);
+        if (start < 0) {
+            return text.toString();
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int index = 0;
+        for (int i = 0; start >= 0; i++) {
+            sb.append(text, index, start);
+            sb.append(replacer.apply(i, literal));
+            index = start + literal.length();
+            start = searcher.indexIn(text, index);
+        }
+        sb.append(text, index, text.length());
+
+        return sb.toString();
+    }
+
+    @Override
+    public Optional<String> findFirstIn(CharSequence text) {
+        return searcher.indexIn(text, 0) >= 0 ? Optional.of(literal) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(CharSequence text) {
+        int start = searcher.indexIn(text, 0);
+        return start >= 0 ? Optional.of(new Match(literal, start, start + literal.length())) : Optional.empty();
+    }
+
+    @Override
+    public Result<String> findAllIn(CharSequence text) {
+        return MatchedResult.found(this::cursor, text).map(Match::text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(CharSequence text) {
+        return MatchedResult.found(this::cursor, text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new ReaderSpliterator(cursor(), reader, maxMatchLength), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer) {
+        return new IncrementalMatcher(cursor(), maxMatchLength, consumer);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Path path, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new MappedFileSpliterator(new Utf8MatchCursor(cursor()), path, maxMatchLength), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public Result<String> findGroupsIn(CharSequence text) {
+        return MatchedResult.empty();
+    }
+
+    @Override
+    public Result<Match> findGroupsInAsMatch(CharSequence text) {
+        return MatchedResult.empty();
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchVisitor visitor) {
+        for (int start = searcher.indexIn(text, 0); start >= 0; start = searcher.indexIn(text, start + literal.length())) {
+            visitor.visit(start, start + literal.length());
+        }
+    }
+
+    @Override
+    public void forEachGroupMatch(CharSequence text, GroupVisitor visitor) {
+        for (int start = searcher.indexIn(text, 0); start >= 0; start = searcher.indexIn(text, start + literal.length())) {
+            visitor.visit(0, start, start + literal.length());
+        }
+    }
+
+    @Override
+    public boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        int start = searcher.indexIn(text, 0);
+        if (start >= 0) {
+            visitor.visit(0, start, start + literal.length());
+        }
+        return start >= 0;
+    }
+
+    @Override
+    public Result<String> split(CharSequence text) {
+        Stream<String> stream = StreamSupport.stream(new SplittingSpliterator(this::cursor, text), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public Predicate<String> asFindPredicate() {
+        return string -> string.contains(literal);
+    }
+
+    @Override
+    public Predicate<String> asMatchPredicate() {
+        return literal::equals;
+    }
+
+    @Override
+    public BitSet findsAll(List<? extends CharSequence> texts) {
+        BitSet found = new BitSet(texts.size());
+        int i = 0;
+        for (CharSequence text : texts) {
+            if (searcher.indexIn(text, 0) >= 0) {
+                found.set(i);
+            }
+            i++;
+        }
+        return found;
+    }
+
+    @Override
+    public List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        List<Match> matches = new ArrayList<>(texts.size());
+        for (CharSequence text : texts) {
+            int start = searcher.indexIn(text, 0);
+            matches.add(start >= 0 ? new Match(literal, start, start + literal.length()) : null);
+        }
+        return matches;
+    }
+
+    private MatchCursor cursor() {
+        return new LiteralMatchCursor(searcher);
+    }
+
+    private Regex engine() {
+        Regex regex = compiled;
+        if (regex == null) {
+            regex = engine.get();
+            compiled = regex;
+        }
+        return regex;
+    }
+
+    /**
+     * Engines match whole code points, so half of a surrogate pair in pattern never matches.
+     */
+    private static boolean hasUnpairedSurrogate(String pattern) {
+        return pattern.codePoints().anyMatch(c -> c <= Character.MAX_VALUE && Character.isSurrogate((char) c));
+    }
+
+    private static boolean isSpecial(String replacement) {
+        return replacement.indexOf('$') >= 0 || replacement.indexOf('\\') >= 0;
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.plainregex;
+
+/**
+ * Finds occurrences of a literal using Boyer-Moore-Horspool. Strings and string builders are searched with
+ * their own {@code indexOf}, which the JVM intrinsifies.
+ */
+final class LiteralSearcher {
+
+    private final String literal;
+    private final int[] shifts = new int[256];
+
+    LiteralSearcher(String literal) {
+        this.literal = literal;
+        int length = literal.length();
+        for (int i = 0; i < shifts.length; i++) {
+            shifts[i] = Math.max(1, length);
+        }
+        for (int i = 0; i < length - 1; i++) {
+            shifts[literal.charAt(i) & 0xFF] = length - 1 - i;
+        }
+    }
+
+    String literal() {
+        return literal;
+    }
+
+    /**
+     * @return index of the first occurrence starting at or after {@code from} or {@code -1} if there's none
+     */
+    int indexIn(CharSequence text, int from) {
+        if (text instanceof String) {
+            return ((String) text).indexOf(literal, from);
+        } else if (text instanceof StringBuilder) {
+            return ((StringBuilder) text).indexOf(literal, from);
+        }
+
+        int length = literal.length();
+        int textLength = text.length();
+        if (length == 0) {
+            return from <= textLength ? Math.max(from, 0) : -1;
+        }
+        char last = literal.charAt(length - 1);
+        int i = Math.max(from, 0) + length - 1;
+        while (i < textLength) {
+            char c = text.charAt(i);
+            if (c == last && matchesAt(text, i - length + 1)) {
+                return i - length + 1;
+            }
+            i += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(CharSequence text, int start) {
+        for (int j = 0; j < literal.length() - 1; j++) {
+            if (text.charAt(start + j) != literal.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.plainregex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Finds matches in UTF-8 encoded file mapped into memory. File is mapped in segments of at least
+ * {@value #SEGMENT_SIZE} bytes and the window of {@code 4 * maxMatchLength} bytes is passed to
+ * the cursor as a slice of mapping, so text isn't copied to heap. Window always starts and ends
+ * on character boundary. Both ends move back by at most {@value #SPARE_BYTES} bytes to a boundary
+ * in total, which window has spare, so it advances even if it can't hold a whole character otherwise.
+ */
+class MappedFileSpliterator extends WindowSpliterator {
+
+    static final int SEGMENT_SIZE = 1 << 26;
+
+    private static final int SPARE_BYTES = 6;
+
+    private final ByteMatchCursor cursor;
+    private final Path path;
+    private final int capacity;
+    private final long size;
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private ByteBuffer window = ByteBuffer.allocate(0);
+
+    MappedFileSpliterator(ByteMatchCursor cursor, Path path, int maxMatchLength) {
+        super(maxMatchLength);
+        this.cursor = cursor;
+        this.path = path;
+        this.capacity = Math.addExact(Math.multiplyExact(maxMatchLength, 4), SPARE_BYTES);
+        try {
+            this.size = Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    void reset() {
+        cursor.reset(window);
+    }
+
+    @Override
+    boolean find(int from) {
+        return cursor.find(from);
+    }
+
+    @Override
+    int start() {
+        return cursor.start();
+    }
+
+    @Override
+    int end() {
+        return cursor.end();
+    }
+
+    @Override
+    Match match(int start, int end) {
+        ByteBuffer bytes = window.duplicate();
+        bytes.limit(end).position(start);
+        return new Match(StandardCharsets.UTF_8.decode(bytes).toString(), offset + start, offset + end);
+    }
+
+    @Override
+    int slide(int discardable) {
+        while (discardable > 0 && discardable < length && ByteMatchCursor.isContinuation(window.get(discardable))) {
+            discardable--;
+        }
+
+        long start = offset + discardable;
+        long end = Math.min(size, start + capacity);
+        map(start, end);
+        while (end < size && end > start && ByteMatchCursor.isContinuation(byteAt(end))) {
+            end--;
+        }
+
+        window = segment.duplicate();
+        window.limit((int) (end - segmentStart)).position((int) (start - segmentStart));
+        window = window.slice();
+        length = (int) (end - start);
+        eof = end == size;
+        return discardable;
+    }
+
+    private void map(long start, long end) {
+        long required = end < size ? end + 1 : end;
+        if (segment != null && start >= segmentStart && required <= segmentStart + segment.capacity()) {
+            return;
+        }
+
+        long length = Math.min(size - start, Math.max(SEGMENT_SIZE, required - start));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            segmentStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte byteAt(long index) {
+        return segment.get((int) (index - segmentStart));
+    }
+
+}
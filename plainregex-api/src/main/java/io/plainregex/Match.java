@@ -2,19 +2,59 @@ package io.plainregex;
 
 import java.util.Objects;
 
+/**
+ * Match of regular expression, or of its group, with offsets in the searched text.
+ *
+ * <p> Matches found in a {@link String} keep a reference to it and copy their text only on the
+ * first call of {@link #text()}, so reading offsets costs no copying, but the string is kept in memory
+ * as long as the matches are. Matches of other char sequences, like reused buffers, copy their text
+ * when they are found, since the sequence may change later. Offsets are {@code long}, since matches of
+ * files can lie beyond 2GB.
+ */
 public class Match {
 
+    private final CharSequence source;
     private String text;
-    private int start;
-    private int end;
+    private final long start;
+    private final long end;
 
-    public Match(String text, int start, int end) {
+    public Match(String text, long start, long end) {
+        this.source = null;
         this.text = text;
         this.start = start;
         this.end = end;
     }
 
+    private Match(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns match of the given bounds in source, whose text is copied when it's first needed if source
+     * is immutable, or right away otherwise.
+     * @param start index of the first character of match, {@code -1} if group didn't match
+     * @param end index after the last character of match
+     */
+    static Match of(CharSequence source, int start, int end) {
+        if (source instanceof String) {
+            return new Match(source, start, end);
+        }
+        String text = start >= 0 ? source.subSequence(start, end).toString() : null;
+        return new Match(text, (long) start, end);
+    }
+
+    /**
+     * @return matched text, {@code null} if group didn't match
+     */
     public String text() {
+        String text = this.text;
+        if (text == null && source != null && start >= 0) {
+            // racing threads compute equal strings
+            text = source.subSequence((int) start, (int) end).toString();
+            this.text = text;
+        }
         return text;
     }
 
@@ -33,18 +73,18 @@ public class Match {
         Match match = (Match) o;
         return start == match.start &&
                 end == match.end &&
-                Objects.equals(text, match.text);
+                Objects.equals(text(), match.text());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(text, start, end);
+        return Objects.hash(text(), start, end);
     }
 
     @Override
     public String toString() {
         return "Match{" +
-                "text='" + text + '\'' +
+                "text='" + text() + '\'' +
                 ", start=" + start +
                 ", end=" + end +
                 '}';
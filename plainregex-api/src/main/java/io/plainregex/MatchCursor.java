@@ -0,0 +1,33 @@
+package io.plainregex;
+
+/**
+ * Matcher of an engine reduced to operations needed by engine independent algorithms,
+ * like searching in streams. Cursor isn't thread safe.
+ */
+interface MatchCursor {
+
+    /**
+     * Starts matching the given text.
+     * @param text the text to match
+     */
+    void reset(CharSequence text);
+
+    /**
+     * Finds next match starting at or after the given index. Characters before the index
+     * are still visible to anchors and lookbehinds.
+     * @param from index of text where search starts
+     * @return true if match was found
+     */
+    boolean find(int from);
+
+    /**
+     * @return index of the first character of last match
+     */
+    int start();
+
+    /**
+     * @return index after the last character of last match
+     */
+    int end();
+
+}
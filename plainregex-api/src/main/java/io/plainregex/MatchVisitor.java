@@ -0,0 +1,16 @@
+package io.plainregex;
+
+/**
+ * Receives bounds of matches found by {@link Regex#forEachMatch(CharSequence, MatchVisitor)}.
+ */
+@FunctionalInterface
+public interface MatchVisitor {
+
+    /**
+     * Called for every match, in order of occurrence.
+     * @param start index of the first character of match
+     * @param end index after the last character of match
+     */
+    void visit(int start, int end);
+
+}
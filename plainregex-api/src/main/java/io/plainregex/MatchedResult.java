@@ -1,19 +1,64 @@
 package io.plainregex;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 class MatchedResult<S> implements Result<S> {
 
     static <T> MatchedResult<T> empty() {
-        return new MatchedResult<>(Stream.empty());
+        return new MatchedResult<>(Stream.empty(), () -> 0);
+    }
+
+    /**
+     * @return matches found in text by {@link FindingSpliterator}, counted without creating them
+     */
+    static MatchedResult<Match> found(Supplier<MatchCursor> cursors, CharSequence text) {
+        FindingSpliterator spliterator = new FindingSpliterator(cursors, text);
+        return new MatchedResult<>(StreamSupport.stream(spliterator, false), spliterator::count);
+    }
+
+    /**
+     * @return result of mapped elements, counted in the same way as elements of the given one
+     */
+    static <S, T> MatchedResult<T> map(Result<S> result, Function<? super S, ? extends T> mapper) {
+        if (result instanceof MatchedResult) {
+            return ((MatchedResult<S>) result).map(mapper);
+        }
+        return new MatchedResult<>(result.stream().map(mapper));
     }
 
     private final Stream<S> stream;
+    private final LongSupplier counter;
 
     MatchedResult(Stream<S> stream) {
+        this(stream, null);
+    }
+
+    /**
+     * @param counter counts elements instead of the stream, {@code null} if the stream counts them
+     */
+    MatchedResult(Stream<S> stream, LongSupplier counter) {
         this.stream = stream;
+        this.counter = counter;
+    }
+
+    /**
+     * @return result of mapped elements, counted in the same way as elements of this one
+     */
+    <T> MatchedResult<T> map(Function<? super S, ? extends T> mapper) {
+        return new MatchedResult<>(stream.map(mapper), counter);
+    }
+
+    /**
+     * @return true if elements are counted without consuming the stream
+     */
+    boolean hasCounter() {
+        return counter != null;
     }
 
     @Override
@@ -26,4 +71,9 @@ class MatchedResult<S> implements Result<S> {
         return stream.collect(Collectors.toList());
     }
 
+    @Override
+    public long count() {
+        return counter != null ? counter.getAsLong() : stream.count();
+    }
+
 }
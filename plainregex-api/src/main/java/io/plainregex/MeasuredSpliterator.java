@@ -0,0 +1,102 @@
+package io.plainregex;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator of a lazily computed {@link Result} measuring time spent in the engine, without time spent
+ * by consumers of elements. The call is recorded once the spliterator and all parts split from it are
+ * consumed to the end.
+ */
+final class MeasuredSpliterator<T> implements Spliterator<T> {
+
+    private final Spliterator<T> spliterator;
+    private final Measurement measurement;
+    private boolean finished;
+    private T element;
+
+    MeasuredSpliterator(Spliterator<T> spliterator, Measurement measurement) {
+        this.spliterator = spliterator;
+        this.measurement = measurement;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (finished) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean advanced = spliterator.tryAdvance(e -> element = e);
+        measurement.nanos.add(System.nanoTime() - start);
+        if (advanced) {
+            measurement.elements.increment();
+            T advancedElement = element;
+            element = null;
+            action.accept(advancedElement);
+        } else {
+            finished = true;
+            measurement.finish();
+        }
+        return advanced;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (tryAdvance(action)) {
+            // all work is done by tryAdvance
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long start = System.nanoTime();
+        Spliterator<T> split = spliterator.trySplit();
+        measurement.nanos.add(System.nanoTime() - start);
+        if (split == null) {
+            return null;
+        }
+        measurement.parts.incrementAndGet();
+        return new MeasuredSpliterator<>(split, measurement);
+    }
+
+    @Override
+    public long estimateSize() {
+        return spliterator.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return spliterator.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return spliterator.getComparator();
+    }
+
+    /**
+     * Time and number of elements of a call shared by all parts of its spliterator.
+     */
+    abstract static class Measurement {
+
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+        private final AtomicInteger parts = new AtomicInteger(1);
+
+        private void finish() {
+            if (parts.decrementAndGet() == 0) {
+                finished(elements.sum(), nanos.sum());
+            }
+        }
+
+        /**
+         * Called once all parts of the spliterator are consumed.
+         */
+        abstract void finished(long elements, long nanos);
+
+    }
+
+}
@@ -0,0 +1,164 @@
+package io.plainregex;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Node of a parsed pattern. Trees are produced by {@link PatternParser} and are immutable.
+ */
+abstract class Node {
+
+    private Node() {
+    }
+
+    /**
+     * Matches empty string.
+     */
+    static final class Empty extends Node {
+
+        static final Empty INSTANCE = new Empty();
+
+        @Override
+        public String toString() {
+            return "Empty";
+        }
+    }
+
+    /**
+     * Matches single code point from the set.
+     */
+    static final class Chars extends Node {
+
+        final CodePointSet set;
+
+        Chars(CodePointSet set) {
+            this.set = set;
+        }
+
+        @Override
+        public String toString() {
+            return "Chars" + set;
+        }
+    }
+
+    static final class Concat extends Node {
+
+        final List<Node> nodes;
+
+        Concat(List<Node> nodes) {
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        @Override
+        public String toString() {
+            return "Concat" + nodes;
+        }
+    }
+
+    /**
+     * Alternatives in order of preference.
+     */
+    static final class Alternation extends Node {
+
+        final List<Node> nodes;
+
+        Alternation(List<Node> nodes) {
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        @Override
+        public String toString() {
+            return "Alternation" + nodes;
+        }
+    }
+
+    static final class Repeat extends Node {
+
+        static final int UNBOUNDED = -1;
+
+        final Node node;
+        final int min;
+        final int max;
+        final boolean greedy;
+        /**
+         * Whether an iteration matching empty string ends the repetition, like in Java.
+         */
+        final boolean exitsOnEmpty;
+
+        Repeat(Node node, int min, int max, boolean greedy) {
+            this(node, min, max, greedy, false);
+        }
+
+        Repeat(Node node, int min, int max, boolean greedy, boolean exitsOnEmpty) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+            this.exitsOnEmpty = exitsOnEmpty;
+        }
+
+        @Override
+        public String toString() {
+            return "Repeat{" + min + "," + (max == UNBOUNDED ? "" : max) + (greedy ? "" : "?") + "}(" + node + ")";
+        }
+    }
+
+    /**
+     * Capturing group. Groups are numbered from 1 in order of their opening parenthesis.
+     */
+    static final class Group extends Node {
+
+        final Node node;
+        final int index;
+        final String name;
+
+        Group(Node node, int index, String name) {
+            this.node = node;
+            this.index = index;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return "Group" + index + (name != null ? "<" + name + ">" : "") + "(" + node + ")";
+        }
+    }
+
+    /**
+     * Zero-width assertion.
+     */
+    static final class Assertion extends Node {
+
+        final Anchor anchor;
+
+        Assertion(Anchor anchor) {
+            this.anchor = anchor;
+        }
+
+        @Override
+        public String toString() {
+            return "Assertion(" + anchor + ")";
+        }
+    }
+
+    /**
+     * Construct which can't be expressed as a finite automaton, like backreference or lookaround.
+     * Nested node, if present, is the parsed body of construct.
+     */
+    static final class Opaque extends Node {
+
+        final String feature;
+        final Node node;
+
+        Opaque(String feature, Node node) {
+            this.feature = feature;
+            this.node = node;
+        }
+
+        @Override
+        public String toString() {
+            return "Opaque(" + feature + (node != null ? ", " + node : "") + ")";
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.plainregex;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of {@link PatternParser#parse}.
+ */
+final class ParsedPattern {
+
+    private final String pattern;
+    private final Node root;
+    private final int groupCount;
+    private final Map<String, Integer> groupNames;
+
+    ParsedPattern(String pattern, Node root, int groupCount, Map<String, Integer> groupNames) {
+        this.pattern = pattern;
+        this.root = root;
+        this.groupCount = groupCount;
+        this.groupNames = Collections.unmodifiableMap(groupNames);
+    }
+
+    String pattern() {
+        return pattern;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return indices of named groups by their names, in order of appearance
+     */
+    Map<String, Integer> groupNames() {
+        return groupNames;
+    }
+
+    /**
+     * @return description of the first construct which can't be compiled into automaton or {@code null} if
+     * there's none
+     */
+    String opaqueFeature() {
+        return opaqueFeature(root);
+    }
+
+    private static String opaqueFeature(Node node) {
+        if (node instanceof Node.Opaque) {
+            return ((Node.Opaque) node).feature;
+        } else if (node instanceof Node.Concat) {
+            return opaqueFeature(((Node.Concat) node).nodes);
+        } else if (node instanceof Node.Alternation) {
+            return opaqueFeature(((Node.Alternation) node).nodes);
+        } else if (node instanceof Node.Repeat) {
+            return opaqueFeature(((Node.Repeat) node).node);
+        } else if (node instanceof Node.Group) {
+            return opaqueFeature(((Node.Group) node).node);
+        } else {
+            return null;
+        }
+    }
+
+    private static String opaqueFeature(Iterable<Node> nodes) {
+        for (Node node : nodes) {
+            String feature = opaqueFeature(node);
+            if (feature != null) {
+                return feature;
+            }
+        }
+        return null;
+    }
+
+}
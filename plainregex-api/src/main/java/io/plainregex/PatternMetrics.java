@@ -0,0 +1,188 @@
+package io.plainregex;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative metrics of calls of regexes with the same pattern, flags and engine, kept by {@link RegexMetrics}.
+ * Counters are striped, so recording a call from many threads doesn't contend. Latencies are kept in a
+ * histogram with buckets at most 1/16 wide relative to their values, and the input of the slowest call is
+ * kept as a sample truncated to {@value #SAMPLE_LENGTH} characters.
+ */
+public final class PatternMetrics implements PatternMetricsMXBean {
+
+    static final int SAMPLE_LENGTH = 100;
+
+    private static final RegexOperation[] OPERATIONS = RegexOperation.values();
+
+    private final String pattern;
+    private final Engine engine;
+    private final int flags;
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder characters = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private volatile long worstNanos = -1;
+    private volatile String worstInput;
+
+    PatternMetrics(String pattern, Engine engine, int flags) {
+        this.pattern = pattern;
+        this.engine = engine;
+        this.flags = flags;
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = new LongAdder();
+        }
+    }
+
+    Engine engine() {
+        return engine;
+    }
+
+    /**
+     * @param input searched text, {@code null} if the call didn't search a single text
+     */
+    void record(RegexOperation operation, boolean hit, long nanos, long characters, CharSequence input) {
+        calls[operation.ordinal()].increment();
+        if (hit) {
+            hits.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        latencies.record(nanos);
+        this.characters.add(characters);
+        if (input != null && nanos > worstNanos) {
+            recordWorst(nanos, input);
+        }
+    }
+
+    private synchronized void recordWorst(long nanos, CharSequence input) {
+        if (nanos > worstNanos) {
+            worstNanos = nanos;
+            worstInput = sample(input);
+        }
+    }
+
+    @Override
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String getEngine() {
+        return engine.name();
+    }
+
+    @Override
+    public int getFlags() {
+        return flags;
+    }
+
+    @Override
+    public long getCalls() {
+        long sum = 0;
+        for (LongAdder adder : calls) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * @return number of calls of the given kind
+     */
+    public long getCalls(RegexOperation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getCallsByOperation() {
+        Map<String, Long> byOperation = new LinkedHashMap<>();
+        for (RegexOperation operation : OPERATIONS) {
+            byOperation.put(operation.name(), getCalls(operation));
+        }
+        return byOperation;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long calls = getCalls();
+        return calls == 0 ? 0 : (double) getHits() / calls;
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getCharacters() {
+        return characters.sum();
+    }
+
+    /**
+     * @param percentile percentile between {@code 0} and {@code 100}
+     * @return latency in nanoseconds below which the given percentile of calls finished, {@code 0} if there
+     * were no calls
+     * @throws IllegalArgumentException if percentile is out of range
+     */
+    public long getLatencyNanos(double percentile) {
+        return Math.min(latencies.percentile(percentile), getMaxNanos());
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return getLatencyNanos(50);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return getLatencyNanos(99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return getLatencyNanos(99.9);
+    }
+
+    @Override
+    public String getWorstInput() {
+        return worstInput;
+    }
+
+    static String sample(CharSequence text) {
+        if (text.length() <= SAMPLE_LENGTH) {
+            return text.toString();
+        }
+        int end = Character.isHighSurrogate(text.charAt(SAMPLE_LENGTH - 1)) ? SAMPLE_LENGTH - 1 : SAMPLE_LENGTH;
+        return text.subSequence(0, end) + "...";
+    }
+
+    @Override
+    public String toString() {
+        return "PatternMetrics{" +
+                "pattern='" + pattern + '\'' +
+                ", engine=" + engine +
+                ", flags=" + flags +
+                ", calls=" + getCalls() +
+                ", hits=" + getHits() +
+                ", totalNanos=" + getTotalNanos() +
+                ", p99Nanos=" + getP99Nanos() +
+                ", maxNanos=" + getMaxNanos() +
+                ", characters=" + getCharacters() +
+                '}';
+    }
+
+}
@@ -0,0 +1,47 @@
+package io.plainregex;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link PatternMetrics}.
+ */
+public interface PatternMetricsMXBean {
+
+    String getPattern();
+
+    String getEngine();
+
+    int getFlags();
+
+    long getCalls();
+
+    /**
+     * @return number of calls by name of {@link RegexOperation}
+     */
+    Map<String, Long> getCallsByOperation();
+
+    long getHits();
+
+    /**
+     * @return fraction of calls which found a match, {@code 0} if there were no calls
+     */
+    double getHitRate();
+
+    long getTotalNanos();
+
+    long getMaxNanos();
+
+    long getCharacters();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    /**
+     * @return truncated text searched by the slowest call, {@code null} if no call searched a single text
+     */
+    String getWorstInput();
+
+}
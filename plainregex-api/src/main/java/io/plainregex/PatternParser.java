@@ -0,0 +1,830 @@
+package io.plainregex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses patterns into {@link Node} trees. Constructs which can't be expressed as finite automaton are
+ * kept as {@link Node.Opaque} nodes, so callers can decide whether to handle them or to leave the pattern
+ * to the engine.
+ *
+ * <p> Parser expects patterns already accepted by the engine of given {@link Syntax}. It doesn't try to
+ * reproduce the engine's error reporting and throws {@link PatternSyntaxException} both for invalid
+ * patterns and for valid ones it doesn't understand, like flags changing predefined classes.
+ */
+final class PatternParser {
+
+    private static final CodePointSet JAVA_DIGIT = CodePointSet.range('0', '9');
+    private static final CodePointSet JAVA_SPACE = CodePointSet.chars(" \t\n\u000B\f\r");
+    private static final CodePointSet JAVA_WORD = CodePointSet.ranges('a', 'z', 'A', 'Z', '_', '_', '0', '9');
+    private static final CodePointSet JAVA_HORIZONTAL_SPACE = CodePointSet.ranges(' ', ' ', '\t', '\t', 0xa0, 0xa0,
+            0x1680, 0x1680, 0x180e, 0x180e, 0x2000, 0x200a, 0x202f, 0x202f, 0x205f, 0x205f, 0x3000, 0x3000);
+    private static final CodePointSet JAVA_VERTICAL_SPACE = CodePointSet.ranges('\n', '\r', 0x85, 0x85, 0x2028, 0x2029);
+    private static final CodePointSet RE2_SPACE = CodePointSet.chars("\t\n\f\r ");
+    private static final CodePointSet JAVA_LINE_TERMINATORS = CodePointSet.ranges('\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029);
+    private static final CodePointSet NEWLINE = CodePointSet.of('\n');
+
+    private static final int CASE_INSENSITIVE = 1;
+    private static final int MULTILINE = 1 << 1;
+    private static final int DOTALL = 1 << 2;
+    private static final int UNIX_LINES = 1 << 3;
+    private static final int UNICODE_CASE = 1 << 4;
+    private static final int COMMENTS = 1 << 5;
+    private static final int UNGREEDY = 1 << 6;
+
+    private final String pattern;
+    private final Syntax syntax;
+    private int position;
+    private int flags;
+    private int quoteEnd = -1;
+    private int groupCount;
+    private final Map<String, Integer> groupNames = new LinkedHashMap<>();
+
+    private PatternParser(String pattern, Syntax syntax, int flags) {
+        this.pattern = pattern;
+        this.syntax = syntax;
+        this.flags = flags;
+    }
+
+    static ParsedPattern parse(String pattern, Syntax syntax, Set<RegexFlag> flags) {
+        if (flags.contains(RegexFlag.CANON_EQ) || flags.contains(RegexFlag.UNICODE_CHARACTER_CLASS)) {
+            throw new PatternSyntaxException("Flags changing character classes aren't supported", pattern, -1);
+        }
+
+        int parserFlags = (flags.contains(RegexFlag.CASE_INSENSITIVE) ? CASE_INSENSITIVE : 0)
+                | (flags.contains(RegexFlag.MULTILINE) ? MULTILINE : 0)
+                | (flags.contains(RegexFlag.DOTALL) ? DOTALL : 0)
+                | (flags.contains(RegexFlag.UNIX_LINES) ? UNIX_LINES : 0)
+                | (flags.contains(RegexFlag.UNICODE_CASE) || syntax == Syntax.RE2 ? UNICODE_CASE : 0)
+                | (flags.contains(RegexFlag.COMMENTS) ? COMMENTS : 0);
+
+        PatternParser parser = new PatternParser(pattern, syntax, parserFlags);
+        Node root;
+        if (flags.contains(RegexFlag.LITERAL)) {
+            List<Node> nodes = new ArrayList<>();
+            pattern.codePoints().forEach(c -> nodes.add(parser.literal(c)));
+            root = concat(nodes);
+        } else {
+            root = parser.parseAlternation();
+            if (parser.more()) {
+                throw parser.error("Unmatched closing ')'");
+            }
+        }
+        return new ParsedPattern(pattern, root, parser.groupCount, parser.groupNames);
+    }
+
+    static ParsedPattern parse(String pattern, Syntax syntax, RegexFlag... flags) {
+        Set<RegexFlag> set = EnumSet.noneOf(RegexFlag.class);
+        Collections.addAll(set, flags);
+        return parse(pattern, syntax, set);
+    }
+
+    private Node parseAlternation() {
+        List<Node> alternatives = new ArrayList<>();
+        alternatives.add(parseConcat());
+        while (more() && peek() == '|') {
+            position++;
+            alternatives.add(parseConcat());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new Node.Alternation(alternatives);
+    }
+
+    private Node parseConcat() {
+        List<Node> nodes = new ArrayList<>();
+        while (true) {
+            skipIgnored();
+            if (!more() || !quoted() && (peek() == '|' || peek() == ')')) {
+                return concat(nodes);
+            }
+            if (syntax == Syntax.JAVA && !quoted() && peek() == '{' && parseQuantifier(Node.Empty.INSTANCE) != Node.Empty.INSTANCE) {
+                // Java repeats empty string when bounds don't follow an atom, e.g. in a+{2} or (?m){2}
+                continue;
+            }
+            Node atom = parseAtom();
+            if (atom != null) {
+                Node quantified = parseQuantifier(atom);
+                while (syntax == Syntax.RE2 && quantified != atom) {
+                    atom = quantified;
+                    quantified = parseQuantifier(atom);
+                }
+                nodes.add(quantified);
+            }
+        }
+    }
+
+    private Node parseQuantifier(Node atom) {
+        skipIgnored();
+        if (!more() || quoted()) {
+            return atom;
+        }
+
+        int start = position;
+        int min;
+        int max;
+        switch (peek()) {
+            case '*':
+                min = 0;
+                max = Node.Repeat.UNBOUNDED;
+                position++;
+                break;
+            case '+':
+                min = 1;
+                max = Node.Repeat.UNBOUNDED;
+                position++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                position++;
+                break;
+            case '{':
+                int[] bounds = parseBounds();
+                if (bounds == null) {
+                    position = start;
+                    return atom;
+                }
+                min = bounds[0];
+                max = bounds[1];
+                break;
+            default:
+                return atom;
+        }
+
+        boolean greedy = (flags & UNGREEDY) == 0;
+        if (more() && peek() == '?') {
+            position++;
+            greedy = !greedy;
+        } else if (syntax == Syntax.JAVA && more() && peek() == '+') {
+            position++;
+            return new Node.Opaque("possessive quantifier", new Node.Repeat(atom, min, max, true));
+        }
+        boolean nullable = isNullable(atom);
+        Node.Repeat repeat = new Node.Repeat(atom, min, max, greedy, syntax == Syntax.JAVA && max != 1 && nullable);
+        if (syntax == Syntax.JAVA && min > 1 && nullable) {
+            // Java ends a loop after an iteration matching empty string, even if the minimum wasn't reached
+            return new Node.Opaque("empty iteration of counted repetition", repeat);
+        }
+        return repeat;
+    }
+
+    /**
+     * @return minimum and maximum or {@code null} if braces don't form a repetition
+     */
+    private int[] parseBounds() {
+        position++;
+        int min = parseNumber();
+        if (min < 0) {
+            return null;
+        }
+        int max = min;
+        if (more() && peek() == ',') {
+            position++;
+            if (more() && peek() == '}') {
+                max = Node.Repeat.UNBOUNDED;
+            } else {
+                max = parseNumber();
+                if (max < 0) {
+                    return null;
+                }
+            }
+        }
+        if (!more() || peek() != '}') {
+            return null;
+        }
+        position++;
+        if (max != Node.Repeat.UNBOUNDED && max < min) {
+            throw error("Illegal repetition range");
+        }
+        return new int[]{min, max};
+    }
+
+    private int parseNumber() {
+        int start = position;
+        while (more() && peek() >= '0' && peek() <= '9') {
+            position++;
+        }
+        if (start == position || position - start > 9) {
+            return -1;
+        }
+        return Integer.parseInt(pattern.substring(start, position));
+    }
+
+    private Node parseAtom() {
+        if (quoted()) {
+            int c = next();
+            if (position >= quoteEnd) {
+                position = Math.min(quoteEnd + 2, pattern.length());
+                quoteEnd = -1;
+            }
+            return literal(c);
+        }
+        int c = next();
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return new Node.Chars(parseClass());
+            case '.':
+                return new Node.Chars(dot());
+            case '^':
+                return new Node.Assertion(beginLine());
+            case '$':
+                return new Node.Assertion(endLine());
+            case '\\':
+                return parseEscape();
+            default:
+                return literal(c);
+        }
+    }
+
+    private Node parseGroup() {
+        int saved = flags;
+        Node node;
+        if (lookingAt("?:")) {
+            position += 2;
+            node = parseAlternation();
+        } else if (lookingAt("?=") || lookingAt("?!")) {
+            position += 2;
+            node = new Node.Opaque("lookahead", parseAlternation());
+        } else if (lookingAt("?<=") || lookingAt("?<!")) {
+            position += 3;
+            node = new Node.Opaque("lookbehind", parseAlternation());
+        } else if (lookingAt("?>")) {
+            position += 2;
+            node = new Node.Opaque("atomic group", parseAlternation());
+        } else if (lookingAt("?<") || syntax == Syntax.RE2 && lookingAt("?P<")) {
+            position += pattern.charAt(position + 1) == 'P' ? 3 : 2;
+            int end = pattern.indexOf('>', position);
+            if (end < 0) {
+                throw error("Named capturing group is missing trailing '>'");
+            }
+            String name = pattern.substring(position, end);
+            position = end + 1;
+            int index = ++groupCount;
+            if (groupNames.putIfAbsent(name, index) != null) {
+                throw error(String.format("Named capturing group <%s> is already defined", name));
+            }
+            node = new Node.Group(parseAlternation(), index, name);
+        } else if (lookingAt("?")) {
+            position++;
+            if (parseFlags()) {
+                return null;
+            }
+            node = parseAlternation();
+        } else {
+            int index = ++groupCount;
+            node = new Node.Group(parseAlternation(), index, null);
+        }
+
+        if (!more() || next() != ')') {
+            throw error("Unclosed group");
+        }
+        flags = saved;
+        return node;
+    }
+
+    /**
+     * Parses inline flags after {@code (?}.
+     * @return {@code true} if group was closed, so flags apply to the rest of the enclosing group
+     */
+    private boolean parseFlags() {
+        boolean negated = false;
+        int enabled = flags;
+        while (more()) {
+            int c = next();
+            int flag;
+            switch (c) {
+                case 'i':
+                    flag = CASE_INSENSITIVE;
+                    break;
+                case 'm':
+                    flag = MULTILINE;
+                    break;
+                case 's':
+                    flag = DOTALL;
+                    break;
+                case 'd':
+                    flag = syntax == Syntax.JAVA ? UNIX_LINES : -1;
+                    break;
+                case 'u':
+                    flag = syntax == Syntax.JAVA ? UNICODE_CASE : -1;
+                    break;
+                case 'x':
+                    flag = syntax == Syntax.JAVA ? COMMENTS : -1;
+                    break;
+                case 'U':
+                    flag = syntax == Syntax.RE2 ? UNGREEDY : -1;
+                    break;
+                case '-':
+                    if (negated) {
+                        throw error("Unknown inline modifier");
+                    }
+                    negated = true;
+                    continue;
+                case ')':
+                    flags = enabled;
+                    return true;
+                case ':':
+                    flags = enabled;
+                    return false;
+                default:
+                    throw error("Unknown inline modifier");
+            }
+            if (flag < 0) {
+                throw error("Unknown inline modifier");
+            }
+            enabled = negated ? enabled & ~flag : enabled | flag;
+        }
+        throw error("Unclosed group");
+    }
+
+    private Node parseEscape() {
+        if (!more()) {
+            throw error("Unexpected internal error");
+        }
+        int c = next();
+        switch (c) {
+            case 'b':
+                if (syntax == Syntax.JAVA && more() && peek() == '{') {
+                    position = pattern.indexOf('}', position) + 1;
+                    return new Node.Opaque("grapheme boundary", null);
+                }
+                return new Node.Assertion(syntax == Syntax.JAVA ? Anchor.JAVA_WORD_BOUNDARY : Anchor.WORD_BOUNDARY);
+            case 'B':
+                return new Node.Assertion(syntax == Syntax.JAVA ? Anchor.JAVA_NOT_WORD_BOUNDARY : Anchor.NOT_WORD_BOUNDARY);
+            case 'A':
+                return new Node.Assertion(Anchor.BEGIN_TEXT);
+            case 'z':
+                return new Node.Assertion(Anchor.END_TEXT);
+            case 'Z':
+                return new Node.Assertion((flags & UNIX_LINES) != 0 ? Anchor.JAVA_UNIX_END_TEXT : Anchor.JAVA_END_TEXT);
+            case 'G':
+                return new Node.Opaque("end of previous match", null);
+            case 'R':
+                return new Node.Opaque("linebreak matcher", null);
+            case 'X':
+                return new Node.Opaque("grapheme cluster", null);
+            case 'C':
+                return new Node.Opaque("single byte", null);
+            case 'k':
+                position = pattern.indexOf('>', position) + 1;
+                return new Node.Opaque("backreference", null);
+            case 'Q':
+                // quoted characters are separate atoms, so quantifier after \E repeats only the last one
+                int end = pattern.indexOf("\\E", position);
+                quoteEnd = end < 0 ? pattern.length() : end;
+                return parseAtom();
+            default:
+                if (c >= '1' && c <= '9' && (syntax == Syntax.JAVA || !isOctal(c, true))) {
+                    while (syntax == Syntax.JAVA && more() && peek() >= '0' && peek() <= '9' && Integer.parseInt(pattern.substring(position - 1, position + 1)) <= groupCount) {
+                        position++;
+                    }
+                    return new Node.Opaque("backreference", null);
+                }
+                position--;
+                CodePointSet set = parseClassEscape();
+                return set.single() >= 0 ? literal(set.single()) : new Node.Chars(set);
+        }
+    }
+
+    private boolean isOctal(int first, boolean escape) {
+        return first >= '0' && first <= '7' && (!escape || first == '0' || more() && peek() >= '0' && peek() <= '7');
+    }
+
+    /**
+     * Parses escape after backslash which denotes single character or class of characters.
+     */
+    private CodePointSet parseClassEscape() {
+        int c = next();
+        switch (c) {
+            case 'd':
+                return JAVA_DIGIT;
+            case 'D':
+                return JAVA_DIGIT.complement();
+            case 'w':
+                return perlClass(JAVA_WORD);
+            case 'W':
+                return perlClass(JAVA_WORD).complement();
+            case 's':
+                return syntax == Syntax.JAVA ? JAVA_SPACE : RE2_SPACE;
+            case 'S':
+                return (syntax == Syntax.JAVA ? JAVA_SPACE : RE2_SPACE).complement();
+            case 'h':
+                requireJava();
+                return JAVA_HORIZONTAL_SPACE;
+            case 'H':
+                requireJava();
+                return JAVA_HORIZONTAL_SPACE.complement();
+            case 'v':
+                return syntax == Syntax.JAVA ? JAVA_VERTICAL_SPACE : CodePointSet.of(0x0B);
+            case 'V':
+                requireJava();
+                return JAVA_VERTICAL_SPACE.complement();
+            case 'p':
+            case 'P':
+                return parseProperty(c == 'P');
+            case 't':
+                return CodePointSet.of('\t');
+            case 'n':
+                return CodePointSet.of('\n');
+            case 'r':
+                return CodePointSet.of('\r');
+            case 'f':
+                return CodePointSet.of('\f');
+            case 'a':
+                return CodePointSet.of(0x07);
+            case 'e':
+                requireJava();
+                return CodePointSet.of(0x1B);
+            case 'c':
+                requireJava();
+                return CodePointSet.of(next() ^ 64);
+            case 'x':
+                return CodePointSet.of(parseHex());
+            case 'u':
+                requireJava();
+                int unit = parseHex(4);
+                if (Character.isHighSurrogate((char) unit) && lookingAt("\\u")) {
+                    int saved = position;
+                    position += 2;
+                    int low = parseHex(4);
+                    if (Character.isLowSurrogate((char) low)) {
+                        return CodePointSet.of(Character.toCodePoint((char) unit, (char) low));
+                    }
+                    position = saved;
+                }
+                return CodePointSet.of(unit);
+            case '0':
+                return CodePointSet.of(parseOctal(syntax == Syntax.JAVA ? 0 : '0'));
+            default:
+                if (syntax == Syntax.RE2 && c >= '1' && c <= '7') {
+                    return CodePointSet.of(parseOctal(c));
+                }
+                if (c < 128 && Character.isLetterOrDigit(c)) {
+                    throw error("Illegal/unsupported escape sequence");
+                }
+                return CodePointSet.of(c);
+        }
+    }
+
+    /**
+     * RE2 applies case folding to predefined classes before negating them, so {@code (?i)\W} doesn't match
+     * Kelvin sign which folds to {@code k}.
+     */
+    private CodePointSet perlClass(CodePointSet set) {
+        return syntax == Syntax.RE2 && (flags & CASE_INSENSITIVE) != 0 ? set.withUnicodeCase() : set;
+    }
+
+    private void requireJava() {
+        if (syntax != Syntax.JAVA) {
+            throw error("Illegal/unsupported escape sequence");
+        }
+    }
+
+    /**
+     * Java octal escapes always start with {@code \0} followed by up to three digits, RE2 ones take up to
+     * three digits including the leading one.
+     */
+    private int parseOctal(int first) {
+        int value = first == 0 ? 0 : first - '0';
+        int digits = first == 0 ? 0 : 1;
+        while (digits < 3 && more() && peek() >= '0' && peek() <= '7') {
+            int candidate = value * 8 + peek() - '0';
+            if (candidate > 0377) {
+                break;
+            }
+            value = candidate;
+            digits++;
+            position++;
+        }
+        if (first == 0 && digits == 0) {
+            throw error("Illegal octal escape sequence");
+        }
+        return value;
+    }
+
+    private int parseHex() {
+        if (more() && peek() == '{') {
+            int end = pattern.indexOf('}', position);
+            if (end < 0) {
+                throw error("Unclosed hexadecimal escape sequence");
+            }
+            int value = Integer.parseInt(pattern.substring(position + 1, end), 16);
+            position = end + 1;
+            return value;
+        }
+        return parseHex(2);
+    }
+
+    private int parseHex(int digits) {
+        if (position + digits > pattern.length()) {
+            throw error("Illegal hexadecimal escape sequence");
+        }
+        try {
+            int value = Integer.parseInt(pattern.substring(position, position + digits), 16);
+            position += digits;
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("Illegal hexadecimal escape sequence");
+        }
+    }
+
+    private CodePointSet parseProperty(boolean negated) {
+        String name;
+        if (more() && peek() == '{') {
+            int end = pattern.indexOf('}', position);
+            if (end < 0) {
+                throw error("Unclosed character family");
+            }
+            name = pattern.substring(position + 1, end);
+            position = end + 1;
+        } else {
+            name = new String(Character.toChars(next()));
+        }
+        if (syntax == Syntax.RE2 && name.startsWith("^")) {
+            name = name.substring(1);
+            negated = !negated;
+        }
+
+        CodePointSet set = UnicodeProperties.property(name, syntax);
+        if (set == null) {
+            throw error(String.format("Unknown character property name {%s}", name));
+        }
+        if ((flags & CASE_INSENSITIVE) != 0) {
+            if (syntax == Syntax.JAVA && UnicodeProperties.isCaseSensitive(name)) {
+                throw error("Case-insensitive case properties aren't supported");
+            } else if (syntax == Syntax.RE2) {
+                set = set.withUnicodeCase();
+            }
+        }
+        return negated ? set.complement() : set;
+    }
+
+    private CodePointSet parseClass() {
+        boolean negated = false;
+        if (more() && peek() == '^') {
+            position++;
+            negated = true;
+        }
+
+        CodePointSet.Builder operand = new CodePointSet.Builder();
+        CodePointSet intersection = null;
+        boolean first = true;
+        boolean nested = false;
+        while (true) {
+            skipClassComments();
+            if (!more()) {
+                throw error("Unclosed character class");
+            }
+            int c = peek();
+            if (c == ']' && !first) {
+                position++;
+                break;
+            } else if (syntax == Syntax.JAVA && c == '[') {
+                position++;
+                operand.add(parseClass());
+                nested = true;
+            } else if (syntax == Syntax.JAVA && lookingAt("&&")) {
+                position += 2;
+                CodePointSet built = operand.build();
+                intersection = intersection == null ? built : intersection.intersection(built);
+                operand = new CodePointSet.Builder();
+                nested = true;
+            } else if (syntax == Syntax.RE2 && lookingAt("[:")) {
+                int end = pattern.indexOf(":]", position + 2);
+                String name = end < 0 ? "" : pattern.substring(position + 2, end);
+                boolean complement = name.startsWith("^");
+                CodePointSet posix = UnicodeProperties.posix(complement ? name.substring(1) : name);
+                if (posix == null) {
+                    operand.add(fold(CodePointSet.of(next())));
+                } else {
+                    position = end + 2;
+                    posix = (flags & CASE_INSENSITIVE) != 0 ? posix.withUnicodeCase() : posix;
+                    operand.add(complement ? posix.complement() : posix);
+                }
+            } else {
+                operand.add(parseClassRange());
+            }
+            first = false;
+        }
+
+        if (nested && negated) {
+            throw error("Negated classes with nested classes or intersections aren't supported");
+        }
+        CodePointSet set = operand.build();
+        if (intersection != null) {
+            set = set.isEmpty() ? intersection : intersection.intersection(set);
+        }
+        return negated ? set.complement() : set;
+    }
+
+    private CodePointSet parseClassRange() {
+        int start = position;
+        int from = parseClassCharacter();
+        if (from < 0) {
+            position = start;
+            if (lookingAt("\\Q")) {
+                position += 2;
+                int end = pattern.indexOf("\\E", position);
+                String quoted = pattern.substring(position, end < 0 ? pattern.length() : end);
+                position = end < 0 ? pattern.length() : end + 2;
+                CodePointSet.Builder builder = new CodePointSet.Builder();
+                quoted.codePoints().forEach(q -> builder.add(q, q));
+                return fold(builder.build());
+            }
+            position++;
+            return parseClassEscape();
+        }
+
+        skipClassComments();
+        if (more() && peek() == '-' && position + 1 < pattern.length() && pattern.charAt(position + 1) != ']'
+                && !(syntax == Syntax.JAVA && pattern.charAt(position + 1) == '[')) {
+            int dash = position;
+            position++;
+            skipClassComments();
+            int to = parseClassCharacter();
+            if (to < 0) {
+                if (syntax == Syntax.JAVA) {
+                    throw error("Illegal character range");
+                }
+                position = dash;
+                return fold(CodePointSet.of(from));
+            }
+            if (to < from) {
+                throw error("Illegal character range");
+            }
+            CodePointSet range = CodePointSet.range(from, to);
+            if (syntax == Syntax.JAVA && (flags & CASE_INSENSITIVE) != 0 && (flags & UNICODE_CASE) != 0) {
+                return range.withUpperOrLowerCase();
+            }
+            return fold(range);
+        }
+        return fold(CodePointSet.of(from));
+    }
+
+    /**
+     * @return single code point at the current position or {@code -1} if escape denotes class
+     */
+    private int parseClassCharacter() {
+        int c = next();
+        if (c != '\\') {
+            return c;
+        }
+        if (!more()) {
+            throw error("Unclosed character class");
+        }
+        int escaped = peek();
+        if (escaped == 'Q' || "dDwWsShHvVpP".indexOf(escaped) >= 0 && !(escaped == 'v' && syntax == Syntax.RE2)) {
+            return -1;
+        }
+        if (escaped == 'b' || escaped == 'B' || escaped >= '1' && escaped <= '9' && syntax == Syntax.JAVA) {
+            throw error("Illegal/unsupported escape sequence");
+        }
+        return parseClassEscape().single();
+    }
+
+    private CodePointSet dot() {
+        if ((flags & DOTALL) != 0) {
+            return CodePointSet.ALL;
+        } else if (syntax == Syntax.RE2 || (flags & UNIX_LINES) != 0) {
+            return NEWLINE.complement();
+        } else {
+            return JAVA_LINE_TERMINATORS.complement();
+        }
+    }
+
+    private Anchor beginLine() {
+        if ((flags & MULTILINE) == 0) {
+            return Anchor.BEGIN_TEXT;
+        } else if (syntax == Syntax.RE2) {
+            return Anchor.BEGIN_LINE;
+        } else {
+            return (flags & UNIX_LINES) != 0 ? Anchor.JAVA_UNIX_BEGIN_LINE : Anchor.JAVA_BEGIN_LINE;
+        }
+    }
+
+    private Anchor endLine() {
+        boolean multiline = (flags & MULTILINE) != 0;
+        boolean unix = (flags & UNIX_LINES) != 0;
+        if (syntax == Syntax.RE2) {
+            return multiline ? Anchor.END_LINE : Anchor.END_TEXT;
+        } else if (multiline) {
+            return unix ? Anchor.JAVA_UNIX_END_LINE : Anchor.JAVA_END_LINE;
+        } else {
+            return unix ? Anchor.JAVA_UNIX_END_TEXT : Anchor.JAVA_END_TEXT;
+        }
+    }
+
+    private Node literal(int c) {
+        CodePointSet set = fold(CodePointSet.of(c));
+        return new Node.Chars(set);
+    }
+
+    private CodePointSet fold(CodePointSet set) {
+        if ((flags & CASE_INSENSITIVE) == 0) {
+            return set;
+        }
+        return (flags & UNICODE_CASE) != 0 ? set.withUnicodeCase() : set.withAsciiCase();
+    }
+
+    /**
+     * Skips comments and empty quotations, which both engines drop before binding quantifiers.
+     */
+    private void skipIgnored() {
+        if (quoted()) {
+            return;
+        }
+        skipComments();
+        while (lookingAt("\\Q") && (lookingAt("\\Q\\E") || position + 2 == pattern.length())) {
+            position = Math.min(position + 4, pattern.length());
+            skipComments();
+        }
+    }
+
+    private boolean quoted() {
+        return quoteEnd >= 0;
+    }
+
+    private void skipComments() {
+        if ((flags & COMMENTS) == 0) {
+            return;
+        }
+        while (more()) {
+            char c = pattern.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                position++;
+            } else if (c == '#') {
+                while (more() && !isCommentEnd(pattern.charAt(position))) {
+                    position++;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipClassComments() {
+        if (syntax == Syntax.JAVA) {
+            skipComments();
+        }
+    }
+
+    private boolean isCommentEnd(char c) {
+        return (flags & UNIX_LINES) != 0 ? c == '\n' : Anchor.isJavaLineTerminator(c);
+    }
+
+    private static boolean isNullable(Node node) {
+        if (node instanceof Node.Chars) {
+            return false;
+        } else if (node instanceof Node.Group) {
+            return isNullable(((Node.Group) node).node);
+        } else if (node instanceof Node.Concat) {
+            return ((Node.Concat) node).nodes.stream().allMatch(PatternParser::isNullable);
+        } else if (node instanceof Node.Alternation) {
+            return ((Node.Alternation) node).nodes.stream().anyMatch(PatternParser::isNullable);
+        } else if (node instanceof Node.Repeat) {
+            return ((Node.Repeat) node).min == 0 || isNullable(((Node.Repeat) node).node);
+        } else {
+            return true;
+        }
+    }
+
+    private static Node concat(List<Node> nodes) {
+        if (nodes.isEmpty()) {
+            return Node.Empty.INSTANCE;
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new Node.Concat(nodes);
+    }
+
+    private boolean more() {
+        return position < pattern.length();
+    }
+
+    private int peek() {
+        return pattern.codePointAt(position);
+    }
+
+    private int next() {
+        if (!more()) {
+            throw error("Unexpected end of pattern");
+        }
+        int c = pattern.codePointAt(position);
+        position += Character.charCount(c);
+        return c;
+    }
+
+    private boolean lookingAt(String prefix) {
+        return pattern.startsWith(prefix, position);
+    }
+
+    private PatternSyntaxException error(String description) {
+        return new PatternSyntaxException(description, pattern, position);
+    }
+
+}
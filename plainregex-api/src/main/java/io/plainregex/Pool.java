@@ -0,0 +1,51 @@
+package io.plainregex;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free pool of objects which aren't thread safe but are worth reusing, like matchers. An object
+ * taken from the pool is owned by the caller until it's given back, so reuse is safe across threads and
+ * when the same regex is used again while one of its searches is in progress. Pool keeps at most one
+ * object per processor and drops the ones given back when it's full.
+ */
+final class Pool<T> {
+
+    /**
+     * Name of system property enabling reuse of matchers by default, for engines which allocate them per
+     * search. Single regexes choose it with {@link Regex#withMatcherReuse(boolean)}.
+     */
+    static final String REUSE_MATCHERS_PROPERTY = "plainregex.reuseMatchers";
+
+    private final AtomicReferenceArray<T> idle = new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * @return true if {@value #REUSE_MATCHERS_PROPERTY} system property is set to {@code true}
+     */
+    static boolean reuseMatchers() {
+        return Boolean.getBoolean(REUSE_MATCHERS_PROPERTY);
+    }
+
+    /**
+     * @return idle object or {@code null} if there's none
+     */
+    T acquire() {
+        for (int k = 0; k < idle.length(); k++) {
+            if (idle.get(k) != null) {
+                T object = idle.getAndSet(k, null);
+                if (object != null) {
+                    return object;
+                }
+            }
+        }
+        return null;
+    }
+
+    void release(T object) {
+        for (int k = 0; k < idle.length(); k++) {
+            if (idle.get(k) == null && idle.compareAndSet(k, null, object)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+package io.plainregex;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Thompson NFA compiled from one or more {@link ParsedPattern}s. Every pattern gets its own entry point and
+ * its own {@link #MATCH} instruction, so a single simulation can tell which of the patterns matched.
+ *
+ * <p> {@link #SPLIT} prefers {@link #out(int)} over {@link #alt(int)}, which keeps leftmost-first
+ * priorities of alternations and greedy or reluctant quantifiers for simulations tracking captures.
+ */
+final class Program {
+
+    static final int CHARS = 0;
+    static final int SPLIT = 1;
+    static final int ASSERT = 2;
+    static final int SAVE = 3;
+    static final int MATCH = 4;
+
+    /**
+     * Maximum number of instructions of a single pattern. Large counted repetitions are expanded and would
+     * otherwise blow up simulation state.
+     */
+    static final int MAXIMUM_PATTERN_SIZE = 1 << 16;
+
+    private final int[] ops;
+    private final int[] out;
+    private final int[] alt;
+    private final CodePointSet[] sets;
+    private final Anchor[] anchors;
+    private final int[] patternOf;
+    private final int[] starts;
+
+    private Program(Builder builder) {
+        int size = builder.size;
+        this.ops = Arrays.copyOf(builder.ops, size);
+        this.out = Arrays.copyOf(builder.out, size);
+        this.alt = Arrays.copyOf(builder.alt, size);
+        this.sets = Arrays.copyOf(builder.sets, size);
+        this.anchors = Arrays.copyOf(builder.anchors, size);
+        this.patternOf = Arrays.copyOf(builder.patternOf, size);
+        this.starts = Arrays.copyOf(builder.starts, builder.patterns);
+    }
+
+    static Program compile(ParsedPattern pattern) {
+        Builder builder = new Builder();
+        builder.add(pattern);
+        return builder.build();
+    }
+
+    int size() {
+        return ops.length;
+    }
+
+    int op(int pc) {
+        return ops[pc];
+    }
+
+    /**
+     * @return next instruction of {@link #CHARS}, {@link #ASSERT} and {@link #SAVE}, preferred branch of
+     * {@link #SPLIT}
+     */
+    int out(int pc) {
+        return out[pc];
+    }
+
+    /**
+     * @return other branch of {@link #SPLIT}, slot of {@link #SAVE}, pattern index of {@link #MATCH}
+     */
+    int alt(int pc) {
+        return alt[pc];
+    }
+
+    CodePointSet set(int pc) {
+        return sets[pc];
+    }
+
+    Anchor anchor(int pc) {
+        return anchors[pc];
+    }
+
+    int patternOf(int pc) {
+        return patternOf[pc];
+    }
+
+    int patternCount() {
+        return starts.length;
+    }
+
+    int start(int pattern) {
+        return starts[pattern];
+    }
+
+    static final class Builder {
+
+        private int[] ops = new int[64];
+        private int[] out = new int[64];
+        private int[] alt = new int[64];
+        private CodePointSet[] sets = new CodePointSet[64];
+        private Anchor[] anchors = new Anchor[64];
+        private int[] patternOf = new int[64];
+        private int[] starts = new int[8];
+        private int size;
+        private int patterns;
+        private int limit;
+
+        /**
+         * Compiles pattern with the next pattern index.
+         * @return index of pattern
+         * @throws IllegalArgumentException if pattern contains opaque constructs or is too large, in which case
+         * builder is left unchanged
+         */
+        int add(ParsedPattern pattern) {
+            int rollback = size;
+            limit = size + MAXIMUM_PATTERN_SIZE;
+            try {
+                int match = emit(MATCH, -1, patterns, null, null);
+                int start = compile(pattern.root(), match);
+                if (patterns == starts.length) {
+                    starts = Arrays.copyOf(starts, patterns * 2);
+                }
+                starts[patterns] = start;
+                Arrays.fill(patternOf, rollback, size, patterns);
+                return patterns++;
+            } catch (IllegalArgumentException e) {
+                size = rollback;
+                throw e;
+            }
+        }
+
+        Program build() {
+            return new Program(this);
+        }
+
+        private int compile(Node node, int next) {
+            if (node instanceof Node.Empty) {
+                return next;
+            } else if (node instanceof Node.Chars) {
+                return emit(CHARS, next, -1, ((Node.Chars) node).set, null);
+            } else if (node instanceof Node.Assertion) {
+                return emit(ASSERT, next, -1, null, ((Node.Assertion) node).anchor);
+            } else if (node instanceof Node.Group) {
+                Node.Group group = (Node.Group) node;
+                int close = emit(SAVE, next, 2 * group.index + 1, null, null);
+                int body = compile(group.node, close);
+                return emit(SAVE, body, 2 * group.index, null, null);
+            } else if (node instanceof Node.Concat) {
+                List<Node> nodes = ((Node.Concat) node).nodes;
+                for (int i = nodes.size() - 1; i >= 0; i--) {
+                    next = compile(nodes.get(i), next);
+                }
+                return next;
+            } else if (node instanceof Node.Alternation) {
+                List<Node> nodes = ((Node.Alternation) node).nodes;
+                int entry = compile(nodes.get(nodes.size() - 1), next);
+                for (int i = nodes.size() - 2; i >= 0; i--) {
+                    int branch = compile(nodes.get(i), next);
+                    entry = emit(SPLIT, branch, entry, null, null);
+                }
+                return entry;
+            } else if (node instanceof Node.Repeat) {
+                return compileRepeat((Node.Repeat) node, next);
+            } else {
+                throw new IllegalArgumentException(String.format("Pattern contains %s.", ((Node.Opaque) node).feature));
+            }
+        }
+
+        private int compileRepeat(Node.Repeat repeat, int next) {
+            if (repeat.exitsOnEmpty) {
+                return compileExitingRepeat(repeat, next);
+            }
+            int entry = next;
+            if (repeat.max == Node.Repeat.UNBOUNDED) {
+                int loop = emit(SPLIT, -1, -1, null, null);
+                int body = compile(repeat.node, loop);
+                branch(loop, body, next, repeat.greedy);
+                entry = repeat.min == 0 ? loop : body;
+            } else {
+                for (int i = 0; i < repeat.max - repeat.min; i++) {
+                    int body = compile(repeat.node, entry);
+                    int split = emit(SPLIT, -1, -1, null, null);
+                    branch(split, body, next, repeat.greedy);
+                    entry = split;
+                }
+            }
+            int copies = repeat.max == Node.Repeat.UNBOUNDED ? repeat.min - 1 : repeat.min;
+            for (int i = 0; i < copies; i++) {
+                entry = compile(repeat.node, entry);
+            }
+            return entry;
+        }
+
+        /**
+         * Compiles repetition of at most one mandatory iteration, ending after an iteration which doesn't
+         * consume any character.
+         */
+        private int compileExitingRepeat(Node.Repeat repeat, int next) {
+            if (repeat.max == Node.Repeat.UNBOUNDED) {
+                int loop = emit(SPLIT, -1, -1, null, null);
+                int iteration = compileIteration(repeat.node, loop, next);
+                branch(loop, iteration, next, repeat.greedy);
+                return repeat.min == 0 ? loop : iteration;
+            }
+            int entry = next;
+            for (int i = 0; i < repeat.max - repeat.min; i++) {
+                int iteration = compileIteration(repeat.node, entry, next);
+                int split = emit(SPLIT, -1, -1, null, null);
+                branch(split, iteration, next, repeat.greedy);
+                entry = split;
+            }
+            return repeat.min == 0 ? entry : compileIteration(repeat.node, entry, next);
+        }
+
+        /**
+         * Compiles node twice: a copy entered at the start of iteration, leaving to {@code empty}, and a copy
+         * reached once a character was consumed, leaving to {@code consumed}. Characters consumed in the
+         * first copy lead to the second one, so whether iteration was empty is known without extra state.
+         * @return entry of the first copy
+         */
+        private int compileIteration(Node node, int consumed, int empty) {
+            int consumedStart = size;
+            compile(node, consumed);
+            int emptyStart = size;
+            int entry = compile(node, empty);
+            int emptyEnd = size;
+            for (int pc = emptyStart; pc < emptyEnd; pc++) {
+                if (ops[pc] == CHARS) {
+                    out[pc] = out[pc] >= emptyStart && out[pc] < emptyEnd ? out[pc] - emptyStart + consumedStart : consumed;
+                }
+            }
+            return entry;
+        }
+
+        private void branch(int split, int body, int next, boolean greedy) {
+            out[split] = greedy ? body : next;
+            alt[split] = greedy ? next : body;
+        }
+
+        private int emit(int op, int next, int argument, CodePointSet set, Anchor anchor) {
+            if (size == limit) {
+                throw new IllegalArgumentException(String.format("Pattern exceeds %d instructions.", MAXIMUM_PATTERN_SIZE));
+            }
+            if (size == ops.length) {
+                int capacity = size * 2;
+                ops = Arrays.copyOf(ops, capacity);
+                out = Arrays.copyOf(out, capacity);
+                alt = Arrays.copyOf(alt, capacity);
+                sets = Arrays.copyOf(sets, capacity);
+                anchors = Arrays.copyOf(anchors, capacity);
+                patternOf = Arrays.copyOf(patternOf, capacity);
+            }
+            ops[size] = op;
+            out[size] = next;
+            alt[size] = argument;
+            sets[size] = set;
+            anchors[size] = anchor;
+            return size++;
+        }
+
+    }
+
+}
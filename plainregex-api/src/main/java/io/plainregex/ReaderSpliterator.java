@@ -0,0 +1,73 @@
+package io.plainregex;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+
+/**
+ * Finds matches in text read from {@link Reader}, keeping at most {@code 4 * maxMatchLength}
+ * characters in memory.
+ */
+class ReaderSpliterator extends WindowSpliterator {
+
+    private final MatchCursor cursor;
+    private final Reader reader;
+    private final char[] buffer;
+    private final CharBuffer window;
+
+    ReaderSpliterator(MatchCursor cursor, Reader reader, int maxMatchLength) {
+        super(maxMatchLength);
+        this.cursor = cursor;
+        this.reader = reader;
+        this.buffer = new char[Math.multiplyExact(maxMatchLength, 4)];
+        this.window = CharBuffer.wrap(buffer);
+    }
+
+    @Override
+    void reset() {
+        window.limit(length);
+        cursor.reset(window);
+    }
+
+    @Override
+    boolean find(int from) {
+        return cursor.find(from);
+    }
+
+    @Override
+    int start() {
+        return cursor.start();
+    }
+
+    @Override
+    int end() {
+        return cursor.end();
+    }
+
+    @Override
+    Match match(int start, int end) {
+        return new Match(window.subSequence(start, end).toString(), offset + start, offset + end);
+    }
+
+    @Override
+    int slide(int discardable) {
+        System.arraycopy(buffer, discardable, buffer, 0, length - discardable);
+        length -= discardable;
+
+        try {
+            while (length < buffer.length) {
+                int read = reader.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    eof = true;
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return discardable;
+    }
+
+}
@@ -1,11 +1,32 @@
 package io.plainregex;
 
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.ServiceLoader;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Compiled regular expression.
+ *
+ * <p> Text can be passed as any {@link CharSequence}, e.g. {@link StringBuilder} or
+ * {@link java.nio.CharBuffer}, without copying it to {@link String} first. Offsets of matches
+ * are relative to the passed sequence. Results are computed lazily, so the sequence must not
+ * be modified until they are consumed.
+ */
 public interface Regex {
 
     /**
@@ -13,7 +34,7 @@ public interface Regex {
      * @param text the text to be matched
      * @return true if text matches regex.
      */
-    boolean matches(String text);
+    boolean matches(CharSequence text);
 
 
     /**
@@ -22,7 +43,7 @@ public interface Regex {
      * @param replacement text which will replace match
      * @return text with replaced matches
      */
-    String replaceFirstIn(String text, String replacement);
+    String replaceFirstIn(CharSequence text, String replacement);
 
     /**
      *
@@ -30,7 +51,7 @@ public interface Regex {
      * @param replacement
      * @return
      */
-    String replaceIn(String text, String replacement);
+    String replaceIn(CharSequence text, String replacement);
 
     /**
      *
@@ -38,7 +59,7 @@ public interface Regex {
      * @param replacer
      * @return
      */
-    String replaceIn(String text, Function<String, String> replacer);
+    String replaceIn(CharSequence text, Function<String, String> replacer);
 
     /**
      *
@@ -46,56 +67,275 @@ public interface Regex {
      * @param replacer
      * @return
      */
-    String replaceIn(String text, BiFunction<Integer, String, String> replacer);
+    String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer);
 
     /**
      *
      * @param text
      * @return
      */
-    Optional<Match> findFirstInAsMatch(String text);
+    Optional<Match> findFirstInAsMatch(CharSequence text);
 
     /**
      *
      * @param text
      * @return
      */
-    Optional<String> findFirstIn(String text);
+    Optional<String> findFirstIn(CharSequence text);
 
     /**
      *
      * @param text
      * @return
      */
-    Result<Match> findAllInAsMatch(String text);
+    Result<Match> findAllInAsMatch(CharSequence text);
 
     /**
      *
      * @param text
      * @return
      */
-    Result<String> findAllIn(String text);
+    Result<String> findAllIn(CharSequence text);
 
     /**
      *
      * @param text
      * @return
      */
-    Result<Match> findGroupsInAsMatch(String text);
+    Result<Match> findGroupsInAsMatch(CharSequence text);
 
     /**
      *
      * @param text
      * @return
      */
-    Result<String> findGroupsIn(String text);
+    Result<String> findGroupsIn(CharSequence text);
 
     /**
-     * Splits text using provided regular expression.
+     * Finds all matches in text read from reader. Only a window of text proportional to
+     * {@code maxMatchLength} is kept in memory, so matches, including their lookarounds,
+     * longer than {@code maxMatchLength} may be missed or truncated. Offsets are absolute
+     * positions in the read text. Reader isn't closed.
+     * @param reader source of the text to search
+     * @param maxMatchLength maximum length of match in characters
+     * @return lazily computed matches
+     * @throws java.io.UncheckedIOException if reading fails while the result is consumed
+     */
+    Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength);
+
+    /**
+     * Finds all matches in text read from reader, as described in {@link #findAllInAsMatch(Reader, int)}.
+     * @param reader source of the text to search
+     * @param maxMatchLength maximum length of match in characters
+     * @return lazily computed matches
+     */
+    default Result<String> findAllIn(Reader reader, int maxMatchLength) {
+        return new MatchedResult<>(findAllInAsMatch(reader, maxMatchLength).stream().map(Match::text));
+    }
+
+    /**
+     * Finds all matches in text decoded from channel, as described in {@link #findAllInAsMatch(Reader, int)}.
+     * Malformed input is replaced with the default replacement of charset. Channel isn't closed.
+     * @param channel source of the text to search
+     * @param charset charset of the text
+     * @param maxMatchLength maximum length of match in characters
+     * @return lazily computed matches with offsets in characters
+     */
+    default Result<Match> findAllInAsMatch(ReadableByteChannel channel, Charset charset, int maxMatchLength) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return findAllInAsMatch(Channels.newReader(channel, decoder, -1), maxMatchLength);
+    }
+
+    /**
+     * Finds all matches in text decoded from channel, as described in {@link #findAllInAsMatch(ReadableByteChannel, Charset, int)}.
+     * @param channel source of the text to search
+     * @param charset charset of the text
+     * @param maxMatchLength maximum length of match in characters
+     * @return lazily computed matches
+     */
+    default Result<String> findAllIn(ReadableByteChannel channel, Charset charset, int maxMatchLength) {
+        return new MatchedResult<>(findAllInAsMatch(channel, charset, maxMatchLength).stream().map(Match::text));
+    }
+
+    /**
+     * Returns true if UTF-8 encoded bytes between position and limit of the buffer match the regular
+     * expression. Bytes consisting only of ASCII are matched through a view, without decoding them, and
+     * malformed bytes are decoded as {@code U+FFFD}. Buffer may be direct and its position isn't changed.
+     * @param bytes the UTF-8 encoded text to be matched
+     * @return true if text matches regex
+     */
+    default boolean matches(ByteBuffer bytes) {
+        return matches(Utf8Text.of(bytes).chars());
+    }
+
+    /**
+     * Returns true if UTF-8 encoded bytes match the regular expression, as described in {@link #matches(ByteBuffer)}.
+     * @param bytes array holding the UTF-8 encoded text
+     * @param offset index of the first byte of text
+     * @param length number of bytes of text
+     * @return true if text matches regex
+     */
+    default boolean matches(byte[] bytes, int offset, int length) {
+        return matches(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Finds first match in UTF-8 encoded bytes between position and limit of the buffer, as described in
+     * {@link #matches(ByteBuffer)}. Offsets are indices of bytes relative to position of the buffer.
+     * @param bytes the UTF-8 encoded text to search
+     * @return the first match
+     */
+    default Optional<Match> findFirstInAsMatch(ByteBuffer bytes) {
+        Utf8Text text = Utf8Text.of(bytes);
+        return findFirstInAsMatch(text.chars()).map(match -> text.match((int) match.start(), (int) match.end()));
+    }
+
+    /**
+     * Finds all matches in UTF-8 encoded bytes between position and limit of the buffer, as described in
+     * {@link #matches(ByteBuffer)}. Offsets are indices of bytes relative to position of the buffer. Buffer
+     * must not be modified until the result and its matches are used.
+     * @param bytes the UTF-8 encoded text to search
+     * @return lazily computed matches
+     */
+    default Result<Match> findAllInAsMatch(ByteBuffer bytes) {
+        Utf8Text text = Utf8Text.of(bytes);
+        return MatchedResult.map(findAllInAsMatch(text.chars()), match -> text.match((int) match.start(), (int) match.end()));
+    }
+
+    /**
+     * Finds all matches in UTF-8 encoded bytes, as described in {@link #findAllInAsMatch(ByteBuffer)}.
+     * @param bytes the UTF-8 encoded text to search
+     * @return lazily computed matches
+     */
+    default Result<String> findAllIn(ByteBuffer bytes) {
+        return MatchedResult.map(findAllInAsMatch(bytes), Match::text);
+    }
+
+    /**
+     * Finds bounds of all matches in UTF-8 encoded bytes between position and limit of the buffer, as
+     * described in {@link #matches(ByteBuffer)}.
+     * @param bytes the UTF-8 encoded text to search
+     * @return start and end of every match in bytes relative to position of the buffer, one after another
+     */
+    default int[] findAllOffsetsIn(ByteBuffer bytes) {
+        Utf8Text text = Utf8Text.of(bytes);
+        int[] offsets = findAllOffsetsIn(text.chars());
+        if (!text.isAscii()) {
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = text.byteIndex(offsets[i]);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Finds all matches in UTF-8 encoded file. File is memory mapped in segments and searched
+     * through a window of size proportional to {@code maxMatchLength}, as described in
+     * {@link #findAllInAsMatch(Reader, int)}, so it can be larger than available memory.
+     * Offsets are positions of bytes in the file.
+     * @param path the file to search
+     * @param maxMatchLength maximum length of match in bytes
+     * @return lazily computed matches
+     * @throws java.io.UncheckedIOException if file can't be read
+     */
+    Result<Match> findAllInAsMatch(Path path, int maxMatchLength);
+
+    /**
+     * Finds all matches in UTF-8 encoded file, as described in {@link #findAllInAsMatch(Path, int)}.
+     * @param path the file to search
+     * @param maxMatchLength maximum length of match in bytes
+     * @return lazily computed matches
+     */
+    default Result<String> findAllIn(Path path, int maxMatchLength) {
+        return new MatchedResult<>(findAllInAsMatch(path, maxMatchLength).stream().map(Match::text));
+    }
+
+    /**
+     * Creates matcher of text pushed to it in chunks, e.g. as they arrive from network. Matches
+     * are passed to the consumer as soon as no later input can change them, as described in
+     * {@link IncrementalMatcher}, so matches, including their lookarounds, longer than
+     * {@code maxMatchLength} may be missed or truncated.
+     * @param maxMatchLength maximum length of match in characters
+     * @param consumer receiver of the found matches
+     * @return new matcher
+     */
+    IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer);
+
+    /**
+     * Finds bounds of all matches in text. Unlike {@link #findAllInAsMatch(CharSequence)} no objects are
+     * created per match.
+     * @param text the text to search
+     * @return start and end of every match, one after another
+     */
+    default int[] findAllOffsetsIn(CharSequence text) {
+        Bounds bounds = new Bounds();
+        forEachMatch(text, bounds);
+        return bounds.toArray();
+    }
+
+    /**
+     * Passes bounds of every match in text to visitor. Unlike {@link #findAllInAsMatch(CharSequence)}
+     * no objects are created per match.
+     * @param text the text to search
+     * @param visitor receiver of match bounds
+     */
+    void forEachMatch(CharSequence text, MatchVisitor visitor);
+
+    /**
+     * Passes bounds of every group of every match in text to visitor. Unlike
+     * {@link #findGroupsInAsMatch(CharSequence)} no objects are created per match.
+     * @param text the text to search
+     * @param visitor receiver of group bounds
+     */
+    void forEachGroupMatch(CharSequence text, GroupVisitor visitor);
+
+    /**
+     * Passes bounds of every group of the first match in text to visitor, as
+     * {@link #forEachGroupMatch(CharSequence, GroupVisitor)} does for every match.
+     * @param text the text to search
+     * @param visitor receiver of group bounds
+     * @return true if text contains a match
+     */
+    default boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        int[] matches = new int[1];
+        forEachGroupMatch(text, (group, start, end) -> {
+            if (group == 0) {
+                matches[0]++;
+            }
+            if (matches[0] == 1) {
+                visitor.visit(group, start, end);
+            }
+        });
+        return matches[0] > 0;
+    }
+
+    /**
+     * @return indices of named groups by their names
+     */
+    default Map<String, Integer> groupNames() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns extractor filling objects of the given type with named groups of matches, as described in
+     * {@link GroupExtractor#of(Regex, Class)}. Extractor should be created once and reused.
+     * @param type type of filled objects
+     * @param <T> type of filled objects
+     * @return the extractor
+     */
+    default <T> GroupExtractor<T> extractor(Class<T> type) {
+        return GroupExtractor.of(this, type);
+    }
+
+    /**
+     * Splits text using provided regular expression. In parallel stream segments of large text
+     * are found by searching its chunks in parallel.
      * @param text
      * @return
      */
-    Result<String> split(String text);
+    Result<String> split(CharSequence text);
 
     /**
      * Returns predicate, which returns true if the regular expression matches any part of string.
@@ -110,7 +350,84 @@ public interface Regex {
     Predicate<String> asMatchPredicate();
 
     /**
-     * Creates regular expression of the provided pattern.
+     * Tests which texts of the batch match the regular expression as a whole. Engines reuse the same
+     * matcher for the whole batch.
+     * @param texts the texts to be matched
+     * @return set with bits of indices of matching texts
+     */
+    default BitSet matchesAll(List<? extends CharSequence> texts) {
+        BitSet matched = new BitSet(texts.size());
+        int i = 0;
+        for (CharSequence text : texts) {
+            if (matches(text)) {
+                matched.set(i);
+            }
+            i++;
+        }
+        return matched;
+    }
+
+    /**
+     * Tests which texts of the batch contain a match of the regular expression. Engines reuse the same
+     * matcher for the whole batch.
+     * @param texts the texts to search
+     * @return set with bits of indices of texts containing a match
+     */
+    default BitSet findsAll(List<? extends CharSequence> texts) {
+        BitSet found = new BitSet(texts.size());
+        int i = 0;
+        for (CharSequence text : texts) {
+            if (findFirstInAsMatch(text).isPresent()) {
+                found.set(i);
+            }
+            i++;
+        }
+        return found;
+    }
+
+    /**
+     * Finds first match in every text of the batch. Engines reuse the same matcher for the whole batch.
+     * @param texts the texts to search
+     * @return first match of every text, in order of texts, {@code null} for texts without match
+     */
+    default List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        List<Match> matches = new ArrayList<>(texts.size());
+        for (CharSequence text : texts) {
+            matches.add(findFirstInAsMatch(text).orElse(null));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns regex failing with {@link BudgetExceededException} when a search exceeds the budget, instead
+     * of backtracking for an unbounded time on pathological input. The budget applies separately to every
+     * searched text, and to every chunk of it searched in parallel or window of a reader. For lazily
+     * computed results it covers consuming the whole result.
+     *
+     * <p> Engines which run in linear time return this regex.
+     * @param budget limit of a single search
+     * @return regex with the budget
+     */
+    default Regex withBudget(Budget budget) {
+        return this;
+    }
+
+    /**
+     * Returns regex reusing matchers between its searches instead of allocating one per search, which
+     * pays off for patterns searched very often. Matchers are reused by default if the
+     * {@code plainregex.reuseMatchers} system property is {@code true}.
+     *
+     * <p> Engines which don't allocate matchers per search return this regex.
+     * @param reuse whether matchers should be reused
+     * @return regex reusing matchers or not
+     */
+    default Regex withMatcherReuse(boolean reuse) {
+        return this;
+    }
+
+    /**
+     * Creates regular expression of the provided pattern using the default engine.
+     * Compiled expressions are shared through {@link RegexCache}.
      * @param pattern the pattern of regulard expression.
      * @return then instance of Regex class
      */
@@ -125,7 +442,8 @@ public interface Regex {
      * @return
      */
     static Regex of(String pattern, RegexFlag... flags) {
-        return ServiceLoader.load(RegexFactory.class).iterator().next().create(pattern, flags);
+        RegexFactory factory = RegexFactories.get();
+        return RegexCache.getInstance().get(factory, pattern, RegexFlag.resolve(factory.resolver(), flags));
     }
 
     /**
@@ -135,7 +453,32 @@ public interface Regex {
      * @return
      */
     static Regex of(String pattern, int flags) {
-        return ServiceLoader.load(RegexFactory.class).iterator().next().create(pattern, flags);
+        return RegexCache.getInstance().get(RegexFactories.get(), pattern, flags);
+    }
+
+    /**
+     * Creates regular expression of the provided pattern using the given engine.
+     * @param pattern the pattern of regular expression
+     * @param engine the engine compiling the pattern
+     * @param flags flags of regular expression
+     * @return the instance of Regex class
+     * @throws IllegalStateException if the engine isn't available on the classpath
+     */
+    static Regex of(String pattern, Engine engine, RegexFlag... flags) {
+        RegexFactory factory = RegexFactories.get(engine);
+        return RegexCache.getInstance().get(factory, pattern, RegexFlag.resolve(factory.resolver(), flags));
+    }
+
+    /**
+     * Creates regular expression of the provided pattern using the given engine.
+     * @param pattern the pattern of regular expression
+     * @param engine the engine compiling the pattern
+     * @param flags flags of regular expression as understood by the engine
+     * @return the instance of Regex class
+     * @throws IllegalStateException if the engine isn't available on the classpath
+     */
+    static Regex of(String pattern, Engine engine, int flags) {
+        return RegexCache.getInstance().get(RegexFactories.get(engine), pattern, flags);
     }
 
 }
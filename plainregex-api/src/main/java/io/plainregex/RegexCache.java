@@ -0,0 +1,202 @@
+package io.plainregex;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of compiled regular expressions used by {@link Regex#of(String, int)}.
+ *
+ * <p> Entries are keyed by pattern, resolved flags and engine. The cache is split into
+ * independently locked segments, each evicting its least recently used entry once full,
+ * so eviction order is LRU per segment rather than globally.
+ *
+ * <p> The maximum size can be set with the {@code plainregex.cache.maximumSize} system
+ * property. A maximum size of {@code 0} disables caching.
+ */
+public final class RegexCache {
+
+    static final String MAXIMUM_SIZE_PROPERTY = "plainregex.cache.maximumSize";
+    static final int DEFAULT_MAXIMUM_SIZE = 512;
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private static final RegexCache INSTANCE = new RegexCache(Integer.getInteger(MAXIMUM_SIZE_PROPERTY, DEFAULT_MAXIMUM_SIZE));
+
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RegexCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException(String.format("Maximum size of cache can't be negative: %d.", maximumSize));
+        }
+        this.maximumSize = maximumSize;
+        int segmentCount = Math.max(1, Math.min(MAXIMUM_SEGMENTS, maximumSize / MAXIMUM_SEGMENTS));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Returns the cache shared by all {@link Regex#of(String)} calls.
+     * @return the shared cache
+     */
+    public static RegexCache getInstance() {
+        return INSTANCE;
+    }
+
+    Regex get(RegexFactory factory, String pattern, int flags) {
+        if (maximumSize == 0) {
+            misses.increment();
+            return create(factory, pattern, flags);
+        }
+
+        Key key = new Key(factory.engine(), pattern, flags);
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+
+        Regex regex = segment.get(key);
+        if (regex != null) {
+            hits.increment();
+            return regex;
+        }
+
+        misses.increment();
+        return segment.putIfAbsent(key, create(factory, pattern, flags));
+    }
+
+    private static Regex create(RegexFactory factory, String pattern, int flags) {
+        return RegexMetrics.getInstance().instrumentIfEnabled(factory.create(pattern, flags), pattern, factory.engine(), flags);
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which had to compile the pattern
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries removed to keep the cache within its maximum size
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of compiled expressions currently held
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return maximum number of compiled expressions held
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Removes all entries. Counters are left untouched.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegexCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", hits=" + hitCount() +
+                ", misses=" + missCount() +
+                ", evictions=" + evictionCount() +
+                '}';
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<Key, Regex> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<Key, Regex>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Regex> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    } else {
+                        return false;
+                    }
+                }
+            };
+        }
+
+        synchronized Regex get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized Regex putIfAbsent(Key key, Regex regex) {
+            Regex existing = entries.putIfAbsent(key, regex);
+            return existing != null ? existing : regex;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+    }
+
+    private static final class Key {
+
+        private final Engine engine;
+        private final String pattern;
+        private final int flags;
+        private final int hash;
+
+        Key(Engine engine, String pattern, int flags) {
+            this.engine = engine;
+            this.pattern = pattern;
+            this.flags = flags;
+            this.hash = Objects.hash(engine, pattern, flags);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags &&
+                    engine == key.engine &&
+                    pattern.equals(key.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.plainregex;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Factories registered in {@code META-INF/services}, resolved once on first use.
+ *
+ * <p> The default engine is taken from the {@code plainregex.engine} system property. Without
+ * it the first available engine in {@link Engine} declaration order is used, so the choice
+ * doesn't depend on classpath order. {@link Engine#AUTO} is used only when chosen explicitly.
+ * The default is resolved on first lookup of it, so an invalid property fails only such lookups.
+ */
+final class RegexFactories {
+
+    static final String ENGINE_PROPERTY = "plainregex.engine";
+
+    private static final Map<Engine, RegexFactory> FACTORIES = load();
+
+    private static volatile RegexFactory defaultFactory;
+
+    private RegexFactories() {
+    }
+
+    static RegexFactory get() {
+        RegexFactory factory = defaultFactory;
+        if (factory == null) {
+            factory = resolveDefault();
+            defaultFactory = factory;
+        }
+        return factory;
+    }
+
+    static RegexFactory get(Engine engine) {
+        RegexFactory factory = find(engine);
+        if (factory == null) {
+            throw new IllegalStateException(String.format("Regex engine %s isn't available on the classpath.", engine));
+        }
+        return factory;
+    }
+
+    static RegexFactory find(Engine engine) {
+        return FACTORIES.get(engine);
+    }
+
+    private static Map<Engine, RegexFactory> load() {
+        Map<Engine, RegexFactory> factories = new EnumMap<>(Engine.class);
+        for (RegexFactory factory : ServiceLoader.load(RegexFactory.class)) {
+            factories.putIfAbsent(factory.engine(), factory);
+        }
+        if (!factories.isEmpty()) {
+            factories.put(Engine.AUTO, new AutoRegexFactory(new EnumMap<>(factories)));
+        }
+        return factories;
+    }
+
+    static RegexFactory resolveDefault() {
+        String name = System.getProperty(ENGINE_PROPERTY);
+        if (name != null) {
+            try {
+                return get(Engine.named(name));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                throw new IllegalStateException(String.format("Engine %s set in system property %s isn't available.", name, ENGINE_PROPERTY), e);
+            }
+        }
+        return FACTORIES.values().stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No regex engine found on the classpath."));
+    }
+
+}
@@ -1,13 +1,28 @@
 package io.plainregex;
 
+import java.util.List;
+
 interface RegexFactory {
 
     default Regex create(String pattern, RegexFlag... flags) {
         return create(pattern, RegexFlag.resolve(resolver(), flags));
     }
 
+    Engine engine();
+
     RegexFlagResolver resolver();
 
     Regex create(String pattern, int flags);
 
+    /**
+     * @return dialect of patterns accepted by the engine
+     */
+    default Syntax syntax() {
+        return Syntax.JAVA;
+    }
+
+    default RegexSet createSet(List<String> patterns, RegexFlag... flags) {
+        return new AutomatonRegexSet(this, patterns, flags);
+    }
+
 }
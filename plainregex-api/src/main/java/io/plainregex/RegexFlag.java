@@ -1,6 +1,8 @@
 package io.plainregex;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 public enum RegexFlag {
     /**
@@ -157,4 +159,23 @@ public enum RegexFlag {
         return Arrays.stream(flags).map(r -> r.resolveWith(resolver)).reduce(0, (a,b) -> (a|b));
     }
 
+    /**
+     * @return flags whose resolved bits are all set in the engine specific flags, ignoring flags engine
+     * doesn't support
+     */
+    static Set<RegexFlag> decode(RegexFlagResolver resolver, int flags) {
+        Set<RegexFlag> decoded = EnumSet.noneOf(RegexFlag.class);
+        for (RegexFlag flag : values()) {
+            try {
+                int bits = flag.resolveWith(resolver);
+                if (bits != 0 && (flags & bits) == bits) {
+                    decoded.add(flag);
+                }
+            } catch (UnsupportedOperationException e) {
+                // flag can't be set for this engine
+            }
+        }
+        return decoded;
+    }
+
 }
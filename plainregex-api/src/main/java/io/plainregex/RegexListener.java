@@ -0,0 +1,20 @@
+package io.plainregex;
+
+/**
+ * Receiver of calls of instrumented regexes, see {@link RegexMetrics#addListener(RegexListener)}.
+ * Listener is called on the thread which made the call, so it should return quickly.
+ */
+public interface RegexListener {
+
+    /**
+     * @param pattern pattern of the regex
+     * @param engine engine of the regex
+     * @param operation kind of the call
+     * @param hit whether a match was found, for {@link RegexOperation#SPLIT} whether text was split and for
+     * {@link RegexOperation#REPLACE} whether text changed
+     * @param nanos time spent in the engine
+     * @param characters length of searched text, {@code 0} if it was read from reader or file
+     */
+    void onCall(String pattern, Engine engine, RegexOperation operation, boolean hit, long nanos, long characters);
+
+}
@@ -0,0 +1,289 @@
+package io.plainregex;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of {@link PatternMetrics} of instrumented regexes.
+ *
+ * <p> When the {@code plainregex.metrics} system property is {@code true}, every regex created by
+ * {@link Regex#of(String)} is instrumented. Otherwise regexes aren't wrapped at all, so metrics cost
+ * nothing, and only regexes passed to {@link #instrument} are measured.
+ *
+ * <p> Metrics of every pattern are registered as MXBean named
+ * {@code io.plainregex:type=PatternMetrics,engine=<engine>,flags=<flags>,pattern=<quoted pattern>} in the
+ * platform MBean server. Time of operations returning {@link Result} covers consuming the result and is
+ * recorded once the result is consumed to the end. The shared registry is registered as well, under
+ * {@code io.plainregex:type=RegexMetrics}, with an operation reporting the slowest patterns.
+ *
+ * <p> The registry keeps metrics of at most {@code plainregex.metrics.maximumPatterns} patterns, 1000 by
+ * default. Registering one more removes metrics of the least called pattern and unregisters its MXBean,
+ * so applications compiling unbounded number of patterns don't leak them. Regexes instrumented earlier
+ * keep recording to the removed metrics.
+ */
+public final class RegexMetrics implements RegexMetricsMXBean {
+
+    /**
+     * Orders of patterns in {@link #slowest(int, Ranking)}.
+     */
+    public enum Ranking {
+
+        /**
+         * By 99th percentile of latency, for patterns slow on typical input.
+         */
+        P99,
+
+        /**
+         * By latency of the slowest call, for patterns with rare latency spikes.
+         */
+        MAX
+    }
+
+    static final String ENABLED_PROPERTY = "plainregex.metrics";
+    static final String MAXIMUM_PATTERNS_PROPERTY = "plainregex.metrics.maximumPatterns";
+    static final int DEFAULT_MAXIMUM_PATTERNS = 1000;
+    static final String DOMAIN = "io.plainregex";
+
+    private static final RegexListener[] NO_LISTENERS = new RegexListener[0];
+    private static final RegexMetrics INSTANCE = new RegexMetrics(Boolean.getBoolean(ENABLED_PROPERTY));
+
+    static {
+        if (INSTANCE.enabled) {
+            INSTANCE.register(objectName(), INSTANCE);
+        }
+    }
+
+    private final boolean enabled;
+    private final int maximumPatterns;
+    private final ConcurrentMap<ObjectName, PatternMetrics> patterns = new ConcurrentHashMap<>();
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+    private volatile RegexListener[] listeners = NO_LISTENERS;
+
+    RegexMetrics(boolean enabled) {
+        this(enabled, Integer.getInteger(MAXIMUM_PATTERNS_PROPERTY, DEFAULT_MAXIMUM_PATTERNS));
+    }
+
+    RegexMetrics(boolean enabled, int maximumPatterns) {
+        if (maximumPatterns <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum number of patterns must be positive: %d.", maximumPatterns));
+        }
+        this.enabled = enabled;
+        this.maximumPatterns = maximumPatterns;
+    }
+
+    /**
+     * Returns the registry used for regexes created by {@link Regex#of(String)}.
+     * @return the shared registry
+     */
+    public static RegexMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if regexes created by {@link Regex#of(String)} are instrumented
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns regex recording its calls in metrics of the pattern, shared by all regexes instrumented with
+     * the same pattern, engine and flags.
+     * @param regex the regex to measure
+     * @param pattern pattern of the regex
+     * @param engine engine of the regex
+     * @param flags flags of the regex as understood by the engine
+     * @return the instrumented regex
+     * @throws IllegalStateException if metrics can't be registered in the platform MBean server
+     */
+    public Regex instrument(Regex regex, String pattern, Engine engine, int flags) {
+        ObjectName name = objectName(pattern, engine, flags);
+        PatternMetrics metrics = patterns.get(name);
+        if (metrics == null) {
+            metrics = patterns.computeIfAbsent(name, key -> register(key, new PatternMetrics(pattern, engine, flags)));
+            trim(name);
+        }
+        return new InstrumentedRegex(regex, metrics, this);
+    }
+
+    Regex instrumentIfEnabled(Regex regex, String pattern, Engine engine, int flags) {
+        if (!enabled) {
+            return regex;
+        } else if (regex instanceof RoutedRegex) {
+            // keeps routing of the regex accessible
+            RoutedRegex routed = (RoutedRegex) regex;
+            return new RoutedRegex(instrument(routed.regex(), pattern, engine, flags), routed.routing());
+        } else {
+            return instrument(regex, pattern, engine, flags);
+        }
+    }
+
+    /**
+     * Adds listener called after every call of an instrumented regex.
+     * @param listener the listener
+     */
+    public synchronized void addListener(RegexListener listener) {
+        RegexListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        listeners = added;
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+    public synchronized void removeListener(RegexListener listener) {
+        listeners = Arrays.stream(listeners).filter(l -> l != listener).toArray(RegexListener[]::new);
+    }
+
+    /**
+     * @return metrics of all instrumented patterns
+     */
+    public Collection<PatternMetrics> patterns() {
+        return Collections.unmodifiableList(new ArrayList<>(patterns.values()));
+    }
+
+    /**
+     * Returns metrics of patterns with the highest latency.
+     * @param limit maximum number of returned patterns
+     * @param ranking order of patterns
+     * @return metrics of at most {@code limit} slowest patterns, the slowest first
+     */
+    public List<PatternMetrics> slowest(int limit, Ranking ranking) {
+        Comparator<PatternMetrics> latency = ranking == Ranking.P99
+                ? Comparator.comparingLong(PatternMetrics::getP99Nanos).thenComparingLong(PatternMetrics::getMaxNanos)
+                : Comparator.comparingLong(PatternMetrics::getMaxNanos).thenComparingLong(PatternMetrics::getP99Nanos);
+        return patterns.values().stream()
+                .filter(metrics -> metrics.getCalls() > 0)
+                .sorted(latency.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns report of {@link #slowest(int, Ranking) the slowest patterns}, one line per pattern with its
+     * engine, number of calls, latency percentiles in microseconds and the truncated input of its slowest call.
+     * @param limit maximum number of reported patterns
+     * @param ranking order of patterns
+     * @return the report
+     */
+    public String report(int limit, Ranking ranking) {
+        StringBuilder report = new StringBuilder();
+        int rank = 1;
+        for (PatternMetrics metrics : slowest(limit, ranking)) {
+            report.append(String.format("%d. %s [%s] calls=%d p50=%s p99=%s p99.9=%s max=%s worstInput=%s%n",
+                    rank++, quoted(PatternMetrics.sample(metrics.getPattern())), metrics.getEngine(), metrics.getCalls(),
+                    micros(metrics.getP50Nanos()), micros(metrics.getP99Nanos()), micros(metrics.getP999Nanos()),
+                    micros(metrics.getMaxNanos()), quoted(metrics.getWorstInput())));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String report(int limit, String ranking) {
+        return report(limit, Ranking.valueOf(ranking.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Removes metrics of all patterns and unregisters their MXBeans. Regexes instrumented earlier keep
+     * recording to the removed metrics.
+     */
+    public void clear() {
+        for (ObjectName name : patterns.keySet()) {
+            remove(name);
+        }
+    }
+
+    /**
+     * Removes the least called patterns, except the just added one, until the registry fits its maximum size.
+     */
+    private synchronized void trim(ObjectName added) {
+        while (patterns.size() > maximumPatterns) {
+            ObjectName least = null;
+            long leastCalls = Long.MAX_VALUE;
+            for (Map.Entry<ObjectName, PatternMetrics> entry : patterns.entrySet()) {
+                long calls = entry.getValue().getCalls();
+                if (calls < leastCalls && !entry.getKey().equals(added)) {
+                    least = entry.getKey();
+                    leastCalls = calls;
+                }
+            }
+            if (least == null) {
+                return;
+            }
+            remove(least);
+        }
+    }
+
+    private void remove(ObjectName name) {
+        patterns.remove(name);
+        if (registered.remove(name)) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (JMException e) {
+                // already unregistered by someone else
+            }
+        }
+    }
+
+    void record(PatternMetrics metrics, RegexOperation operation, boolean hit, long nanos, long characters, CharSequence input) {
+        metrics.record(operation, hit, nanos, characters, input);
+        for (RegexListener listener : listeners) {
+            listener.onCall(metrics.getPattern(), metrics.engine(), operation, hit, nanos, characters);
+        }
+    }
+
+    static ObjectName objectName(String pattern, Engine engine, int flags) {
+        try {
+            return new ObjectName(String.format("%s:type=PatternMetrics,engine=%s,flags=%d,pattern=%s", DOMAIN, engine, flags, ObjectName.quote(pattern)));
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Can't name metrics of pattern: %s.", pattern), e);
+        }
+    }
+
+    static ObjectName objectName() {
+        try {
+            return new ObjectName(String.format("%s:type=RegexMetrics", DOMAIN));
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't name regex metrics.", e);
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1000.0);
+    }
+
+    private static String quoted(String text) {
+        if (text == null) {
+            return "-";
+        }
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t") + '"';
+    }
+
+    private <T> T register(ObjectName name, T bean) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, name);
+            registered.add(name);
+            return bean;
+        } catch (InstanceAlreadyExistsException e) {
+            // name is taken by another registry, metrics of this one are available only through patterns()
+            return bean;
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Can't register metrics: %s.", name), e);
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.plainregex;
+
+/**
+ * Management interface of {@link RegexMetrics}.
+ */
+public interface RegexMetricsMXBean {
+
+    /**
+     * @param limit maximum number of reported patterns
+     * @param ranking order of reported patterns, name of {@link RegexMetrics.Ranking}
+     * @return report of the slowest patterns as described in {@link RegexMetrics#report(int, RegexMetrics.Ranking)}
+     */
+    String report(int limit, String ranking);
+
+}
@@ -0,0 +1,55 @@
+package io.plainregex;
+
+/**
+ * Kinds of {@link Regex} operations distinguished by {@link RegexMetrics}.
+ */
+public enum RegexOperation {
+
+    /**
+     * {@link Regex#matches(CharSequence)} and tests of {@link Regex#asMatchPredicate()}.
+     */
+    MATCH,
+
+    /**
+     * Tests of {@link Regex#asFindPredicate()}.
+     */
+    FIND,
+
+    /**
+     * {@link Regex#findFirstIn(CharSequence)} and {@link Regex#findFirstInAsMatch(CharSequence)}.
+     */
+    FIND_FIRST,
+
+    /**
+     * {@code findAllIn} and {@code findAllInAsMatch} of text, reader or file.
+     */
+    FIND_ALL,
+
+    /**
+     * {@link Regex#findGroupsIn(CharSequence)} and {@link Regex#findGroupsInAsMatch(CharSequence)}.
+     */
+    FIND_GROUPS,
+
+    /**
+     * {@link Regex#forEachMatch(CharSequence, MatchVisitor)} and {@link Regex#forEachGroupMatch(CharSequence, GroupVisitor)}.
+     * Time of these calls includes time spent by the visitor.
+     */
+    FOR_EACH,
+
+    /**
+     * {@code replaceFirstIn} and {@code replaceIn}.
+     */
+    REPLACE,
+
+    /**
+     * {@link Regex#split(CharSequence)}.
+     */
+    SPLIT,
+
+    /**
+     * {@link Regex#matchesAll(java.util.List)}, {@link Regex#findsAll(java.util.List)} and
+     * {@link Regex#findFirstInAll(java.util.List)}.
+     */
+    BATCH
+
+}
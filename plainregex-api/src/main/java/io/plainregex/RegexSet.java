@@ -0,0 +1,71 @@
+package io.plainregex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiled set of regular expressions, which tells which of them match the text.
+ *
+ * <p> Patterns are compiled into one automaton, so each text is scanned once, no matter how many
+ * patterns the set has. Patterns using constructs which can't be expressed as automaton, like
+ * backreferences or lookaround, are checked separately by the engine.
+ */
+public interface RegexSet {
+
+    /**
+     * @return number of patterns in the set
+     */
+    int size();
+
+    /**
+     * @return patterns of the set, in order of their indices
+     */
+    List<String> patterns();
+
+    /**
+     * Returns indices of patterns matching whole text.
+     * @param text the text to be matched
+     * @return indices of patterns which match text
+     */
+    BitSet matches(CharSequence text);
+
+    /**
+     * Returns indices of patterns matching any part of text.
+     * @param text the text to search
+     * @return indices of patterns found in text
+     */
+    BitSet findIn(CharSequence text);
+
+    /**
+     * Creates set of the provided patterns using the default engine.
+     * @param patterns the patterns of regular expressions
+     * @return the instance of RegexSet
+     */
+    static RegexSet of(String... patterns) {
+        return RegexSet.of(Arrays.asList(patterns));
+    }
+
+    /**
+     * Creates set of the provided patterns using the default engine.
+     * @param patterns the patterns of regular expressions
+     * @param flags flags applied to every pattern
+     * @return the instance of RegexSet
+     */
+    static RegexSet of(List<String> patterns, RegexFlag... flags) {
+        return RegexFactories.get().createSet(patterns, flags);
+    }
+
+    /**
+     * Creates set of the provided patterns using the given engine.
+     * @param patterns the patterns of regular expressions
+     * @param engine the engine whose syntax is used and which checks patterns the automaton can't handle
+     * @param flags flags applied to every pattern
+     * @return the instance of RegexSet
+     * @throws IllegalStateException if the engine isn't available on the classpath
+     */
+    static RegexSet of(List<String> patterns, Engine engine, RegexFlag... flags) {
+        return RegexFactories.get(engine).createSet(patterns, flags);
+    }
+
+}
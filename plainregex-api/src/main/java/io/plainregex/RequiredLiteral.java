@@ -0,0 +1,139 @@
+package io.plainregex;
+
+import java.util.Set;
+
+/**
+ * Literal which every match of a pattern contains. Texts without it can be rejected by a plain string search
+ * without running the engine.
+ *
+ * <p> Only case-sensitive literals are extracted. Patterns the parser doesn't understand get {@link #NONE},
+ * which lets every text through.
+ */
+final class RequiredLiteral {
+
+    static final RequiredLiteral NONE = new RequiredLiteral(null);
+
+    private static final int MAXIMUM_LENGTH = 256;
+
+    private final LiteralSearcher searcher;
+
+    private RequiredLiteral(LiteralSearcher searcher) {
+        this.searcher = searcher;
+    }
+
+    static RequiredLiteral of(String pattern, Syntax syntax, Set<RegexFlag> flags) {
+        ParsedPattern parsed;
+        try {
+            parsed = PatternParser.parse(pattern, syntax, flags);
+        } catch (IllegalArgumentException e) {
+            return NONE;
+        }
+        return of(parsed);
+    }
+
+    static RequiredLiteral of(ParsedPattern pattern) {
+        Info info = analyze(pattern.root());
+        String literal = longer(info.required, info.exact);
+        return literal == null || literal.isEmpty() ? NONE : new RequiredLiteral(new LiteralSearcher(literal));
+    }
+
+    /**
+     * @return the literal or {@code null} if pattern has none
+     */
+    String literal() {
+        return searcher == null ? null : searcher.literal();
+    }
+
+    /**
+     * @return false only if text can't contain a match
+     */
+    boolean isPresentIn(CharSequence text) {
+        return searcher == null || searcher.indexIn(text, 0) >= 0;
+    }
+
+    private static Info analyze(Node node) {
+        if (node instanceof Node.Empty || node instanceof Node.Assertion) {
+            return new Info("", null);
+        } else if (node instanceof Node.Chars) {
+            int c = ((Node.Chars) node).set.single();
+            return new Info(c < 0 ? null : new String(Character.toChars(c)), null);
+        } else if (node instanceof Node.Group) {
+            return analyze(((Node.Group) node).node);
+        } else if (node instanceof Node.Concat) {
+            StringBuilder run = new StringBuilder();
+            String required = null;
+            boolean exact = true;
+            for (Node child : ((Node.Concat) node).nodes) {
+                Info info = analyze(child);
+                required = longer(required, info.required);
+                if (info.exact != null && run.length() + info.exact.length() <= MAXIMUM_LENGTH) {
+                    run.append(info.exact);
+                } else {
+                    required = longer(longer(required, info.exact), run.toString());
+                    run.setLength(0);
+                    exact = false;
+                }
+            }
+            return new Info(exact ? run.toString() : null, longer(required, run.toString()));
+        } else if (node instanceof Node.Alternation) {
+            String exact = null;
+            for (Node child : ((Node.Alternation) node).nodes) {
+                Info info = analyze(child);
+                if (info.exact == null || exact != null && !exact.equals(info.exact)) {
+                    return new Info(null, null);
+                }
+                exact = info.exact;
+            }
+            return new Info(exact, null);
+        } else if (node instanceof Node.Repeat) {
+            Node.Repeat repeat = (Node.Repeat) node;
+            if (repeat.min == 0) {
+                return new Info(repeat.max == 0 ? "" : null, null);
+            }
+            Info info = analyze(repeat.node);
+            String required = longer(info.required, info.exact);
+            if (repeat.min == repeat.max && info.exact != null && info.exact.length() * repeat.min <= MAXIMUM_LENGTH) {
+                StringBuilder repeated = new StringBuilder();
+                for (int i = 0; i < repeat.min; i++) {
+                    repeated.append(info.exact);
+                }
+                return new Info(repeated.toString(), required);
+            }
+            return new Info(null, required);
+        } else {
+            return new Info(null, null);
+        }
+    }
+
+    private static String longer(String first, String second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        } else {
+            return second.length() > first.length() ? second : first;
+        }
+    }
+
+    /**
+     * Facts about strings matched by a node.
+     */
+    private static final class Info {
+
+        /**
+         * The only string node matches or {@code null} if it matches more or unknown ones.
+         */
+        final String exact;
+
+        /**
+         * Longest literal every match of node contains or {@code null}.
+         */
+        final String required;
+
+        Info(String exact, String required) {
+            this.exact = exact;
+            this.required = required;
+        }
+    }
+
+}
@@ -8,4 +8,12 @@ public interface Result<S> {
     Stream<S> stream();
     List<S> list();
 
+    /**
+     * Counts elements of the result. Results of searching a text count matches without creating them.
+     * @return number of elements
+     */
+    default long count() {
+        return stream().count();
+    }
+
 }
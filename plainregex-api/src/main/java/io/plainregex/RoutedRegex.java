@@ -0,0 +1,191 @@
+package io.plainregex;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Regex created by {@link Engine#AUTO}, delegating to the regex of the chosen engine.
+ */
+public final class RoutedRegex implements Regex {
+
+    private final Regex regex;
+    private final Routing routing;
+
+    RoutedRegex(Regex regex, Routing routing) {
+        this.regex = regex;
+        this.routing = routing;
+    }
+
+    /**
+     * @return engine chosen for the pattern and the reason of the choice
+     */
+    public Routing routing() {
+        return routing;
+    }
+
+    Regex regex() {
+        return regex;
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+        return regex.matches(text);
+    }
+
+    @Override
+    public String replaceFirstIn(CharSequence text, String replacement) {
+        return regex.replaceFirstIn(text, replacement);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, String replacement) {
+        return regex.replaceIn(text, replacement);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, Function<String, String> replacer) {
+        return regex.replaceIn(text, replacer);
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer) {
+        return regex.replaceIn(text, replacer);
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(CharSequence text) {
+        return regex.findFirstInAsMatch(text);
+    }
+
+    @Override
+    public Optional<String> findFirstIn(CharSequence text) {
+        return regex.findFirstIn(text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(CharSequence text) {
+        return regex.findAllInAsMatch(text);
+    }
+
+    @Override
+    public Result<String> findAllIn(CharSequence text) {
+        return regex.findAllIn(text);
+    }
+
+    @Override
+    public Result<Match> findGroupsInAsMatch(CharSequence text) {
+        return regex.findGroupsInAsMatch(text);
+    }
+
+    @Override
+    public Result<String> findGroupsIn(CharSequence text) {
+        return regex.findGroupsIn(text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength) {
+        return regex.findAllInAsMatch(reader, maxMatchLength);
+    }
+
+    @Override
+    public IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer) {
+        return regex.incrementalMatcher(maxMatchLength, consumer);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Path path, int maxMatchLength) {
+        return regex.findAllInAsMatch(path, maxMatchLength);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer bytes) {
+        return regex.matches(bytes);
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(ByteBuffer bytes) {
+        return regex.findFirstInAsMatch(bytes);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(ByteBuffer bytes) {
+        return regex.findAllInAsMatch(bytes);
+    }
+
+    @Override
+    public int[] findAllOffsetsIn(ByteBuffer bytes) {
+        return regex.findAllOffsetsIn(bytes);
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchVisitor visitor) {
+        regex.forEachMatch(text, visitor);
+    }
+
+    @Override
+    public void forEachGroupMatch(CharSequence text, GroupVisitor visitor) {
+        regex.forEachGroupMatch(text, visitor);
+    }
+
+    @Override
+    public boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        return regex.forFirstGroupMatch(text, visitor);
+    }
+
+    @Override
+    public Map<String, Integer> groupNames() {
+        return regex.groupNames();
+    }
+
+    @Override
+    public Result<String> split(CharSequence text) {
+        return regex.split(text);
+    }
+
+    @Override
+    public Predicate<String> asFindPredicate() {
+        return regex.asFindPredicate();
+    }
+
+    @Override
+    public Predicate<String> asMatchPredicate() {
+        return regex.asMatchPredicate();
+    }
+
+    @Override
+    public BitSet matchesAll(List<? extends CharSequence> texts) {
+        return regex.matchesAll(texts);
+    }
+
+    @Override
+    public BitSet findsAll(List<? extends CharSequence> texts) {
+        return regex.findsAll(texts);
+    }
+
+    @Override
+    public List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        return regex.findFirstInAll(texts);
+    }
+
+    @Override
+    public Regex withBudget(Budget budget) {
+        Regex budgeted = regex.withBudget(budget);
+        return budgeted == regex ? this : new RoutedRegex(budgeted, routing);
+    }
+
+    @Override
+    public Regex withMatcherReuse(boolean reuse) {
+        Regex reusing = regex.withMatcherReuse(reuse);
+        return reusing == regex ? this : new RoutedRegex(reusing, routing);
+    }
+
+}
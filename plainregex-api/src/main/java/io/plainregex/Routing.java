@@ -0,0 +1,101 @@
+package io.plainregex;
+
+import java.util.Objects;
+
+/**
+ * Engine chosen by {@link Engine#AUTO} for a pattern together with the reason of the choice.
+ *
+ * @see RoutedRegex#routing()
+ */
+public final class Routing {
+
+    /**
+     * Reasons of choosing an engine, in order in which patterns are checked for them.
+     */
+    public enum Reason {
+
+        /**
+         * Pattern matches only its own text, so it's searched as a string and the engine only handles
+         * operations which need groups.
+         */
+        LITERAL,
+
+        /**
+         * Pattern can't be analyzed, e.g. because of flags changing character classes, so it's left to the
+         * engine implementing the syntax.
+         */
+        UNANALYZED,
+
+        /**
+         * Pattern uses a construct which only backtracking engine handles, like backreference or lookaround.
+         */
+        BACKTRACKING_CONSTRUCT,
+
+        /**
+         * Pattern repeats a repetition of variable length, like {@code (x+x+)+}, on which backtracking can
+         * take exponential time, so it goes to a linear time engine.
+         */
+        NESTED_QUANTIFIER,
+
+        /**
+         * None of the above, backtracking engine is the fastest one for such patterns.
+         */
+        DEFAULT
+    }
+
+    private final Engine engine;
+    private final Reason reason;
+    private final String detail;
+
+    Routing(Engine engine, Reason reason, String detail) {
+        this.engine = engine;
+        this.reason = reason;
+        this.detail = detail;
+    }
+
+    /**
+     * @return engine compiling the pattern
+     */
+    public Engine engine() {
+        return engine;
+    }
+
+    /**
+     * @return reason of choosing the engine
+     */
+    public Reason reason() {
+        return reason;
+    }
+
+    /**
+     * @return construct or error which decided the choice, e.g. {@code "backreference"}, or {@code null}
+     */
+    public String detail() {
+        return detail;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Routing routing = (Routing) o;
+        return engine == routing.engine &&
+                reason == routing.reason &&
+                Objects.equals(detail, routing.detail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(engine, reason, detail);
+    }
+
+    @Override
+    public String toString() {
+        return "Routing{" +
+                "engine=" + engine +
+                ", reason=" + reason +
+                (detail != null ? ", detail='" + detail + '\'' : "") +
+                '}';
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.plainregex;
+
+/**
+ * Set of small integers with constant time insertion, lookup and clearing, iterated in insertion order.
+ */
+final class SparseSet {
+
+    private final int[] dense;
+    private final int[] sparse;
+    private int size;
+
+    SparseSet(int capacity) {
+        this.dense = new int[capacity];
+        this.sparse = new int[capacity];
+    }
+
+    boolean contains(int value) {
+        int index = sparse[value];
+        return index < size && dense[index] == value;
+    }
+
+    /**
+     * @return {@code false} if value was already present
+     */
+    boolean add(int value) {
+        if (contains(value)) {
+            return false;
+        }
+        dense[size] = value;
+        sparse[value] = size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return dense[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+}
@@ -0,0 +1,111 @@
+package io.plainregex;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Splits text around matches one segment at a time. When split, which happens only in parallel
+ * streams, bounds of all remaining matches of large text are first found in parallel by
+ * {@link ChunkedFinder}, and segments between them are split further evenly.
+ */
+class SplittingSpliterator implements Spliterator<String> {
+
+    private final Supplier<MatchCursor> cursors;
+    private final CharSequence text;
+    private MatchCursor cursor;
+    private int position;
+    private int index;
+    private boolean done;
+
+    private int[] bounds;
+    private int segment;
+    private int fence;
+
+    SplittingSpliterator(Supplier<MatchCursor> cursors, CharSequence text) {
+        this.cursors = cursors;
+        this.text = text;
+    }
+
+    private SplittingSpliterator(CharSequence text, int index, int[] bounds, int segment, int fence) {
+        this.cursors = null;
+        this.text = text;
+        this.index = index;
+        this.bounds = bounds;
+        this.segment = segment;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> consumer) {
+        if (bounds != null) {
+            if (segment < fence) {
+                consumer.accept(segment(segment));
+                segment++;
+                return true;
+            }
+            return false;
+        }
+
+        if (done) {
+            return false;
+        }
+        if (cursor == null) {
+            cursor = cursors.get();
+            cursor.reset(text);
+        }
+        if (position <= text.length() && cursor.find(position)) {
+            int start = cursor.start();
+            int end = cursor.end();
+            position = ChunkedFinder.next(start, end);
+            consumer.accept(text.subSequence(index, start).toString());
+            index = end;
+        } else {
+            consumer.accept(text.subSequence(index, text.length()).toString());
+            done = true;
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (bounds == null) {
+            ChunkedFinder finder = new ChunkedFinder(cursors, text);
+            if (done || !finder.isWorthSplitting(text.length() - position)) {
+                return null;
+            }
+            bounds = finder.findAll(position);
+            segment = 0;
+            fence = bounds.length / 2 + 1;
+        }
+
+        int middle = (segment + fence) >>> 1;
+        if (middle <= segment) {
+            return null;
+        }
+        Spliterator<String> prefix = new SplittingSpliterator(text, index, bounds, segment, middle);
+        segment = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return bounds != null ? fence - segment : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return bounds != null ? ORDERED | NONNULL | SIZED | SUBSIZED : ORDERED | NONNULL;
+    }
+
+    /**
+     * @return text between end of the previous match, or where splitting started, and start of
+     * the match with given index, or end of text
+     */
+    private String segment(int k) {
+        int start = k == 0 ? index : bounds[2 * k - 1];
+        int end = 2 * k < bounds.length ? bounds[2 * k] : text.length();
+        return text.subSequence(start, end).toString();
+    }
+
+}
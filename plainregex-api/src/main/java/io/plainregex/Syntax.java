@@ -0,0 +1,16 @@
+package io.plainregex;
+
+/**
+ * Pattern dialects understood by {@link PatternParser}. Dialects differ in escapes they accept and in
+ * meaning of line anchors, word boundaries and predefined classes.
+ */
+enum Syntax {
+    /**
+     * Syntax and matching rules of {@link java.util.regex.Pattern}.
+     */
+    JAVA,
+    /**
+     * Syntax and matching rules of RE2.
+     */
+    RE2
+}
@@ -0,0 +1,247 @@
+package io.plainregex;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Resolves character property and POSIX class names to code point sets. Sets are computed on first use
+ * and cached.
+ */
+final class UnicodeProperties {
+
+    private static final Map<String, Integer> CATEGORIES = new HashMap<>();
+    private static final Map<String, IntPredicate> JAVA_PROPERTIES = new HashMap<>();
+    private static final Map<String, IntPredicate> BINARY_PROPERTIES = new HashMap<>();
+    private static final Map<String, CodePointSet> JAVA_POSIX = new HashMap<>();
+    private static final Map<String, CodePointSet> RE2_POSIX = new HashMap<>();
+    private static final Map<String, CodePointSet> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        category("Cn", Character.UNASSIGNED);
+        category("Lu", Character.UPPERCASE_LETTER);
+        category("Ll", Character.LOWERCASE_LETTER);
+        category("Lt", Character.TITLECASE_LETTER);
+        category("Lm", Character.MODIFIER_LETTER);
+        category("Lo", Character.OTHER_LETTER);
+        category("Mn", Character.NON_SPACING_MARK);
+        category("Me", Character.ENCLOSING_MARK);
+        category("Mc", Character.COMBINING_SPACING_MARK);
+        category("Nd", Character.DECIMAL_DIGIT_NUMBER);
+        category("Nl", Character.LETTER_NUMBER);
+        category("No", Character.OTHER_NUMBER);
+        category("Zs", Character.SPACE_SEPARATOR);
+        category("Zl", Character.LINE_SEPARATOR);
+        category("Zp", Character.PARAGRAPH_SEPARATOR);
+        category("Cc", Character.CONTROL);
+        category("Cf", Character.FORMAT);
+        category("Co", Character.PRIVATE_USE);
+        category("Cs", Character.SURROGATE);
+        category("Pd", Character.DASH_PUNCTUATION);
+        category("Ps", Character.START_PUNCTUATION);
+        category("Pe", Character.END_PUNCTUATION);
+        category("Pc", Character.CONNECTOR_PUNCTUATION);
+        category("Po", Character.OTHER_PUNCTUATION);
+        category("Sm", Character.MATH_SYMBOL);
+        category("Sc", Character.CURRENCY_SYMBOL);
+        category("Sk", Character.MODIFIER_SYMBOL);
+        category("So", Character.OTHER_SYMBOL);
+        category("Pi", Character.INITIAL_QUOTE_PUNCTUATION);
+        category("Pf", Character.FINAL_QUOTE_PUNCTUATION);
+
+        JAVA_PROPERTIES.put("javaLowerCase", Character::isLowerCase);
+        JAVA_PROPERTIES.put("javaUpperCase", Character::isUpperCase);
+        JAVA_PROPERTIES.put("javaTitleCase", Character::isTitleCase);
+        JAVA_PROPERTIES.put("javaAlphabetic", Character::isAlphabetic);
+        JAVA_PROPERTIES.put("javaIdeographic", Character::isIdeographic);
+        JAVA_PROPERTIES.put("javaDigit", Character::isDigit);
+        JAVA_PROPERTIES.put("javaDefined", Character::isDefined);
+        JAVA_PROPERTIES.put("javaLetter", Character::isLetter);
+        JAVA_PROPERTIES.put("javaLetterOrDigit", Character::isLetterOrDigit);
+        JAVA_PROPERTIES.put("javaWhitespace", Character::isWhitespace);
+        JAVA_PROPERTIES.put("javaSpaceChar", Character::isSpaceChar);
+        JAVA_PROPERTIES.put("javaMirrored", Character::isMirrored);
+        JAVA_PROPERTIES.put("javaISOControl", Character::isISOControl);
+        JAVA_PROPERTIES.put("javaIdentifierIgnorable", Character::isIdentifierIgnorable);
+        JAVA_PROPERTIES.put("javaJavaIdentifierStart", Character::isJavaIdentifierStart);
+        JAVA_PROPERTIES.put("javaJavaIdentifierPart", Character::isJavaIdentifierPart);
+        JAVA_PROPERTIES.put("javaUnicodeIdentifierStart", Character::isUnicodeIdentifierStart);
+        JAVA_PROPERTIES.put("javaUnicodeIdentifierPart", Character::isUnicodeIdentifierPart);
+
+        BINARY_PROPERTIES.put("ALPHABETIC", Character::isAlphabetic);
+        BINARY_PROPERTIES.put("IDEOGRAPHIC", Character::isIdeographic);
+        BINARY_PROPERTIES.put("LETTER", Character::isLetter);
+        BINARY_PROPERTIES.put("DIGIT", Character::isDigit);
+        BINARY_PROPERTIES.put("ASSIGNED", c -> Character.getType(c) != Character.UNASSIGNED);
+        BINARY_PROPERTIES.put("CONTROL", c -> Character.getType(c) == Character.CONTROL);
+        BINARY_PROPERTIES.put("JOIN_CONTROL", c -> c == 0x200C || c == 0x200D);
+        BINARY_PROPERTIES.put("NONCHARACTER_CODE_POINT", c -> (c & 0xfffe) == 0xfffe || (c >= 0xfdd0 && c <= 0xfdef));
+        BINARY_PROPERTIES.put("PUNCTUATION", c -> ((((1 << Character.CONNECTOR_PUNCTUATION) | (1 << Character.DASH_PUNCTUATION) | (1 << Character.START_PUNCTUATION)
+                | (1 << Character.END_PUNCTUATION) | (1 << Character.OTHER_PUNCTUATION) | (1 << Character.INITIAL_QUOTE_PUNCTUATION)
+                | (1 << Character.FINAL_QUOTE_PUNCTUATION)) >> Character.getType(c)) & 1) != 0);
+
+        CodePointSet lower = CodePointSet.range('a', 'z');
+        CodePointSet upper = CodePointSet.range('A', 'Z');
+        CodePointSet digit = CodePointSet.range('0', '9');
+        CodePointSet alpha = lower.union(upper);
+        CodePointSet alnum = alpha.union(digit);
+        CodePointSet punct = CodePointSet.ranges('!', '/', ':', '@', '[', '`', '{', '~');
+        CodePointSet graph = alnum.union(punct);
+        CodePointSet cntrl = CodePointSet.ranges(0, 0x1f, 0x7f, 0x7f);
+        CodePointSet xdigit = CodePointSet.ranges('0', '9', 'a', 'f', 'A', 'F');
+        CodePointSet blank = CodePointSet.chars(" \t");
+
+        JAVA_POSIX.put("Lower", lower);
+        JAVA_POSIX.put("Upper", upper);
+        JAVA_POSIX.put("ASCII", CodePointSet.range(0, 0x7f));
+        JAVA_POSIX.put("Alpha", alpha);
+        JAVA_POSIX.put("Digit", digit);
+        JAVA_POSIX.put("Alnum", alnum);
+        JAVA_POSIX.put("Punct", punct);
+        JAVA_POSIX.put("Graph", graph);
+        JAVA_POSIX.put("Print", graph.union(CodePointSet.of(' ')));
+        JAVA_POSIX.put("Blank", blank);
+        JAVA_POSIX.put("Cntrl", cntrl);
+        JAVA_POSIX.put("XDigit", xdigit);
+        JAVA_POSIX.put("Space", CodePointSet.chars(" \t\n\u000B\f\r"));
+
+        RE2_POSIX.put("alnum", alnum);
+        RE2_POSIX.put("alpha", alpha);
+        RE2_POSIX.put("ascii", CodePointSet.range(0, 0x7f));
+        RE2_POSIX.put("blank", blank);
+        RE2_POSIX.put("cntrl", cntrl);
+        RE2_POSIX.put("digit", digit);
+        RE2_POSIX.put("graph", CodePointSet.range('!', '~'));
+        RE2_POSIX.put("lower", lower);
+        RE2_POSIX.put("print", CodePointSet.range(' ', '~'));
+        RE2_POSIX.put("punct", punct);
+        RE2_POSIX.put("space", CodePointSet.chars("\t\n\u000B\f\r "));
+        RE2_POSIX.put("upper", upper);
+        RE2_POSIX.put("word", alnum.union(CodePointSet.of('_')));
+        RE2_POSIX.put("xdigit", xdigit);
+    }
+
+    private UnicodeProperties() {
+    }
+
+    private static void category(String name, int type) {
+        CATEGORIES.put(name, type);
+    }
+
+    /**
+     * Resolves name used in {@code \p{name}}.
+     * @return set of code points or {@code null} if property is unknown
+     */
+    static CodePointSet property(String name, Syntax syntax) {
+        return syntax == Syntax.JAVA ? javaProperty(name) : re2Property(name);
+    }
+
+    /**
+     * Resolves name used in RE2 {@code [[:name:]]} class.
+     * @return set of code points or {@code null} if class is unknown
+     */
+    static CodePointSet posix(String name) {
+        return RE2_POSIX.get(name);
+    }
+
+    /**
+     * @return whether property depends on letter case, which makes its behaviour with case-insensitive matching
+     * engine specific
+     */
+    static boolean isCaseSensitive(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        return normalized.contains("lower") || normalized.contains("upper") || normalized.contains("title")
+                || normalized.endsWith("lu") || normalized.endsWith("ll") || normalized.endsWith("lt");
+    }
+
+    private static CodePointSet javaProperty(String name) {
+        CodePointSet posix = JAVA_POSIX.get(name);
+        if (posix != null) {
+            return posix;
+        }
+        if (JAVA_PROPERTIES.containsKey(name)) {
+            return cached("java:" + name, JAVA_PROPERTIES.get(name));
+        }
+
+        int separator = name.indexOf('=');
+        if (separator >= 0) {
+            String key = name.substring(0, separator).toLowerCase(Locale.ROOT);
+            String value = name.substring(separator + 1);
+            switch (key) {
+                case "sc":
+                case "script":
+                    return script(value);
+                case "blk":
+                case "block":
+                    return block(value);
+                case "gc":
+                case "general_category":
+                    return category(value);
+                default:
+                    return null;
+            }
+        }
+
+        if (name.startsWith("In")) {
+            return block(name.substring(2));
+        } else if (name.startsWith("Is")) {
+            String property = name.substring(2);
+            IntPredicate binary = BINARY_PROPERTIES.get(property.toUpperCase(Locale.ROOT).replace(' ', '_'));
+            if (binary != null) {
+                return cached("binary:" + property.toUpperCase(Locale.ROOT), binary);
+            }
+            CodePointSet category = category(property);
+            return category != null ? category : script(property);
+        } else {
+            return category(name);
+        }
+    }
+
+    private static CodePointSet re2Property(String name) {
+        if (name.equals("Any")) {
+            return CodePointSet.ALL;
+        }
+        CodePointSet category = category(name);
+        return category != null ? category : script(name);
+    }
+
+    private static CodePointSet category(String name) {
+        if (name.length() == 1) {
+            int mask = 0;
+            for (Map.Entry<String, Integer> category : CATEGORIES.entrySet()) {
+                if (category.getKey().charAt(0) == name.charAt(0)) {
+                    mask |= 1 << category.getValue();
+                }
+            }
+            int types = mask;
+            return mask == 0 ? null : cached("gc:" + name, c -> ((types >> Character.getType(c)) & 1) != 0);
+        }
+        Integer type = CATEGORIES.get(name);
+        return type == null ? null : cached("gc:" + name, c -> Character.getType(c) == type);
+    }
+
+    private static CodePointSet script(String name) {
+        try {
+            Character.UnicodeScript script = Character.UnicodeScript.forName(name);
+            return cached("sc:" + script, c -> Character.UnicodeScript.of(c) == script);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static CodePointSet block(String name) {
+        try {
+            Character.UnicodeBlock block = Character.UnicodeBlock.forName(name);
+            return cached("blk:" + block, c -> Character.UnicodeBlock.of(c) == block);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static CodePointSet cached(String key, IntPredicate predicate) {
+        return CACHE.computeIfAbsent(key, k -> CodePointSet.matching(predicate));
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.plainregex;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matches UTF-8 encoded text with an engine working on characters, decoded by {@link Utf8Text}.
+ */
+class Utf8MatchCursor implements ByteMatchCursor {
+
+    private final MatchCursor cursor;
+    private final Utf8Text text = new Utf8Text();
+
+    Utf8MatchCursor(MatchCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public void reset(ByteBuffer bytes) {
+        text.reset(bytes);
+        cursor.reset(text.chars());
+    }
+
+    @Override
+    public boolean find(int from) {
+        return cursor.find(text.charIndex(from));
+    }
+
+    @Override
+    public int start() {
+        return text.byteIndex(cursor.start());
+    }
+
+    @Override
+    public int end() {
+        return text.byteIndex(cursor.end());
+    }
+
+}
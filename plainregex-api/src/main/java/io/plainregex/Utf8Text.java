@@ -0,0 +1,142 @@
+package io.plainregex;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Characters of UTF-8 encoded text with mapping between indices of characters and bytes. Text consisting
+ * only of ASCII is a view of the bytes. Other text is decoded, remembering byte index of every character;
+ * malformed bytes are decoded as {@code U+FFFD}. Arrays are reused when text is reset.
+ */
+final class Utf8Text {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private boolean ascii;
+    private CharSequence chars;
+    private char[] decoded = new char[0];
+    private int[] charToByte = new int[1];
+    private int[] byteToChar = new int[1];
+
+    /**
+     * @return characters of bytes between position and limit of the buffer
+     */
+    static Utf8Text of(ByteBuffer bytes) {
+        Utf8Text text = new Utf8Text();
+        text.reset(bytes);
+        return text;
+    }
+
+    /**
+     * Decodes bytes between position and limit of the buffer. Buffer must not be modified while its
+     * characters are used.
+     * @param bytes the UTF-8 encoded text
+     */
+    void reset(ByteBuffer bytes) {
+        ascii = true;
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (ascii) {
+            chars = new AsciiCharSequence(bytes);
+        } else {
+            int length = decode(bytes);
+            chars = CharBuffer.wrap(decoded, 0, length);
+        }
+    }
+
+    CharSequence chars() {
+        return chars;
+    }
+
+    boolean isAscii() {
+        return ascii;
+    }
+
+    /**
+     * @return index of the first byte of character
+     */
+    int byteIndex(int charIndex) {
+        return ascii ? charIndex : charToByte[charIndex];
+    }
+
+    /**
+     * @return index of the first character beginning at or after byte
+     */
+    int charIndex(int byteIndex) {
+        return ascii ? byteIndex : byteToChar[byteIndex];
+    }
+
+    /**
+     * @return match of characters between the given indices, with offsets in bytes and text copied, since
+     * the buffer may be reused by the caller
+     */
+    Match match(int start, int end) {
+        if (start < 0) {
+            return Match.of(chars, start, end);
+        }
+        return new Match(chars.subSequence(start, end).toString(), byteIndex(start), byteIndex(end));
+    }
+
+    private int decode(ByteBuffer bytes) {
+        int base = bytes.position();
+        int length = bytes.remaining();
+        if (decoded.length < length) {
+            decoded = new char[length];
+            charToByte = new int[length + 1];
+            byteToChar = new int[length + 1];
+        }
+
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            int codePoint = bytes.get(base + i) & 0xFF;
+            int size = codePoint < 0x80 ? 1 : codePoint < 0xC2 ? 0 : codePoint < 0xE0 ? 2 : codePoint < 0xF0 ? 3 : codePoint < 0xF5 ? 4 : 0;
+            if (size > 1) {
+                codePoint &= 0xFF >> (size + 1);
+                if (i + size > length) {
+                    size = 0;
+                }
+                for (int k = 1; k < size; k++) {
+                    byte next = bytes.get(base + i + k);
+                    if (!ByteMatchCursor.isContinuation(next)) {
+                        size = 0;
+                        break;
+                    }
+                    codePoint = codePoint << 6 | next & 0x3F;
+                }
+                if (size == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) || size == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT)) {
+                    size = 0;
+                }
+            }
+            if (size == 0) {
+                size = 1;
+                codePoint = REPLACEMENT;
+            }
+
+            byteToChar[i] = count;
+            int next = count + Character.charCount(codePoint);
+            for (int k = 1; k < size; k++) {
+                byteToChar[i + k] = next;
+            }
+            charToByte[count] = i;
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                decoded[count] = Character.highSurrogate(codePoint);
+                decoded[count + 1] = Character.lowSurrogate(codePoint);
+                charToByte[count + 1] = i;
+            } else {
+                decoded[count] = (char) codePoint;
+            }
+            count = next;
+            i += size;
+        }
+        charToByte[count] = length;
+        byteToChar[length] = count;
+        return count;
+    }
+
+}
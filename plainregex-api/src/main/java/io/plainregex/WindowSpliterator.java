@@ -0,0 +1,91 @@
+package io.plainregex;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Finds matches in input too large to be held in memory, through a window sliding over it.
+ *
+ * <p> A match is reported only when it starts at least {@code maxMatchLength} units before the
+ * end of window, or when the window reached the end of input, so matches crossing the end of
+ * window are found once it slides further. At least {@code maxMatchLength} units are kept before
+ * the search position for lookbehinds and anchors. Results are the same as for the whole input if
+ * no match, including its lookarounds, is longer than {@code maxMatchLength}. Offsets of matches
+ * are absolute positions in the input.
+ */
+abstract class WindowSpliterator extends Spliterators.AbstractSpliterator<Match> {
+
+    final int maxMatchLength;
+
+    long offset = 0;
+    int length = 0;
+    boolean eof = false;
+
+    private int position = 0;
+    private boolean stale = true;
+
+    WindowSpliterator(int maxMatchLength) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        if (maxMatchLength <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum length of match must be positive: %d.", maxMatchLength));
+        }
+        this.maxMatchLength = maxMatchLength;
+    }
+
+    /**
+     * Passes current window to the cursor.
+     */
+    abstract void reset();
+
+    abstract boolean find(int from);
+
+    abstract int start();
+
+    abstract int end();
+
+    /**
+     * @return match at given indices of current window
+     */
+    abstract Match match(int start, int end);
+
+    /**
+     * Drops up to {@code discardable} units from the beginning of window and fills it with
+     * following input, updating {@link #length} and {@link #eof}.
+     * @return number of units actually dropped
+     */
+    abstract int slide(int discardable);
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Match> consumer) {
+        while (true) {
+            int limit = eof ? length : length - maxMatchLength;
+            if (position <= length && (eof || position < limit)) {
+                if (stale) {
+                    reset();
+                    stale = false;
+                }
+                if (find(position)) {
+                    int start = start();
+                    int end = end();
+                    if (eof || start < limit) {
+                        consumer.accept(match(start, end));
+                        position = start == end ? end + 1 : end;
+                        return true;
+                    }
+                } else if (eof) {
+                    return false;
+                }
+                position = limit;
+            } else if (eof) {
+                return false;
+            }
+
+            int discarded = slide(Math.max(0, position - maxMatchLength));
+            offset += discarded;
+            position -= discarded;
+            stale = true;
+        }
+    }
+
+}
@@ -1,14 +1,34 @@
 package io.plainregex.tests;
 
+import io.plainregex.Engine;
+import io.plainregex.GroupExtractor;
+import io.plainregex.IncrementalMatcher;
 import io.plainregex.Match;
 import io.plainregex.Regex;
+import io.plainregex.RegexCache;
 import io.plainregex.RegexFlag;
+import io.plainregex.RegexMetrics;
+import io.plainregex.RegexSet;
 import org.junit.jupiter.api.DynamicTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static io.plainregex.RegexFlag.*;
 import static org.assertj.core.api.Assertions.*;
@@ -32,7 +52,26 @@ public class CommonTestSuite {
                 dynamicTest("Should correctly find all as match with regex.", this::testFindAllMatchIn),
                 dynamicTest("Should correctly find all as groups with regex.", this::testFindAllGroupsIn),
                 dynamicTest("Should correctly find all as groups as match with regex.", this::testFindAllGroupsMatchIn),
-                dynamicTest("Should correctly do split with regex.", this::testSplit)
+                dynamicTest("Should correctly find all in parallel with regex.", this::testFindAllInParallel),
+                dynamicTest("Should correctly find all in reader with regex.", this::testFindAllInReader),
+                dynamicTest("Should correctly find all in channel with regex.", this::testFindAllInChannel),
+                dynamicTest("Should correctly find all in file with regex.", this::testFindAllInFile),
+                dynamicTest("Should correctly visit all matches with regex.", this::testForEachMatch),
+                dynamicTest("Should correctly visit all groups with regex.", this::testForEachGroupMatch),
+                dynamicTest("Should correctly do split with regex.", this::testSplit),
+                dynamicTest("Should correctly search char sequences.", this::testCharSequences),
+                dynamicTest("Should correctly do split in parallel with regex.", this::testSplitInParallel),
+                dynamicTest("Should reuse compiled regex from cache.", this::testCache),
+                dynamicTest("Should correctly match many patterns with regex set.", this::testRegexSet),
+                dynamicTest("Should correctly match random patterns with regex set.", this::testRandomRegexSet),
+                dynamicTest("Should correctly skip texts without required literal.", this::testRequiredLiteral),
+                dynamicTest("Should correctly handle patterns without metacharacters.", this::testLiteralPattern),
+                dynamicTest("Should correctly match batches of texts.", this::testBatch),
+                dynamicTest("Should correctly count matches and find their offsets.", this::testCountAndOffsets),
+                dynamicTest("Should correctly create text of matches on demand.", this::testMatchText),
+                dynamicTest("Should correctly extract groups into objects.", this::testExtractor),
+                dynamicTest("Should correctly search UTF-8 encoded bytes.", this::testBytes),
+                dynamicTest("Should correctly find matches in text fed in chunks.", this::testIncrementalMatcher)
         );
 
     }
@@ -78,6 +117,12 @@ public class CommonTestSuite {
         assertThat(regex.replaceIn("XXXXXXXXXXXAAAAAaXXXXXXXXXAxxx", "!!!")).isEqualTo("XXXXXXXXXXX!!!aXXXXXXXXX!!!xxx");
         assertThat(regex.replaceIn("XXXXXXXXXXXABCaXXXXXXXXXAxxx", "!!!")).isEqualTo("XXXXXXXXXXX!!!aXXXXXXXXX!!!xxx");
         assertThat(regex.replaceIn("XXXXXXXXXXXCCCaXXXXXXXXXCxxx", "!!!")).isEqualTo("XXXXXXXXXXX!!!aXXXXXXXXX!!!xxx");
+
+        String unchanged = "XXXaaa";
+        assertThat(regex.replaceIn(unchanged, "!!!")).isSameAs(unchanged);
+        assertThat(regex.replaceFirstIn(unchanged, "!!!")).isSameAs(unchanged);
+        assertThat(regex.replaceIn(unchanged, (i, s) -> "!!!")).isSameAs(unchanged);
+        assertThat(Regex.of("--").replaceIn(unchanged, "+")).isSameAs(unchanged);
     }
 
     void testReplaceInWithIndexedFunction() {
@@ -130,10 +175,451 @@ public class CommonTestSuite {
         assertThat(regex.findGroupsInAsMatch("aaa").list()).isEmpty();
     }
 
+    void testFindAllInParallel() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 400_000; i++) {
+            text.append(i % 7 == 0 ? "ABCA" : i % 3 == 0 ? "B" : "x_y");
+        }
+
+        Regex regex = Regex.of("[ABC]+");
+        List<Match> expected = regex.findAllInAsMatch(text).list();
+        assertThat(regex.findAllInAsMatch(text).stream().parallel().collect(Collectors.toList())).isEqualTo(expected);
+        assertThat(regex.findAllIn(text).stream().parallel().count()).isEqualTo(expected.size());
+        assertThat(regex.findAllIn(text).stream().count()).isEqualTo(expected.size());
+    }
+
+    void testFindAllInReader() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append(i % 7 == 0 ? "ABCA" : i % 3 == 0 ? "B" : "x_y");
+        }
+
+        for (String pattern : Arrays.asList("[ABC]+", "\\b[xA]", "^x|A$|x*")) {
+            Regex regex = Regex.of(pattern);
+            List<Match> expected = regex.findAllInAsMatch(text).list();
+            assertThat(regex.findAllInAsMatch(new StringReader(text.toString()), 4).list()).as(pattern).isEqualTo(expected);
+        }
+
+        Regex regex = Regex.of("[ABC]+");
+        assertThat(regex.findAllIn(new StringReader("xxABCxxxAxxxxxxxxxxxxxxxB"), 5).list()).containsExactly("ABC", "A", "B");
+        assertThat(regex.findAllIn(new StringReader(""), 5).list()).isEmpty();
+    }
+
+    void testFindAllInChannel() {
+        Regex regex = Regex.of("[ABC]+");
+        byte[] bytes = "żółw_AB_źdźbło_CC".getBytes(StandardCharsets.UTF_8);
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        assertThat(regex.findAllInAsMatch(channel, StandardCharsets.UTF_8, 2).list()).containsExactly(new Match("AB", 5, 7), new Match("CC", 15, 17));
+    }
+
+    void testFindAllInFile() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append(i % 7 == 0 ? "ABCA" : i % 5 == 0 ? "żółw" : i % 3 == 0 ? "B" : "x_y");
+        }
+        Path file = Files.createTempFile("plainregex", ".txt");
+        try {
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+            for (String pattern : Arrays.asList("[ABC]+", "ż\\w*|ł", "^x|A$|x*", "[^_]{2,}")) {
+                Regex regex = Regex.of(pattern);
+                List<Match> expected = regex.findAllInAsMatch(text).stream()
+                        .map(m -> new Match(m.text(), utf8Length(text, m.start()), utf8Length(text, m.end())))
+                        .collect(Collectors.toList());
+                assertThat(regex.findAllInAsMatch(file, 12).list()).as(pattern).isEqualTo(expected);
+            }
+
+            assertThat(Regex.of("[ABC]+").findAllIn(file, 6).list()).isEqualTo(Regex.of("[ABC]+").findAllIn(text).list());
+        } finally {
+            Files.delete(file);
+        }
+
+        for (String wide : Arrays.asList("ab😀cd", "a€b€€c😀😀d", "😀a€")) {
+            Path small = Files.createTempFile("plainregex", ".txt");
+            try {
+                Files.write(small, wide.getBytes(StandardCharsets.UTF_8));
+                Regex regex = Regex.of("[a-d]");
+                List<Match> expected = regex.findAllInAsMatch(wide).stream()
+                        .map(m -> new Match(m.text(), utf8Length(wide, m.start()), utf8Length(wide, m.end())))
+                        .collect(Collectors.toList());
+                for (int maxMatchLength = 1; maxMatchLength <= 3; maxMatchLength++) {
+                    assertThat(regex.findAllInAsMatch(small, maxMatchLength).list()).as(wide).isEqualTo(expected);
+                }
+            } finally {
+                Files.delete(small);
+            }
+        }
+    }
+
+    private static long utf8Length(CharSequence text, long end) {
+        return text.subSequence(0, (int) end).toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    void testForEachMatch() {
+        Regex regex = Regex.of("[ABC]+");
+        List<Integer> bounds = new ArrayList<>();
+        regex.forEachMatch("___X___Y____C____D____E_AB", (start, end) -> {
+            bounds.add(start);
+            bounds.add(end);
+        });
+        assertThat(bounds).containsExactly(12, 13, 24, 26);
+    }
+
+    void testForEachGroupMatch() {
+        Regex regex = Regex.of("([ABCabc]+)XXX([ABCabc]+)?");
+        List<Integer> bounds = new ArrayList<>();
+        regex.forEachGroupMatch("aaaXXXbbb_cXXX", (group, start, end) -> {
+            bounds.add(group);
+            bounds.add(start);
+            bounds.add(end);
+        });
+        assertThat(bounds).containsExactly(0, 0, 9, 1, 0, 3, 2, 6, 9, 0, 10, 14, 1, 10, 11, 2, -1, -1);
+    }
+
     void testSplit() {
         Regex regex = Regex.of("[ABC]+");
         assertThat(regex.split("___A___AA__X_AB____C____CAB__W").list()).containsExactly("___", "___", "__X_", "____", "____", "__W");
         assertThat(regex.split("WWWBBBZZZCCC").list()).contains("WWW", "ZZZ");
     }
 
+    void testSplitInParallel() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 400_000; i++) {
+            text.append(i % 7 == 0 ? "ABCA" : i % 3 == 0 ? "B" : "x_y");
+        }
+
+        Regex regex = Regex.of("[ABC]+");
+        List<String> expected = regex.split(text).list();
+        assertThat(regex.split(text).stream().parallel().collect(Collectors.toList())).isEqualTo(expected);
+        assertThat(regex.split(text).stream().parallel().count()).isEqualTo(expected.size());
+        assertThat(regex.split("").stream().parallel().collect(Collectors.toList())).containsExactly("");
+    }
+
+    void testCharSequences() {
+        Regex regex = Regex.of("[ABC]+");
+        CharBuffer buffer = CharBuffer.wrap("--WWWBBBWCCC--", 2, 12).slice();
+        assertThat(regex.findAllInAsMatch(buffer).list()).containsExactly(new Match("BBB", 3, 6), new Match("CCC", 7, 10));
+        assertThat(regex.matches(new StringBuilder("ABC"))).isTrue();
+        assertThat(regex.replaceIn(new StringBuilder("xAxBBx"), "_")).isEqualTo("x_x_x");
+        assertThat(regex.replaceIn(buffer, (i, s) -> s.toLowerCase() + i)).isEqualTo("WWWbbb0Wccc1");
+        assertThat(regex.split(buffer).list()).containsExactly("WWW", "W", "");
+
+        StringBuilder reused = new StringBuilder("xAAxB");
+        List<Match> matches = regex.findAllInAsMatch(reused).list();
+        Match first = regex.findFirstInAsMatch(reused).get();
+        reused.setLength(0);
+        reused.append("yyyyy");
+        assertThat(matches).containsExactly(new Match("AA", 1, 3), new Match("B", 4, 5));
+        assertThat(first.text()).isEqualTo("AA");
+    }
+
+    void testCache() {
+        RegexCache cache = RegexCache.getInstance();
+        long hits = cache.hitCount();
+        long misses = cache.missCount();
+
+        Regex regex = Regex.of("[XYZ]+cached");
+        assertThat(Regex.of("[XYZ]+cached")).isSameAs(regex);
+        assertThat(Regex.of("[XYZ]+cached", CASE_INSENSITIVE)).isNotSameAs(regex);
+
+        assertThat(cache.hitCount() - hits).isEqualTo(1);
+        assertThat(cache.missCount() - misses).isEqualTo(2);
+    }
+
+    void testRegexSet() {
+        RegexSet set = RegexSet.of("[ABC]+", "^X", "Y$", "\\bword\\b", "(a|b)*c", "");
+        assertThat(set.size()).isEqualTo(6);
+        assertThat(set.patterns()).containsExactly("[ABC]+", "^X", "Y$", "\\bword\\b", "(a|b)*c", "");
+
+        assertThat(set.findIn("XAY")).isEqualTo(bits(0, 1, 2, 5));
+        assertThat(set.findIn("a word, abac")).isEqualTo(bits(3, 4, 5));
+        assertThat(set.findIn("swordfish")).isEqualTo(bits(5));
+        assertThat(set.matches("ABCA")).isEqualTo(bits(0));
+        assertThat(set.matches("abac")).isEqualTo(bits(4));
+        assertThat(set.matches("")).isEqualTo(bits(5));
+        assertThat(set.matches("XAY")).isEqualTo(bits());
+
+        RegexSet insensitive = RegexSet.of(Arrays.asList("error", "warn(ing)?"), CASE_INSENSITIVE);
+        assertThat(insensitive.findIn("WARNING: Error")).isEqualTo(bits(0, 1));
+        assertThat(RegexSet.of().findIn("anything")).isEqualTo(bits());
+    }
+
+    void testRandomRegexSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                patterns.add(randomPattern(random, 2));
+            }
+            RegexFlag[] flags = random.nextBoolean() ? new RegexFlag[0] : new RegexFlag[]{MULTILINE};
+            RegexSet set = RegexSet.of(patterns, flags);
+            for (int t = 0; t < 20; t++) {
+                StringBuilder text = new StringBuilder();
+                for (int length = random.nextInt(9); length > 0; length--) {
+                    text.append("ab1 \n".charAt(random.nextInt(5)));
+                }
+                BitSet found = set.findIn(text);
+                BitSet matched = set.matches(text);
+                for (int i = 0; i < patterns.size(); i++) {
+                    Regex regex = Regex.of(patterns.get(i), flags);
+                    String description = patterns.get(i) + " in " + text;
+                    assertThat(found.get(i)).as(description).isEqualTo(regex.findFirstInAsMatch(text).isPresent());
+                    assertThat(matched.get(i)).as(description).isEqualTo(regex.matches(text));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return random pattern built of constructs supported by every engine
+     */
+    private static String randomPattern(Random random, int depth) {
+        StringBuilder pattern = new StringBuilder();
+        for (int length = 1 + random.nextInt(3); length > 0; length--) {
+            int kind = random.nextInt(depth > 0 ? 11 : 9);
+            if (kind < 3) {
+                pattern.append(Arrays.asList("\\b", "^", "$").get(kind));
+                continue;
+            } else if (kind < 9) {
+                pattern.append(Arrays.asList("a", "b", "[ab]", "[^a]", ".", "\\d").get(kind - 3));
+            } else {
+                pattern.append(kind == 9 ? "(" : "(?:").append(randomPattern(random, depth - 1))
+                        .append('|').append(randomPattern(random, depth - 1)).append(')');
+            }
+            if (random.nextInt(3) == 0) {
+                pattern.append(Arrays.asList("*", "+", "?", "{1,2}", "*?", "??").get(random.nextInt(6)));
+            }
+        }
+        return pattern.toString();
+    }
+
+    void testRequiredLiteral() {
+        Regex regex = Regex.of(".*ERROR\\s+(\\w+)");
+        assertThat(regex.matches("2020-01-01 ERROR  disk")).isTrue();
+        assertThat(regex.matches("2020-01-01 WARN disk")).isFalse();
+        assertThat(regex.matches(new StringBuilder("ERROR disk"))).isTrue();
+        assertThat(regex.asFindPredicate().test("ERROR disk")).isTrue();
+        assertThat(regex.asFindPredicate().test("error disk")).isFalse();
+        assertThat(regex.asMatchPredicate().test("xERROR y")).isTrue();
+        assertThat(regex.findFirstIn("ERRO disk")).isEmpty();
+        assertThat(regex.findAllIn(CharBuffer.wrap("a ERROR b\nc ERROR d")).list()).containsExactly("a ERROR b", "c ERROR d");
+        assertThat(regex.findAllIn(CharBuffer.wrap("a EROR b")).list()).isEmpty();
+
+        Regex quoted = Regex.of("\\Qab\\E{2}");
+        assertThat(quoted.findFirstIn("xabbx")).contains("abb");
+        assertThat(quoted.findFirstIn("xababx")).isEmpty();
+
+        Regex alternatives = Regex.of("(cat|dog)-food");
+        assertThat(alternatives.findAllIn("dog-food, cat-food").list()).containsExactly("dog-food", "cat-food");
+        assertThat(alternatives.matches("dog-foo")).isFalse();
+    }
+
+    void testLiteralPattern() {
+        Regex regex = Regex.of("--");
+        assertThat(regex.matches("--")).isTrue();
+        assertThat(regex.matches("---")).isFalse();
+        assertThat(regex.findAllInAsMatch("a---b--").list()).containsExactly(new Match("--", 1, 3), new Match("--", 5, 7));
+        assertThat(regex.split("a--b----c--").list()).containsExactly("a", "b", "", "c", "");
+        assertThat(regex.replaceIn("a--b", "+")).isEqualTo("a+b");
+        assertThat(regex.replaceIn("a--b", "$0$0")).isEqualTo("a----b");
+        assertThat(regex.replaceFirstIn(new StringBuilder("--a--"), "")).isEqualTo("a--");
+        assertThat(regex.findGroupsIn("a--").list()).isEmpty();
+        assertThat(regex.asFindPredicate().test("a--")).isTrue();
+    }
+
+    void testBatch() {
+        List<CharSequence> texts = Arrays.asList("AB", "xAx", "", new StringBuilder("CBA"), "xyz");
+
+        Regex regex = Regex.of("[ABC]+");
+        assertThat(regex.matchesAll(texts)).isEqualTo(bits(0, 3));
+        assertThat(regex.findsAll(texts)).isEqualTo(bits(0, 1, 3));
+        assertThat(regex.findFirstInAll(texts)).containsExactly(new Match("AB", 0, 2), new Match("A", 1, 2), null, new Match("CBA", 0, 3), null);
+
+        Regex literal = Regex.of("A");
+        assertThat(literal.matchesAll(texts)).isEqualTo(bits());
+        assertThat(literal.findsAll(texts)).isEqualTo(bits(0, 1, 3));
+        assertThat(literal.findFirstInAll(texts)).containsExactly(new Match("A", 0, 1), new Match("A", 1, 2), null, new Match("A", 2, 3), null);
+
+        assertThat(regex.findsAll(new ArrayList<>())).isEqualTo(bits());
+    }
+
+    void testCountAndOffsets() {
+        Regex regex = Regex.of("[ABC]+");
+        assertThat(regex.findAllIn("xAB BxC").count()).isEqualTo(3);
+        assertThat(regex.findAllInAsMatch(new StringBuilder("CBA")).count()).isEqualTo(1);
+        assertThat(regex.findAllIn("xyz").count()).isEqualTo(0);
+        assertThat(regex.split("xAB BxC").count()).isEqualTo(4);
+        assertThat(regex.findAllOffsetsIn("xAB BxC")).containsExactly(1, 3, 4, 5, 6, 7);
+        assertThat(regex.findAllOffsetsIn("")).isEmpty();
+
+        Regex empty = Regex.of("x*");
+        assertThat(empty.findAllIn("axxb").count()).isEqualTo(empty.findAllIn("axxb").list().size());
+        assertThat(empty.findAllOffsetsIn("axxb")).containsExactly(0, 0, 1, 3, 3, 3, 4, 4);
+
+        Regex literal = Regex.of("--");
+        assertThat(literal.findAllIn("a----b--").count()).isEqualTo(3);
+        assertThat(literal.findAllOffsetsIn("a----b--")).containsExactly(1, 3, 3, 5, 6, 8);
+
+        Regex grouped = Regex.of("([ABC])[ABC]*");
+        Regex instrumented = RegexMetrics.getInstance().instrument(grouped, "([ABC])[ABC]*", Engine.AUTO, 0);
+        assertThat(instrumented.findAllIn("xAB BxC").count()).isEqualTo(3);
+        assertThat(instrumented.split("xAB BxC").count()).isEqualTo(4);
+        assertThat(instrumented.findGroupsIn("xAB BxC").count()).isEqualTo(grouped.findGroupsIn("xAB BxC").count());
+        assertThat(instrumented.findGroupsInAsMatch("xAB BxC").count()).isEqualTo(grouped.findGroupsInAsMatch("xAB BxC").count());
+        assertThat(instrumented.findAllInAsMatch(new StringReader("xAB BxC"), 8).count()).isEqualTo(3);
+    }
+
+    void testMatchText() {
+        StringBuilder text = new StringBuilder("xx(AB) () (C)");
+        List<Match> matches = Regex.of("\\(([ABC]*)(B)?\\)").findAllInAsMatch(text).list();
+        assertThat(matches).containsExactly(new Match("(AB)", 2, 6), new Match("()", 7, 9), new Match("(C)", 10, 13));
+        assertThat(matches.get(2).hashCode()).isEqualTo(new Match("(C)", 10, 13).hashCode());
+        assertThat(matches.get(1).toString()).isEqualTo("Match{text='()', start=7, end=9}");
+
+        List<Match> groups = Regex.of("\\(([ABC]*)(B)?\\)").findGroupsInAsMatch(" (A)").list();
+        assertThat(groups).containsExactly(new Match("A", 2, 3), new Match(null, -1, -1));
+        assertThat(Regex.of("[ABC]+").findFirstInAsMatch(text).map(Match::text)).contains("AB");
+    }
+
+    void testExtractor() {
+        Regex regex = Regex.of(named("time") + "\\d+) " + named("level") + "[A-Z]+) \\[" + named("pid") + "[-+]?\\d+)\\](?: " + named("message") + ".+))?");
+        assertThat(regex.groupNames()).containsEntry("time", 1).containsEntry("message", 4).hasSize(4);
+
+        GroupExtractor<LogRecord> extractor = regex.extractor(LogRecord.class);
+        assertThat(extractor.extractAll("1 INFO [7] up\n20000000000 WARN [-8]\nx"))
+                .extracting(LogRecord::toString)
+                .containsExactly("1 INFO 7 up", "20000000000 WARN -8 null");
+        assertThat(extractor.extractFirst("-- 3 DEBUG [0] x y")).map(LogRecord::toString).contains("3 DEBUG 0 x y");
+        assertThat(extractor.extractFirst("none")).isEmpty();
+
+        LogRecord reused = new LogRecord();
+        assertThat(extractor.extractFirst("5 INFO [1] a", reused)).isTrue();
+        assertThat(extractor.extractFirst("6 INFO [2]", reused)).isTrue();
+        assertThat(reused).hasToString("6 INFO 2 a");
+
+        GroupExtractor<List<Object>> positional = GroupExtractor.<List<Object>>builder(regex, ArrayList::new)
+                .bind(0, List::add)
+                .bindInt("pid", List::add)
+                .bindLong(1, List::add)
+                .build();
+        assertThat(positional.extractFirst("4 ERROR [+12] boom")).contains(Arrays.asList("4 ERROR [+12] boom", 4L, 12));
+        assertThat(Regex.of("--").extractor(LogRecord.class).extractAll("a----")).hasSize(2);
+
+        assertThatThrownBy(() -> GroupExtractor.builder(regex, ArrayList::new).bind("other", List::add)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GroupExtractor.builder(regex, ArrayList::new).bind(1, List::add).bindLong("time", List::add)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Regex.of(named("unknown") + "a)").extractor(LogRecord.class)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Regex.of(named("pid") + "\\d+)").extractor(LogRecord.class).extractFirst("99999999999")).isInstanceOf(NumberFormatException.class);
+    }
+
+    void testBytes() {
+        byte[] bytes = "--xAB żółw BxC".getBytes(StandardCharsets.UTF_8);
+        Regex regex = Regex.of("[ABC]+");
+        assertThat(regex.matches(bytes, 3, 2)).isTrue();
+        assertThat(regex.matches(bytes, 2, 3)).isFalse();
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2);
+        assertThat(regex.findAllOffsetsIn(buffer)).containsExactly(1, 3, 12, 13, 14, 15);
+        assertThat(regex.findAllInAsMatch(buffer).list()).containsExactly(new Match("AB", 1, 3), new Match("B", 12, 13), new Match("C", 14, 15));
+        assertThat(regex.findAllIn(buffer).count()).isEqualTo(3);
+        assertThat(regex.findFirstInAsMatch(buffer)).contains(new Match("AB", 1, 3));
+        assertThat(buffer.position()).isEqualTo(2);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Regex word = Regex.of("[żółw]+");
+        assertThat(word.findAllIn(direct).list()).containsExactly("żółw");
+        assertThat(word.findAllOffsetsIn(direct)).containsExactly(6, 13);
+        assertThat(word.findFirstInAsMatch(direct)).contains(new Match("żółw", 6, 13));
+        assertThat(word.matches(ByteBuffer.wrap("łów".getBytes(StandardCharsets.UTF_8)))).isTrue();
+        assertThat(word.findAllIn(ByteBuffer.wrap("xyz".getBytes(StandardCharsets.UTF_8))).list()).isEmpty();
+
+        Regex literal = Regex.of("--");
+        assertThat(literal.findAllOffsetsIn(ByteBuffer.wrap("ż----".getBytes(StandardCharsets.UTF_8)))).containsExactly(2, 4, 4, 6);
+
+        ByteBuffer reused = ByteBuffer.wrap("xABx".getBytes(StandardCharsets.UTF_8));
+        Match found = regex.findFirstInAsMatch(reused).get();
+        reused.put(1, (byte) 'C');
+        assertThat(found).isEqualTo(new Match("AB", 1, 3));
+    }
+
+    void testIncrementalMatcher() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            builder.append("żółw-").append(i).append(" ABBA x\n");
+        }
+        String text = builder.toString();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        for (String pattern : Arrays.asList("[A-Z]+|\\d+", "(?m)^\\p{L}+", "x*")) {
+            Regex regex = Regex.of(pattern);
+            List<Match> expected = regex.findAllInAsMatch(text).list();
+            for (int chunk : new int[]{1, 3, 7, text.length()}) {
+                List<Match> chars = new ArrayList<>();
+                IncrementalMatcher matcher = regex.incrementalMatcher(8, chars::add);
+                for (int i = 0; i < text.length(); i += chunk) {
+                    matcher.feed(text.substring(i, Math.min(text.length(), i + chunk)));
+                }
+                matcher.finish();
+                assertThat(chars).as(pattern + " in chunks of " + chunk).isEqualTo(expected);
+
+                List<Match> utf8 = new ArrayList<>();
+                matcher = regex.incrementalMatcher(8, utf8::add);
+                for (int i = 0; i < bytes.length; i += chunk) {
+                    matcher.feed(bytes, i, Math.min(bytes.length - i, chunk));
+                }
+                matcher.finish();
+                assertThat(utf8).as(pattern + " in chunks of " + chunk + " bytes").isEqualTo(expected);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        IncrementalMatcher matcher = Regex.of("\\d+").incrementalMatcher(2, matches::add);
+        matcher.feed("12 345 6".toCharArray(), 0, 8);
+        assertThat(matches).containsExactly(new Match("12", 0, 2), new Match("345", 3, 6));
+        matcher.feed(new byte[]{(byte) 0xC5}, 0, 1);
+        matcher.finish();
+        assertThat(matches).containsExactly(new Match("12", 0, 2), new Match("345", 3, 6), new Match("6", 7, 8));
+        assertThatThrownBy(() -> matcher.feed("7")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> Regex.of("a").incrementalMatcher(0, matches::add)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * @return opening of named group in syntax of the default engine
+     */
+    private static String named(String name) {
+        return Engine.RE2J.isAvailable() ? "(?P<" + name + ">" : "(?<" + name + ">";
+    }
+
+    public static class LogRecord {
+
+        private long time;
+        private String level;
+        private Integer pid;
+        String message;
+
+        public void setTime(long time) {
+            this.time = time;
+        }
+
+        public void setLevel(String level) {
+            this.level = level;
+        }
+
+        public void setPid(Integer pid) {
+            this.pid = pid;
+        }
+
+        @Override
+        public String toString() {
+            return time + " " + level + " " + pid + " " + message;
+        }
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        Arrays.stream(indices).forEach(bits::set);
+        return bits;
+    }
+
 }
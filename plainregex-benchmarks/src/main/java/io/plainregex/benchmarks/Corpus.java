@@ -0,0 +1,117 @@
+package io.plainregex.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Inputs used by benchmarks. Every corpus is generated from a fixed seed, so runs are comparable
+ * between releases.
+ */
+public enum Corpus {
+
+    /**
+     * Application log lines, searched for warnings and errors.
+     */
+    LOG("(\\d{4}-\\d{2}-\\d{2}) (\\d{2}:\\d{2}:\\d{2})\\.\\d{3} (ERROR|WARN) \\[([\\w-]+)\\]", " - ") {
+        @Override
+        List<String> generateRecords(Random random) {
+            String[] levels = {"TRACE", "DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR"};
+            String[] messages = {"Request handled", "Connection reset by peer", "Cache miss for key", "User logged in", "Timeout while waiting for lock"};
+            return IntStream.range(0, 10_000)
+                    .mapToObj(i -> String.format("2020-03-%02d %02d:%02d:%02d.%03d %s [worker-%d] io.plainregex.Service - %s id=%d",
+                            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000),
+                            levels[random.nextInt(levels.length)], random.nextInt(16), messages[random.nextInt(messages.length)], random.nextInt(1_000_000)))
+                    .collect(Collectors.toList());
+        }
+    },
+
+    /**
+     * Rows of comma separated export, searched for quoted fields.
+     */
+    CSV("\"([^\"]*)\",(\\d+)", ",") {
+        @Override
+        List<String> generateRecords(Random random) {
+            String[] cities = {"Warsaw", "Krakow", "Gdansk", "Wroclaw", "Poznan", "Lodz"};
+            return IntStream.range(0, 10_000)
+                    .mapToObj(i -> String.format("%d,\"%s\",%d,%d.%02d,%s,%b",
+                            i, cities[random.nextInt(cities.length)], random.nextInt(100), random.nextInt(10_000), random.nextInt(100),
+                            Long.toHexString(random.nextLong()), random.nextBoolean()))
+                    .collect(Collectors.toList());
+        }
+    },
+
+    /**
+     * Paragraphs of prose forming a document of roughly one megabyte, searched for capitalized words.
+     */
+    DOCUMENT("\\b([A-Z][a-z]+) ([a-z]+)\\b", "[\\s.,;]+") {
+        @Override
+        List<String> generateRecords(Random random) {
+            String[] words = {"the", "regular", "expression", "engine", "matches", "input", "against", "pattern", "of",
+                    "characters", "and", "returns", "every", "occurrence", "found", "in", "text", "while", "scanning"};
+            return IntStream.range(0, 2_000)
+                    .mapToObj(i -> IntStream.range(0, 80)
+                            .mapToObj(j -> {
+                                String word = words[random.nextInt(words.length)];
+                                return random.nextInt(8) == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word;
+                            })
+                            .collect(Collectors.joining(" ", "", ".")))
+                    .collect(Collectors.toList());
+        }
+    },
+
+    /**
+     * Inputs which make backtracking engines explore exponentially many paths before failing.
+     */
+    BACKTRACKING("(x+x+)+y", "x{4}") {
+        @Override
+        List<String> generateRecords(Random random) {
+            return IntStream.range(0, 16)
+                    .mapToObj(i -> String.join("", Collections.nCopies(12 + random.nextInt(4), "x")))
+                    .collect(Collectors.toList());
+        }
+    };
+
+    private static final long SEED = 42;
+
+    private final String pattern;
+    private final String delimiter;
+
+    Corpus(String pattern, String delimiter) {
+        this.pattern = pattern;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return pattern searched for in records, with at least one capturing group
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * @return pattern used for splitting records
+     */
+    public String delimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @return records of the corpus
+     */
+    public List<String> records() {
+        return generateRecords(new Random(SEED));
+    }
+
+    /**
+     * @return all records joined into single text with new lines
+     */
+    public String text() {
+        return String.join("\n", records());
+    }
+
+    abstract List<String> generateRecords(Random random);
+
+}
@@ -0,0 +1,186 @@
+package io.plainregex.benchmarks;
+
+import io.plainregex.Engine;
+import io.plainregex.Match;
+import io.plainregex.Regex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Measures every operation of {@link Regex} on each engine and corpus.
+ *
+ * <p> Operations on single records ({@code matches}, predicates, {@code findFirstIn},
+ * {@code findGroupsIn}) and batch operations run over all records of the corpus, the remaining ones over the
+ * whole corpus text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegexBenchmark {
+
+    private static final Function<String, String> UPPER_CASE = String::toUpperCase;
+    private static final BiFunction<Integer, String, String> INDEXED = (i, s) -> i + ":" + s;
+
+    @Param({"JAVA", "RE2J", "DFA", "AUTO"})
+    private Engine engine;
+
+    @Param({"LOG", "CSV", "DOCUMENT", "BACKTRACKING"})
+    private Corpus corpus;
+
+    private Regex regex;
+    private Regex delimiter;
+    private List<String> records;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        regex = Regex.of(corpus.pattern(), engine);
+        delimiter = Regex.of(corpus.delimiter(), engine);
+        records = corpus.records();
+        text = corpus.text();
+    }
+
+    @Benchmark
+    public void matches(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(regex.matches(record));
+        }
+    }
+
+    @Benchmark
+    public void asMatchPredicate(Blackhole blackhole) {
+        Predicate<String> predicate = regex.asMatchPredicate();
+        for (String record : records) {
+            blackhole.consume(predicate.test(record));
+        }
+    }
+
+    @Benchmark
+    public void asFindPredicate(Blackhole blackhole) {
+        Predicate<String> predicate = regex.asFindPredicate();
+        for (String record : records) {
+            blackhole.consume(predicate.test(record));
+        }
+    }
+
+    @Benchmark
+    public BitSet matchesAll() {
+        return regex.matchesAll(records);
+    }
+
+    @Benchmark
+    public BitSet findsAll() {
+        return regex.findsAll(records);
+    }
+
+    @Benchmark
+    public List<Match> findFirstInAll() {
+        return regex.findFirstInAll(records);
+    }
+
+    @Benchmark
+    public void findFirstIn(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(regex.findFirstIn(record));
+        }
+    }
+
+    @Benchmark
+    public void findFirstInAsMatch(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(regex.findFirstInAsMatch(record));
+        }
+    }
+
+    @Benchmark
+    public void findGroupsIn(Blackhole blackhole) {
+        for (String record : records) {
+            regex.findGroupsIn(record).stream().forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void findGroupsInAsMatch(Blackhole blackhole) {
+        for (String record : records) {
+            regex.findGroupsInAsMatch(record).stream().forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void findAllIn(Blackhole blackhole) {
+        regex.findAllIn(text).stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void findAllInAsMatch(Blackhole blackhole) {
+        regex.findAllInAsMatch(text).stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void findAllInParallel(Blackhole blackhole) {
+        regex.findAllIn(text).stream().parallel().forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachMatch(Blackhole blackhole) {
+        regex.forEachMatch(text, (start, end) -> blackhole.consume(end - start));
+    }
+
+    @Benchmark
+    public void forEachGroupMatch(Blackhole blackhole) {
+        for (String record : records) {
+            regex.forEachGroupMatch(record, (group, start, end) -> blackhole.consume(end - start));
+        }
+    }
+
+    @Benchmark
+    public String replaceFirstIn() {
+        return regex.replaceFirstIn(text, "$1");
+    }
+
+    @Benchmark
+    public String replaceIn() {
+        return regex.replaceIn(text, "$1");
+    }
+
+    @Benchmark
+    public String replaceInWithFunction() {
+        return regex.replaceIn(text, UPPER_CASE);
+    }
+
+    @Benchmark
+    public String replaceInWithIndexedFunction() {
+        return regex.replaceIn(text, INDEXED);
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        delimiter.split(text).stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void splitParallel(Blackhole blackhole) {
+        delimiter.split(text).stream().parallel().forEachOrdered(blackhole::consume);
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.plainregex.benchmarks;
+
+import io.plainregex.Engine;
+import io.plainregex.Regex;
+import io.plainregex.RegexSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares classifying log records with {@link RegexSet} against testing every {@link Regex} in turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegexSetBenchmark {
+
+    @Param({"JAVA", "RE2J", "DFA", "AUTO"})
+    private Engine engine;
+
+    @Param({"10", "100", "500"})
+    private int size;
+
+    private RegexSet set;
+    private List<Regex> regexes;
+    private List<String> records;
+
+    @Setup
+    public void setUp() {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            switch (i % 4) {
+                case 0:
+                    patterns.add("ERROR\\s+\\[worker-" + i + "\\]");
+                    break;
+                case 1:
+                    patterns.add("user=(\\w+)@host" + i + "\\b");
+                    break;
+                case 2:
+                    patterns.add("^\\S+ \\S+ WARN .*timeout " + i + "ms");
+                    break;
+                default:
+                    patterns.add("request(-| )id=" + i + "[a-f0-9]{4}");
+            }
+        }
+        set = RegexSet.of(patterns, engine);
+        regexes = new ArrayList<>();
+        for (String pattern : patterns) {
+            regexes.add(Regex.of(pattern, engine));
+        }
+        records = Corpus.LOG.records();
+    }
+
+    @Benchmark
+    public void regexSet(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(set.findIn(record));
+        }
+    }
+
+    @Benchmark
+    public void regexLoop(Blackhole blackhole) {
+        for (String record : records) {
+            int found = 0;
+            for (Regex regex : regexes) {
+                if (regex.asFindPredicate().test(record)) {
+                    found++;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+
+}
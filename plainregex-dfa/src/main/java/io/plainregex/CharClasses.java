@@ -0,0 +1,88 @@
+package io.plainregex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Partition of code points into classes which no instruction of a {@link Program} can tell apart, so DFA
+ * states need one transition per class instead of one per code point.
+ */
+final class CharClasses {
+
+    private final int[] ascii = new int[128];
+    private final int[] boundaries;
+    private final int[] classOfInterval;
+    private final int[] representatives;
+
+    CharClasses(Program program) {
+        Map<CodePointSet, Integer> sets = new LinkedHashMap<>();
+        TreeSet<Integer> points = new TreeSet<>();
+        points.add(0);
+        for (int pc = 0; pc < program.size(); pc++) {
+            if (program.op(pc) == Program.CHARS && sets.putIfAbsent(program.set(pc), sets.size()) == null) {
+                CodePointSet set = program.set(pc);
+                for (int r = 0; r < set.rangeCount(); r++) {
+                    points.add(set.rangeStart(r));
+                    if (set.rangeEnd(r) < Character.MAX_CODE_POINT) {
+                        points.add(set.rangeEnd(r) + 1);
+                    }
+                }
+            }
+        }
+
+        this.boundaries = points.stream().mapToInt(Integer::intValue).toArray();
+        this.classOfInterval = new int[boundaries.length];
+        Map<BitSet, Integer> signatures = new HashMap<>();
+        List<Integer> samples = new ArrayList<>();
+        for (int k = 0; k < boundaries.length; k++) {
+            BitSet signature = new BitSet(sets.size());
+            for (Map.Entry<CodePointSet, Integer> entry : sets.entrySet()) {
+                if (entry.getKey().contains(boundaries[k])) {
+                    signature.set(entry.getValue());
+                }
+            }
+            Integer id = signatures.get(signature);
+            if (id == null) {
+                id = signatures.size();
+                signatures.put(signature, id);
+                samples.add(boundaries[k]);
+            }
+            classOfInterval[k] = id;
+        }
+        this.representatives = samples.stream().mapToInt(Integer::intValue).toArray();
+
+        for (int c = 0; c < ascii.length; c++) {
+            ascii[c] = lookup(c);
+        }
+    }
+
+    /**
+     * @return number of classes
+     */
+    int count() {
+        return representatives.length;
+    }
+
+    int classOf(int codePoint) {
+        return codePoint < ascii.length ? ascii[codePoint] : lookup(codePoint);
+    }
+
+    /**
+     * @return code point belonging to the given class
+     */
+    int representative(int charClass) {
+        return representatives[charClass];
+    }
+
+    private int lookup(int codePoint) {
+        int index = Arrays.binarySearch(boundaries, codePoint);
+        return classOfInterval[index >= 0 ? index : -index - 2];
+    }
+
+}
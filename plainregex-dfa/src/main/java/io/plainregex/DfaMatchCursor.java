@@ -0,0 +1,33 @@
+package io.plainregex;
+
+class DfaMatchCursor implements MatchCursor {
+
+    private final DfaRegex regex;
+    private final int[] bounds = new int[2];
+    private CharSequence text;
+
+    DfaMatchCursor(DfaRegex regex) {
+        this.regex = regex;
+    }
+
+    @Override
+    public void reset(CharSequence text) {
+        this.text = text;
+    }
+
+    @Override
+    public boolean find(int from) {
+        return regex.find(text, from, bounds);
+    }
+
+    @Override
+    public int start() {
+        return bounds[0];
+    }
+
+    @Override
+    public int end() {
+        return bounds[1];
+    }
+
+}
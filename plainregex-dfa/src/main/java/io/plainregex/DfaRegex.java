@@ -0,0 +1,462 @@
+package io.plainregex;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Regex of patterns in Java syntax matched in linear time. Bounds of a match are found by {@link LazyDfa}:
+ * its end by scanning text forward and its start by scanning back from the end with DFA of the reversed
+ * pattern. Groups are resolved by {@link PikeVm} only within bounds of the match, which also takes over a
+ * search whose DFA cache thrashes.
+ *
+ * <p> Patterns with constructs which can't be expressed as automaton, like backreferences or lookarounds,
+ * are rejected.
+ */
+class DfaRegex implements Regex {
+
+    static final String CACHE_SIZE_PROPERTY = "plainregex.dfa.cacheSize";
+    static final int DEFAULT_CACHE_SIZE = 1 << 18;
+
+    private static final int CACHE_SIZE = Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+
+    private final Program program;
+    private final Program reversed;
+    private final CharClasses classes;
+    private final int groupCount;
+    private final Map<String, Integer> groupNames;
+    private final RequiredLiteral literal;
+    private final Pool<Searcher> searchers = new Pool<>();
+
+    public DfaRegex(String pattern, int flags) {
+        ParsedPattern parsed = PatternParser.parse(pattern, Syntax.JAVA, RegexFlag.decode(new DfaRegexFactory().resolver(), flags));
+        String feature = parsed.opaqueFeature();
+        if (feature != null) {
+            throw new PatternSyntaxException(String.format("DFA regex can't handle %s", feature), pattern, -1);
+        }
+        try {
+            this.program = Program.compile(parsed);
+            this.reversed = Program.compile(new ParsedPattern(pattern, reverse(parsed.root()), 0, Collections.emptyMap()));
+        } catch (IllegalArgumentException e) {
+            throw new PatternSyntaxException(e.getMessage(), pattern, -1);
+        }
+        this.classes = new CharClasses(program);
+        this.groupCount = parsed.groupCount();
+        this.groupNames = parsed.groupNames();
+        this.literal = RequiredLiteral.of(parsed);
+    }
+
+    @Override
+    public boolean matches(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
+            return false;
+        }
+        Searcher searcher = acquire();
+        try {
+            return searcher.matches(text);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public String replaceFirstIn(CharSequence text, String replacement) {
+        Searcher searcher = acquire();
+        try {
+            if (!searcher.find(text, 0)) {
+                return text.toString();
+            }
+            StringBuilder sb = new StringBuilder(text.length());
+            sb.append(text, 0, searcher.start);
+            Replacement.parse(replacement, groupCount, groupNames).appendTo(sb, text, searcher.captures(text));
+            sb.append(text, searcher.end, text.length());
+            return sb.toString();
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, String replacement) {
+        Searcher searcher = acquire();
+        try {
+            StringBuilder sb = new StringBuilder(text.length());
+            Replacement parsed = null;
+            int index = 0;
+            int position = 0;
+            while (position <= text.length() && searcher.find(text, position)) {
+                if (parsed == null) {
+                    parsed = Replacement.parse(replacement, groupCount, groupNames);
+                }
+                sb.append(text, index, searcher.start);
+                parsed.appendTo(sb, text, parsed.needsGroups() ? searcher.captures(text) : searcher.bounds());
+                index = searcher.end;
+                position = ChunkedFinder.next(searcher.start, searcher.end);
+            }
+            if (parsed == null) {
+                return text.toString();
+            }
+            sb.append(text, index, text.length());
+            return sb.toString();
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer) {
+        int[] bounds = new int[2];
+        if (!find(text, 0, bounds)) {
+            return text.toString();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        int position;
+        int i = 0;
+        do {
+            sb.append(text, index, bounds[0]);
+            sb.append(replacer.apply(i++, text.subSequence(bounds[0], bounds[1]).toString()));
+            index = bounds[1];
+            position = ChunkedFinder.next(bounds[0], bounds[1]);
+        } while (position <= text.length() && find(text, position, bounds));
+        sb.append(text, index, text.length());
+
+        return sb.toString();
+    }
+
+    @Override
+    public String replaceIn(CharSequence text, Function<String, String> replacer) {
+        return replaceIn(text, (i, s) -> replacer.apply(s));
+    }
+
+    @Override
+    public Optional<String> findFirstIn(CharSequence text) {
+        return findFirstInAsMatch(text).map(Match::text);
+    }
+
+    @Override
+    public Optional<Match> findFirstInAsMatch(CharSequence text) {
+        int[] bounds = new int[2];
+        if (literal.isPresentIn(text) && find(text, 0, bounds)) {
+            return Optional.of(Match.of(text, bounds[0], bounds[1]));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Result<String> findAllIn(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
+            return MatchedResult.empty();
+        }
+        return MatchedResult.found(this::cursor, text).map(Match::text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
+            return MatchedResult.empty();
+        }
+        return MatchedResult.found(this::cursor, text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new ReaderSpliterator(cursor(), reader, maxMatchLength), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer) {
+        return new IncrementalMatcher(cursor(), maxMatchLength, consumer);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Path path, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new MappedFileSpliterator(new Utf8MatchCursor(cursor()), path, maxMatchLength), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public Result<String> findGroupsIn(CharSequence text) {
+        return new MatchedResult<>(findGroupsInAsMatch(text).stream().map(Match::text));
+    }
+
+    @Override
+    public Result<Match> findGroupsInAsMatch(CharSequence text) {
+        int[] captures;
+        Searcher searcher = acquire();
+        try {
+            captures = searcher.find(text, 0) ? searcher.captures(text) : null;
+        } finally {
+            release(searcher);
+        }
+        if (captures == null) {
+            return MatchedResult.empty();
+        }
+        return new MatchedResult<>(IntStream.range(1, groupCount + 1).mapToObj(i -> group(text, captures, i)));
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchVisitor visitor) {
+        int[] bounds = new int[2];
+        int position = 0;
+        while (position <= text.length() && find(text, position, bounds)) {
+            visitor.visit(bounds[0], bounds[1]);
+            position = ChunkedFinder.next(bounds[0], bounds[1]);
+        }
+    }
+
+    @Override
+    public void forEachGroupMatch(CharSequence text, GroupVisitor visitor) {
+        Searcher searcher = acquire();
+        try {
+            int position = 0;
+            while (position <= text.length() && searcher.find(text, position)) {
+                int[] captures = searcher.captures(text);
+                for (int i = 0; i <= groupCount; i++) {
+                    visitor.visit(i, captures[2 * i], captures[2 * i + 1]);
+                }
+                position = ChunkedFinder.next(searcher.start, searcher.end);
+            }
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        int[] captures;
+        Searcher searcher = acquire();
+        try {
+            captures = literal.isPresentIn(text) && searcher.find(text, 0) ? searcher.captures(text) : null;
+        } finally {
+            release(searcher);
+        }
+        if (captures == null) {
+            return false;
+        }
+        for (int i = 0; i <= groupCount; i++) {
+            visitor.visit(i, captures[2 * i], captures[2 * i + 1]);
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, Integer> groupNames() {
+        return groupNames;
+    }
+
+    @Override
+    public Result<String> split(CharSequence text) {
+        Stream<String> stream = StreamSupport.stream(new SplittingSpliterator(this::cursor, text), false);
+
+        return new MatchedResult<>(stream);
+    }
+
+    @Override
+    public Predicate<String> asFindPredicate() {
+        return string -> {
+            if (!literal.isPresentIn(string)) {
+                return false;
+            }
+            Searcher searcher = acquire();
+            try {
+                return searcher.contains(string);
+            } finally {
+                release(searcher);
+            }
+        };
+    }
+
+    @Override
+    public Predicate<String> asMatchPredicate() {
+        return this::matches;
+    }
+
+    @Override
+    public BitSet matchesAll(List<? extends CharSequence> texts) {
+        return testAll(texts, true);
+    }
+
+    @Override
+    public BitSet findsAll(List<? extends CharSequence> texts) {
+        return testAll(texts, false);
+    }
+
+    @Override
+    public List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        List<Match> matches = new ArrayList<>(texts.size());
+        Searcher searcher = acquire();
+        try {
+            for (CharSequence text : texts) {
+                if (literal.isPresentIn(text) && searcher.find(text, 0)) {
+                    matches.add(Match.of(text, searcher.start, searcher.end));
+                } else {
+                    matches.add(null);
+                }
+            }
+        } finally {
+            release(searcher);
+        }
+        return matches;
+    }
+
+    private BitSet testAll(List<? extends CharSequence> texts, boolean whole) {
+        BitSet found = new BitSet(texts.size());
+        Searcher searcher = acquire();
+        try {
+            int i = 0;
+            for (CharSequence text : texts) {
+                if (literal.isPresentIn(text) && (whole ? searcher.matches(text) : searcher.contains(text))) {
+                    found.set(i);
+                }
+                i++;
+            }
+        } finally {
+            release(searcher);
+        }
+        return found;
+    }
+
+    /**
+     * Finds next match starting at or after the given index.
+     * @param bounds receives start and end of match
+     * @return true if match was found
+     */
+    boolean find(CharSequence text, int from, int[] bounds) {
+        Searcher searcher = acquire();
+        try {
+            if (searcher.find(text, from)) {
+                bounds[0] = searcher.start;
+                bounds[1] = searcher.end;
+                return true;
+            }
+            return false;
+        } finally {
+            release(searcher);
+        }
+    }
+
+    private MatchCursor cursor() {
+        return new DfaMatchCursor(this);
+    }
+
+    private Searcher acquire() {
+        Searcher searcher = searchers.acquire();
+        return searcher != null ? searcher : new Searcher();
+    }
+
+    private void release(Searcher searcher) {
+        searchers.release(searcher);
+    }
+
+    private static Match group(CharSequence text, int[] captures, int i) {
+        return Match.of(text, captures[2 * i], captures[2 * i + 1]);
+    }
+
+    /**
+     * @return node matching reversed texts of the given node, without groups
+     */
+    private static Node reverse(Node node) {
+        if (node instanceof Node.Concat) {
+            List<Node> nodes = new ArrayList<>();
+            for (Node child : ((Node.Concat) node).nodes) {
+                nodes.add(0, reverse(child));
+            }
+            return new Node.Concat(nodes);
+        } else if (node instanceof Node.Alternation) {
+            List<Node> nodes = new ArrayList<>();
+            for (Node child : ((Node.Alternation) node).nodes) {
+                nodes.add(reverse(child));
+            }
+            return new Node.Alternation(nodes);
+        } else if (node instanceof Node.Repeat) {
+            Node.Repeat repeat = (Node.Repeat) node;
+            return new Node.Repeat(reverse(repeat.node), repeat.min, repeat.max, repeat.greedy);
+        } else if (node instanceof Node.Group) {
+            return reverse(((Node.Group) node).node);
+        } else {
+            return node;
+        }
+    }
+
+    /**
+     * Automata with their caches, used by one thread at a time.
+     */
+    private final class Searcher {
+
+        private final LazyDfa forward = new LazyDfa(program, classes, false, false, CACHE_SIZE);
+        private final LazyDfa full = new LazyDfa(program, classes, true, false, CACHE_SIZE);
+        private final LazyDfa backward = new LazyDfa(reversed, classes, true, true, CACHE_SIZE);
+        private final PikeVm vm = new PikeVm(program, groupCount);
+        private int start;
+        private int end;
+
+        boolean matches(CharSequence text) {
+            int matched = full.search(text, 0, text.length(), true, false);
+            if (matched == LazyDfa.FAILED) {
+                return vm.search(text, 0, text.length(), true, true) != null;
+            }
+            return matched == text.length();
+        }
+
+        boolean contains(CharSequence text) {
+            int matched = forward.search(text, 0, text.length(), false, true);
+            if (matched == LazyDfa.FAILED) {
+                return vm.search(text, 0, text.length(), false, false) != null;
+            }
+            return matched >= 0;
+        }
+
+        boolean find(CharSequence text, int from) {
+            int matched = forward.search(text, from, text.length(), false, false);
+            if (matched == LazyDfa.NO_MATCH) {
+                return false;
+            } else if (matched != LazyDfa.FAILED) {
+                int first = backward.search(text, matched, from, true, false);
+                if (first != LazyDfa.FAILED) {
+                    start = first;
+                    end = matched;
+                    return true;
+                }
+            }
+            int[] captures = vm.search(text, from, text.length(), false, false);
+            if (captures == null) {
+                return false;
+            }
+            start = captures[0];
+            end = captures[1];
+            return true;
+        }
+
+        /**
+         * @return bounds of last match and its groups
+         */
+        int[] captures(CharSequence text) {
+            return groupCount == 0 ? bounds() : vm.search(text, start, end, true, false);
+        }
+
+        int[] bounds() {
+            return new int[]{start, end};
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.plainregex;
+
+import java.util.regex.Pattern;
+
+public class DfaRegexFactory implements RegexFactory {
+
+    @Override
+    public Engine engine() {
+        return Engine.DFA;
+    }
+
+    @Override
+    public RegexFlagResolver resolver() {
+        return flag -> {
+            switch (flag) {
+                case DOTALL:
+                    return Pattern.DOTALL;
+                case CASE_INSENSITIVE:
+                    return Pattern.CASE_INSENSITIVE;
+                case LITERAL:
+                    return Pattern.LITERAL;
+                case UNIX_LINES:
+                    return Pattern.UNIX_LINES;
+                case MULTILINE:
+                    return Pattern.MULTILINE;
+                case COMMENTS:
+                    return Pattern.COMMENTS;
+                case UNICODE_CASE:
+                    return Pattern.UNICODE_CASE;
+                default:
+                    throw new UnsupportedOperationException(String.format("DFA regex can't handle flag: %s.", flag));
+            }
+        };
+    }
+
+    @Override
+    public Regex create(String pattern, int flags) {
+        String literal = LiteralRegex.literalOf(pattern, flags, resolver());
+        if (literal != null) {
+            return new LiteralRegex(literal, () -> new DfaRegex(pattern, flags));
+        }
+        return new DfaRegex(pattern, flags);
+    }
+}
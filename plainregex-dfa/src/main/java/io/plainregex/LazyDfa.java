@@ -0,0 +1,366 @@
+package io.plainregex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DFA of a {@link Program} built while text is scanned. Every state is a set of NFA instructions, created
+ * the first time a search reaches it and remembered together with its transitions, so each character of
+ * text costs a single table lookup once the states in use are known.
+ *
+ * <p> In leftmost-first mode instructions of a state are ordered by priority and the ones following a
+ * match are dropped, which gives the end of the match a backtracking engine would report. In longest mode
+ * the state is an unordered set and search reports the last position where any thread matched.
+ *
+ * <p> Zero-width assertions are resolved when a state is entered. States which reach an assertion keep
+ * separate transitions for every combination of assertions holding at the position.
+ *
+ * <p> Memory is bounded by {@code cacheSize}, counted in array slots of states and transitions. When the
+ * cache is full it's cleared, and when it fills up again too quickly the search gives up and returns
+ * {@link #FAILED}, so the caller can fall back to NFA simulation. DFA isn't thread safe.
+ */
+final class LazyDfa {
+
+    static final int NO_MATCH = -1;
+    static final int FAILED = -2;
+
+    private static final int STATE_OVERHEAD = 16;
+    private static final State DEAD = new State(new int[0], false);
+
+    private final Program program;
+    private final CharClasses classes;
+    private final boolean longest;
+    private final boolean reversed;
+    private final int cacheSize;
+    private final Anchor[] anchors;
+
+    private final Map<State, State> states = new HashMap<>();
+    private int used;
+    private State anchoredStart;
+    private State unanchoredStart;
+
+    private final SparseSet visited;
+    private final int[] stack;
+    private final int[] buffer;
+
+    LazyDfa(Program program, CharClasses classes, boolean longest, boolean reversed, int cacheSize) {
+        this.program = program;
+        this.classes = classes;
+        this.longest = longest;
+        this.reversed = reversed;
+        this.cacheSize = cacheSize;
+        this.anchors = Arrays.stream(Anchor.values())
+                .filter(anchor -> {
+                    for (int pc = 0; pc < program.size(); pc++) {
+                        if (program.op(pc) == Program.ASSERT && program.anchor(pc) == anchor) {
+                            return true;
+                        }
+                    }
+                    return false;
+                })
+                .toArray(Anchor[]::new);
+        this.visited = new SparseSet(program.size());
+        this.stack = new int[2 * program.size() + 1];
+        this.buffer = new int[program.size()];
+    }
+
+    /**
+     * Scans text from {@code from} towards {@code limit}, which is lower than {@code from} for reversed
+     * DFA. Unanchored search, available only in leftmost-first mode, starts a new thread at every position.
+     * @param earliest whether to stop at the first position where a match ends
+     * @return position where the reported match ends, {@link #NO_MATCH} or {@link #FAILED}
+     */
+    int search(CharSequence text, int from, int limit, boolean anchored, boolean earliest) {
+        int lastMatch = NO_MATCH;
+        int lastReset = -1;
+        State state = anchored ? anchoredStart() : unanchoredStart();
+        int i = from;
+        while (true) {
+            Closure closure = closure(state, text, i);
+            int charClass = -1;
+            int following = i;
+            State next = null;
+            if (closure != null) {
+                if (closure.match) {
+                    lastMatch = i;
+                    if (earliest) {
+                        return lastMatch;
+                    }
+                }
+                if (i == limit) {
+                    return lastMatch;
+                }
+
+                if (reversed) {
+                    char c = text.charAt(i - 1);
+                    if (c < 128) {
+                        charClass = classes.classOf(c);
+                        following = i - 1;
+                    } else {
+                        int codePoint = Character.codePointBefore(text, i);
+                        charClass = classes.classOf(codePoint);
+                        following = i - Character.charCount(codePoint);
+                    }
+                } else {
+                    char c = text.charAt(i);
+                    if (c < 128) {
+                        charClass = classes.classOf(c);
+                        following = i + 1;
+                    } else {
+                        int codePoint = Character.codePointAt(text, i);
+                        charClass = classes.classOf(codePoint);
+                        following = i + Character.charCount(codePoint);
+                    }
+                }
+                next = closure.next[charClass];
+                if (next == null) {
+                    next = transition(state, closure, charClass);
+                }
+            }
+
+            if (next == null) {
+                if (lastReset >= 0 && Math.abs(i - lastReset) < 10 * states.size()) {
+                    return FAILED;
+                }
+                lastReset = i;
+                reset();
+                state = intern(new State(state.pcs, state.starting));
+                continue;
+            }
+            if (next == DEAD) {
+                return lastMatch;
+            }
+            state = next;
+            i = following;
+        }
+    }
+
+    private State anchoredStart() {
+        if (anchoredStart == null) {
+            anchoredStart = intern(new State(new int[]{program.start(0)}, false));
+        }
+        return anchoredStart;
+    }
+
+    private State unanchoredStart() {
+        if (unanchoredStart == null) {
+            unanchoredStart = intern(new State(new int[0], true));
+        }
+        return unanchoredStart;
+    }
+
+    private void reset() {
+        states.clear();
+        used = 0;
+        anchoredStart = null;
+        unanchoredStart = null;
+    }
+
+    /**
+     * @return {@code null} if cache is full
+     */
+    private State intern(State state) {
+        State existing = states.get(state);
+        if (existing != null) {
+            return existing;
+        }
+        if (!reserve(state.pcs.length + STATE_OVERHEAD)) {
+            return null;
+        }
+        states.put(state, state);
+        return state;
+    }
+
+    private boolean reserve(int slots) {
+        if (used + slots > cacheSize && !states.isEmpty()) {
+            return false;
+        }
+        used += slots;
+        return true;
+    }
+
+    /**
+     * @return closure of state at the given position or {@code null} if cache is full
+     */
+    private Closure closure(State state, CharSequence text, int i) {
+        if (state == null) {
+            return null;
+        }
+        if (state.closure != null) {
+            return state.closure;
+        }
+        int context = context(text, i);
+        if (state.contextual) {
+            for (int k = 0; k < state.contextCount; k++) {
+                if (state.contexts[k] == context) {
+                    return state.closures[k];
+                }
+            }
+        }
+
+        boolean match = false;
+        boolean contextual = false;
+        int size = 0;
+        visited.clear();
+        outer:
+        for (int k = 0; k <= state.pcs.length; k++) {
+            int top = 0;
+            if (k < state.pcs.length) {
+                stack[top++] = state.pcs[k];
+            } else if (state.starting) {
+                stack[top++] = program.start(0);
+            }
+            while (top > 0) {
+                int pc = stack[--top];
+                if (!visited.add(pc)) {
+                    continue;
+                }
+                switch (program.op(pc)) {
+                    case Program.CHARS:
+                        buffer[size++] = pc;
+                        break;
+                    case Program.SPLIT:
+                        stack[top++] = program.alt(pc);
+                        stack[top++] = program.out(pc);
+                        break;
+                    case Program.ASSERT:
+                        contextual = true;
+                        if ((context & bit(program.anchor(pc))) != 0) {
+                            stack[top++] = program.out(pc);
+                        }
+                        break;
+                    case Program.SAVE:
+                        stack[top++] = program.out(pc);
+                        break;
+                    default:
+                        match = true;
+                        if (!longest) {
+                            break outer;
+                        }
+                }
+            }
+        }
+
+        if (!reserve(size + classes.count())) {
+            return null;
+        }
+        Closure closure = new Closure(match, Arrays.copyOf(buffer, size), new State[classes.count()]);
+        if (!contextual) {
+            state.closure = closure;
+        } else {
+            state.add(context, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * @return state after consuming character of the given class, {@link #DEAD} or {@code null} if cache
+     * is full
+     */
+    private State transition(State state, Closure closure, int charClass) {
+        int codePoint = classes.representative(charClass);
+        int size = 0;
+        visited.clear();
+        for (int pc : closure.chars) {
+            if (program.set(pc).contains(codePoint) && visited.add(program.out(pc))) {
+                buffer[size++] = program.out(pc);
+            }
+        }
+        boolean starting = state.starting && !closure.match;
+        if (size == 0 && !starting) {
+            closure.next[charClass] = DEAD;
+            return DEAD;
+        }
+        int[] pcs = Arrays.copyOf(buffer, size);
+        if (longest) {
+            Arrays.sort(pcs);
+        }
+        State next = intern(new State(pcs, starting));
+        if (next != null) {
+            closure.next[charClass] = next;
+        }
+        return next;
+    }
+
+    private int context(CharSequence text, int i) {
+        int context = 0;
+        for (int k = 0; k < anchors.length; k++) {
+            if (anchors[k].test(text, i)) {
+                context |= 1 << k;
+            }
+        }
+        return context;
+    }
+
+    private int bit(Anchor anchor) {
+        for (int k = 0; k < anchors.length; k++) {
+            if (anchors[k] == anchor) {
+                return 1 << k;
+            }
+        }
+        return 0;
+    }
+
+    private static final class State {
+
+        final int[] pcs;
+        final boolean starting;
+        final int hash;
+
+        Closure closure;
+        boolean contextual;
+        int[] contexts;
+        Closure[] closures;
+        int contextCount;
+
+        State(int[] pcs, boolean starting) {
+            this.pcs = pcs;
+            this.starting = starting;
+            this.hash = 31 * Arrays.hashCode(pcs) + (starting ? 1 : 0);
+        }
+
+        void add(int context, Closure closure) {
+            if (!contextual) {
+                contextual = true;
+                contexts = new int[2];
+                closures = new Closure[2];
+            } else if (contextCount == contexts.length) {
+                contexts = Arrays.copyOf(contexts, contextCount * 2);
+                closures = Arrays.copyOf(closures, contextCount * 2);
+            }
+            contexts[contextCount] = context;
+            closures[contextCount++] = closure;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            State state = (State) o;
+            return starting == state.starting && Arrays.equals(pcs, state.pcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Instructions of state after following empty transitions at some position.
+     */
+    private static final class Closure {
+
+        final boolean match;
+        final int[] chars;
+        final State[] next;
+
+        Closure(boolean match, int[] chars, State[] next) {
+            this.match = match;
+            this.chars = chars;
+            this.next = next;
+        }
+    }
+
+}
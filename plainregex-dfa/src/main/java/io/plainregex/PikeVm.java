@@ -0,0 +1,119 @@
+package io.plainregex;
+
+import java.util.Arrays;
+
+/**
+ * Simulation of NFA of a {@link Program} tracking capture groups. Threads are kept in order of priority
+ * and a thread reaching an instruction first owns it, so the reported match and its groups are the ones a
+ * backtracking engine would report, in time linear in length of text. Simulation isn't thread safe.
+ */
+final class PikeVm {
+
+    private final Program program;
+    private final int slots;
+    private SparseSet current;
+    private SparseSet next;
+    private int[][] currentCaptures;
+    private int[][] nextCaptures;
+    private final int[] stack;
+    private final int[][] stackCaptures;
+
+    PikeVm(Program program, int groupCount) {
+        this.program = program;
+        this.slots = 2 * (groupCount + 1);
+        this.current = new SparseSet(program.size());
+        this.next = new SparseSet(program.size());
+        this.currentCaptures = new int[program.size()][];
+        this.nextCaptures = new int[program.size()][];
+        this.stack = new int[2 * program.size() + 1];
+        this.stackCaptures = new int[stack.length][];
+    }
+
+    /**
+     * Finds the match with the highest priority starting at or after {@code from}, without consuming
+     * characters at or after {@code limit}.
+     * @param anchored whether match has to start at {@code from}
+     * @param full whether match has to end at the end of text
+     * @return start and end of match followed by bounds of every group, {@code -1} for groups which
+     * didn't participate in match, or {@code null} if there's no match
+     */
+    int[] search(CharSequence text, int from, int limit, boolean anchored, boolean full) {
+        int[] matched = null;
+        current.clear();
+        int i = from;
+        while (true) {
+            if (matched == null && (!anchored || i == from)) {
+                int[] captures = new int[slots];
+                Arrays.fill(captures, -1);
+                captures[0] = i;
+                addThread(current, currentCaptures, program.start(0), text, i, captures);
+            }
+            if (current.size() == 0) {
+                return matched;
+            }
+
+            int c = i < limit ? Character.codePointAt(text, i) : -1;
+            int following = c < 0 ? i : i + Character.charCount(c);
+            next.clear();
+            for (int k = 0; k < current.size(); k++) {
+                int pc = current.get(k);
+                if (program.op(pc) == Program.MATCH) {
+                    if (!full || i == text.length()) {
+                        matched = currentCaptures[k].clone();
+                        matched[1] = i;
+                        break;
+                    }
+                } else if (program.op(pc) == Program.CHARS && c >= 0 && program.set(pc).contains(c)) {
+                    addThread(next, nextCaptures, program.out(pc), text, following, currentCaptures[k]);
+                }
+            }
+            if (c < 0) {
+                return matched;
+            }
+
+            SparseSet swap = current;
+            current = next;
+            next = swap;
+            int[][] swapCaptures = currentCaptures;
+            currentCaptures = nextCaptures;
+            nextCaptures = swapCaptures;
+            i = following;
+        }
+    }
+
+    private void addThread(SparseSet threads, int[][] captures, int pc, CharSequence text, int i, int[] initial) {
+        int top = 0;
+        stack[top] = pc;
+        stackCaptures[top++] = initial;
+        while (top > 0) {
+            pc = stack[--top];
+            int[] threadCaptures = stackCaptures[top];
+            if (!threads.add(pc)) {
+                continue;
+            }
+            switch (program.op(pc)) {
+                case Program.SPLIT:
+                    stack[top] = program.alt(pc);
+                    stackCaptures[top++] = threadCaptures;
+                    stack[top] = program.out(pc);
+                    stackCaptures[top++] = threadCaptures;
+                    break;
+                case Program.ASSERT:
+                    if (program.anchor(pc).test(text, i)) {
+                        stack[top] = program.out(pc);
+                        stackCaptures[top++] = threadCaptures;
+                    }
+                    break;
+                case Program.SAVE:
+                    int[] saved = threadCaptures.clone();
+                    saved[program.alt(pc)] = i;
+                    stack[top] = program.out(pc);
+                    stackCaptures[top++] = saved;
+                    break;
+                default:
+                    captures[threads.size() - 1] = threadCaptures;
+            }
+        }
+    }
+
+}
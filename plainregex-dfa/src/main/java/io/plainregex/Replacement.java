@@ -0,0 +1,106 @@
+package io.plainregex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replacement string interpreted like by {@link java.util.regex.Matcher#appendReplacement}: {@code $n} and
+ * {@code ${name}} refer to groups and backslash escapes the following character.
+ */
+final class Replacement {
+
+    private final List<String> literals = new ArrayList<>();
+    private final List<Integer> groups = new ArrayList<>();
+    private final boolean needsGroups;
+
+    private Replacement(String replacement, int groupCount, Map<String, Integer> groupNames) {
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < replacement.length()) {
+            char c = replacement.charAt(i++);
+            if (c == '\\') {
+                if (i == replacement.length()) {
+                    throw new IllegalArgumentException("character to be escaped is missing");
+                }
+                literal.append(replacement.charAt(i++));
+            } else if (c == '$') {
+                if (i == replacement.length()) {
+                    throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                }
+                int group;
+                if (replacement.charAt(i) == '{') {
+                    int end = replacement.indexOf('}', ++i);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                    }
+                    String name = replacement.substring(i, end);
+                    if (name.isEmpty()) {
+                        throw new IllegalArgumentException("named capturing group has 0 length name");
+                    }
+                    Integer index = groupNames.get(name);
+                    if (index == null) {
+                        throw new IllegalArgumentException(String.format("No group with name {%s}", name));
+                    }
+                    group = index;
+                    i = end + 1;
+                } else {
+                    group = replacement.charAt(i) - '0';
+                    if (group < 0 || group > 9) {
+                        throw new IllegalArgumentException("Illegal group reference");
+                    }
+                    i++;
+                    while (i < replacement.length() && replacement.charAt(i) >= '0' && replacement.charAt(i) <= '9') {
+                        int longer = group * 10 + replacement.charAt(i) - '0';
+                        if (longer > groupCount) {
+                            break;
+                        }
+                        group = longer;
+                        i++;
+                    }
+                    if (group > groupCount) {
+                        throw new IndexOutOfBoundsException("No group " + group);
+                    }
+                }
+                literals.add(literal.toString());
+                groups.add(group);
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        literals.add(literal.toString());
+        this.needsGroups = groups.stream().anyMatch(group -> group > 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException if replacement refers to unknown named group or ends with escape
+     * @throws IndexOutOfBoundsException if replacement refers to group with too large index
+     */
+    static Replacement parse(String replacement, int groupCount, Map<String, Integer> groupNames) {
+        return new Replacement(replacement, groupCount, groupNames);
+    }
+
+    /**
+     * @return whether bounds of groups other than the whole match are needed
+     */
+    boolean needsGroups() {
+        return needsGroups;
+    }
+
+    /**
+     * @param captures start and end of match followed by bounds of groups, {@code -1} for groups which
+     * didn't participate in match
+     */
+    void appendTo(StringBuilder sb, CharSequence text, int[] captures) {
+        for (int k = 0; k < groups.size(); k++) {
+            sb.append(literals.get(k));
+            int group = groups.get(k);
+            if (captures[2 * group] >= 0) {
+                sb.append(text, captures[2 * group], captures[2 * group + 1]);
+            }
+        }
+        sb.append(literals.get(literals.size() - 1));
+    }
+
+}
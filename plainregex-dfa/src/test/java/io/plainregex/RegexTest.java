@@ -0,0 +1,181 @@
+package io.plainregex;
+
+import io.plainregex.tests.CommonTestSuite;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static io.plainregex.RegexFlag.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class RegexTest {
+
+    @TestFactory
+    Collection<DynamicTest> testRegex() {
+        return new CommonTestSuite().tests();
+    }
+
+    @DisplayName("Should correctly handle legal flags.")
+    @Test
+    void testLegalFlags() {
+
+        List<RegexFlag> regexFlags = Arrays.asList(
+                DOTALL,
+                CASE_INSENSITIVE,
+                LITERAL,
+                UNIX_LINES,
+                MULTILINE,
+                COMMENTS,
+                UNICODE_CASE
+        );
+
+        for (RegexFlag flag : regexFlags) {
+            Regex regex = Regex.of("[a-z].[a-z]+", flag);
+            assertThat(regex.findFirstIn("  A\nBC   ")).isNotNull();
+        }
+
+    }
+
+    @Test
+    void testIllegalFlags() {
+        List<RegexFlag> regexFlags = Arrays.asList(
+                CANON_EQ,
+                UNICODE_CHARACTER_CLASS,
+                DISABLE_UNICODE_GROUPS
+        );
+
+        for (RegexFlag flag : regexFlags) {
+            assertThrows(UnsupportedOperationException.class, () -> Regex.of("[a-z].[a-z]+", flag));
+        }
+    }
+
+    @Test
+    void testEngineSelection() {
+        assertThat(Engine.DFA.isAvailable()).isTrue();
+        assertThat(Engine.JAVA.isAvailable()).isFalse();
+        assertThat(Regex.of("[a-z]+", Engine.named("dfa"))).isInstanceOf(DfaRegex.class);
+        assertThat(Regex.of("[a-z]+", Engine.DFA, 0)).isSameAs(Regex.of("[a-z]+"));
+        assertThrows(IllegalStateException.class, () -> Regex.of("[a-z]+", Engine.RE2J));
+    }
+
+    @Test
+    void testAutoRouting() {
+        assertThat(routing("(x+x+)+y")).isEqualTo(new Routing(Engine.DFA, Routing.Reason.NESTED_QUANTIFIER, null));
+        assertThat(routing("[a-z]+")).isEqualTo(new Routing(Engine.DFA, Routing.Reason.DEFAULT, null));
+        assertThat(routing("--")).isEqualTo(new Routing(Engine.DFA, Routing.Reason.LITERAL, null));
+        assertThat(Regex.of("(x+x+)+y", Engine.AUTO).findAllIn("xxxy xx").list()).containsExactly("xxxy");
+        assertThrows(IllegalStateException.class, () -> Regex.of("(a)\\1", Engine.AUTO));
+    }
+
+    private static Routing routing(String pattern, RegexFlag... flags) {
+        return ((RoutedRegex) Regex.of(pattern, Engine.AUTO, flags)).routing();
+    }
+
+    @Test
+    void testUnsupportedConstructs() {
+        for (String pattern : Arrays.asList("(a)\\1", "a(?=b)", "(?<!a)b", "(?>a+)", "a++", "\\Ga", "[a")) {
+            assertThrows(PatternSyntaxException.class, () -> Regex.of(pattern), pattern);
+        }
+    }
+
+    @Test
+    void testAgreesWithJavaRegex() {
+        List<String> patterns = Arrays.asList("[ABC]+", "(a|ab)(c|bcd)(d*)", "(a+)(b+)?", "x*", "(?:(a)|b)+", "^\\w+$",
+                "(?m)^\\s*(\\w+)\\s*$", "\\b\\w", "a.*?b", "(\\d{2,3})-(\\d{2})?", "(?i)straße|ǅ", "[^\\n]{2}\\Z",
+                "(?<year>\\d{4})|(?<word>\\p{L}+)", "é|\\x{1F600}+", "(?s).", "$", "(a|)+b", "(a?)+b", "(|a)*", "(?s:\\B[^a]*?)*", "(ab|a)*c?");
+        List<String> texts = Arrays.asList("", "abcd", "aaabbb_bbb", "xAxBCx", "a word\n  two \r\n", "12-34 567- 89",
+                "STRASSE straße ǆ", "2020 rok\n", "é😀😀", "ab\nab\r\n", "aab");
+
+        for (String pattern : patterns) {
+            Pattern expected = Pattern.compile(pattern);
+            Regex regex = new DfaRegexFactory().create(pattern, 0);
+            for (String text : texts) {
+                String description = pattern + " in " + text;
+                assertThat(regex.matches(text)).as(description).isEqualTo(expected.matcher(text).matches());
+                assertThat(regex.asFindPredicate().test(text)).as(description).isEqualTo(expected.matcher(text).find());
+                assertThat(regex.findAllInAsMatch(text).list()).as(description).isEqualTo(matches(expected, text));
+                assertThat(regex.replaceIn(text, "<$0>")).as(description).isEqualTo(expected.matcher(text).replaceAll("<$0>"));
+
+                List<Integer> visited = new ArrayList<>();
+                regex.forEachGroupMatch(text, (group, start, end) -> visited.addAll(Arrays.asList(group, start, end)));
+                assertThat(visited).as(description).isEqualTo(groups(expected, text));
+            }
+        }
+
+        Regex named = Regex.of("(?<key>\\w+)=(?<value>\\w*)");
+        assertThat(named.replaceIn("a=1, b=", "${value}:$1\\$")).isEqualTo("1:a$, :b$");
+        assertThat(named.replaceFirstIn("a=1, b=2", "$2$10")).isEqualTo("1a0, b=2");
+        assertThrows(IndexOutOfBoundsException.class, () -> named.replaceIn("a=1", "$3"));
+        assertThrows(IllegalArgumentException.class, () -> named.replaceIn("a=1", "${other}"));
+        assertThat(named.replaceIn("--", "$3")).isEqualTo("--");
+    }
+
+    @Test
+    void testFallbackWhenCacheThrashes() {
+        ParsedPattern parsed = PatternParser.parse("(a|b)*a(a|b){10}", Syntax.JAVA);
+        Program program = Program.compile(parsed);
+        CharClasses classes = new CharClasses(program);
+
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        text.append("abbbbbbbbbb");
+
+        LazyDfa small = new LazyDfa(program, classes, true, false, 512);
+        LazyDfa large = new LazyDfa(program, classes, true, false, 1 << 22);
+        assertThat(small.search(text, 0, text.length(), true, false)).isEqualTo(LazyDfa.FAILED);
+        assertThat(large.search(text, 0, text.length(), true, false)).isEqualTo(text.length());
+        assertThat(new PikeVm(program, parsed.groupCount()).search(text, 0, text.length(), true, true)).containsExactly(0, text.length(), text.length() - 12, text.length() - 11, text.length() - 1, text.length());
+    }
+
+    @Test
+    void testLinearTime() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append('x');
+        }
+        Regex regex = Regex.of("(x+x+)+[yz]");
+        assertThat(regex.withBudget(Budget.ofSteps(1))).isSameAs(regex);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThat(regex.matches(text)).isFalse();
+            assertThat(regex.findAllIn(text).list()).isEmpty();
+            assertThat(regex.split(text).list()).containsExactly(text.toString());
+        });
+    }
+
+    private static List<Match> matches(Pattern pattern, String text) {
+        List<Match> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            matches.add(new Match(matcher.group(), matcher.start(), matcher.end()));
+        }
+        return matches;
+    }
+
+    private static List<Integer> groups(Pattern pattern, String text) {
+        List<Integer> groups = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            for (int i = 0; i <= matcher.groupCount(); i++) {
+                groups.addAll(Arrays.asList(i, matcher.start(i), matcher.end(i)));
+            }
+        }
+        return groups;
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.plainregex;
+
+/**
+ * View of text counting characters read by {@link java.util.regex.Matcher}, which fails with
+ * {@link BudgetExceededException} once the budget runs out. Clock is read only every
+ * {@value #CLOCK_INTERVAL} steps to keep reads cheap.
+ */
+final class BudgetedCharSequence implements CharSequence {
+
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final CharSequence text;
+    private final Budget budget;
+    private final long deadline;
+    private long steps;
+    private long checkpoint;
+
+    BudgetedCharSequence(CharSequence text, Budget budget) {
+        this.text = text;
+        this.budget = budget;
+        this.deadline = budget.timeout() != null ? System.nanoTime() + budget.timeout().toNanos() : 0;
+        this.checkpoint = nextCheckpoint();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (++steps >= checkpoint) {
+            check();
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    private void check() {
+        if (steps > budget.maxSteps()) {
+            throw new BudgetExceededException(String.format("Search exceeded budget of %d steps.", budget.maxSteps()), budget);
+        }
+        if (budget.timeout() != null && System.nanoTime() - deadline > 0) {
+            throw new BudgetExceededException(String.format("Search exceeded timeout of %d ms.", budget.timeout().toMillis()), budget);
+        }
+        checkpoint = nextCheckpoint();
+    }
+
+    private long nextCheckpoint() {
+        long limit = budget.maxSteps() == Long.MAX_VALUE ? Long.MAX_VALUE : budget.maxSteps() + 1;
+        return budget.timeout() != null ? Math.min(limit, steps + CLOCK_INTERVAL) : limit;
+    }
+
+}
@@ -0,0 +1,53 @@
+package io.plainregex;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class JavaMatchCursor implements MatchCursor {
+
+    private final Pattern pattern;
+    private final Budget budget;
+    private Matcher matcher;
+    private int next = -1;
+
+    JavaMatchCursor(Pattern pattern, Budget budget) {
+        this.pattern = pattern;
+        this.budget = budget;
+    }
+
+    @Override
+    public void reset(CharSequence text) {
+        if (budget.isLimited()) {
+            text = new BudgetedCharSequence(text, budget);
+        }
+        if (matcher == null) {
+            matcher = pattern.matcher(text);
+        } else {
+            matcher.reset(text);
+        }
+        next = -1;
+    }
+
+    /**
+     * Continues from the last match with {@link Matcher#find()} when searching from the position following it,
+     * since {@link Matcher#find(int)} resets the matcher, moving {@code \G} and allowing an empty match right after
+     * an empty one.
+     */
+    @Override
+    public boolean find(int from) {
+        boolean found = from == next ? matcher.find() : matcher.find(from);
+        next = found ? ChunkedFinder.next(matcher.start(), matcher.end()) : -1;
+        return found;
+    }
+
+    @Override
+    public int start() {
+        return matcher.start();
+    }
+
+    @Override
+    public int end() {
+        return matcher.end();
+    }
+
+}
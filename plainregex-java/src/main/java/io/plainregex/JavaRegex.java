@@ -1,11 +1,19 @@
 package io.plainregex;
 
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -13,113 +21,296 @@ import java.util.stream.StreamSupport;
 class JavaRegex implements Regex {
 
     private final Pattern pattern;
-
+    private final RequiredLiteral literal;
+    private final Budget budget;
+    private final Pool<Matcher> matchers;
+    private volatile Map<String, Integer> groupNames;
 
     public JavaRegex(String pattern, int flags) {
-        this.pattern = Pattern.compile(pattern, flags);
+        this(Pattern.compile(pattern, flags), RequiredLiteral.of(pattern, Syntax.JAVA, RegexFlag.decode(new JavaRegexFactory().resolver(), flags)),
+                Budget.UNLIMITED, Pool.reuseMatchers() ? new Pool<>() : null);
+    }
+
+    private JavaRegex(Pattern pattern, RequiredLiteral literal, Budget budget, Pool<Matcher> matchers) {
+        this.pattern = pattern;
+        this.literal = literal;
+        this.budget = budget;
+        this.matchers = matchers;
     }
 
     @Override
-    public boolean matches(String text) {
-        return pattern.matcher(text).matches();
+    public boolean matches(CharSequence text) {
+        return test(text, true);
     }
 
     @Override
-    public String replaceFirstIn(String text, String replacement) {
-        return pattern.matcher(text).replaceFirst(replacement);
+    public String replaceFirstIn(CharSequence text, String replacement) {
+        return matcher(text).replaceFirst(replacement);
     }
 
     @Override
-    public String replaceIn(String text, String replacement) {
-        return pattern.matcher(text).replaceAll(replacement);
+    public String replaceIn(CharSequence text, String replacement) {
+        return matcher(text).replaceAll(replacement);
     }
 
     @Override
-    public String replaceIn(String text, BiFunction<Integer, String, String> replacer) {
-        StringBuilder sb = new StringBuilder();
+    public String replaceIn(CharSequence text, BiFunction<Integer, String, String> replacer) {
+        Matcher matcher = matcher(text);
+        if (!matcher.find()) {
+            return text.toString();
+        }
 
-        Matcher matcher = pattern.matcher(text);
+        StringBuilder sb = new StringBuilder();
         int index = 0;
-        for (int i = 0; matcher.find(); i++) {
+        int i = 0;
+        do {
             sb.append(text, index, matcher.start());
-            sb.append(replacer.apply(i, matcher.group()));
+            sb.append(replacer.apply(i++, matcher.group()));
             index = matcher.end();
-        }
+        } while (matcher.find());
         sb.append(text, index, text.length());
 
         return sb.toString();
     }
 
     @Override
-    public String replaceIn(String text, Function<String, String> replacer) {
+    public String replaceIn(CharSequence text, Function<String, String> replacer) {
         return replaceIn(text, (i, s) -> replacer.apply(s));
     }
 
     @Override
-    public Optional<String> findFirstIn(String text) {
+    public Optional<String> findFirstIn(CharSequence text) {
         return findFirstInAsMatch(text).map(Match::text);
     }
 
     @Override
-    public Optional<Match> findFirstInAsMatch(String text) {
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            return Optional.of(new Match(matcher.group(), matcher.start(), matcher.end()));
-        } else {
+    public Optional<Match> findFirstInAsMatch(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
             return Optional.empty();
         }
+        Matcher matcher = acquire(text);
+        try {
+            if (matcher.find()) {
+                return Optional.of(Match.of(text, matcher.start(), matcher.end()));
+            } else {
+                return Optional.empty();
+            }
+        } finally {
+            release(matcher);
+        }
     }
 
     @Override
-    public Result<String> findAllIn(String text) {
-        Matcher matcher = pattern.matcher(text);
+    public Result<String> findAllIn(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
+            return MatchedResult.empty();
+        }
+        return MatchedResult.found(this::cursor, text).map(Match::text);
+    }
 
-        Stream<Match> stream = StreamSupport.stream(new FindingSpliterator(matcher), false);
+    @Override
+    public Result<Match> findAllInAsMatch(CharSequence text) {
+        if (!literal.isPresentIn(text)) {
+            return MatchedResult.empty();
+        }
+        return MatchedResult.found(this::cursor, text);
+    }
+
+    @Override
+    public Result<Match> findAllInAsMatch(Reader reader, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new ReaderSpliterator(cursor(), reader, maxMatchLength), false);
 
-        return new MatchedResult<>(stream.map(Match::text));
+        return new MatchedResult<>(stream);
     }
 
     @Override
-    public Result<Match> findAllInAsMatch(String text) {
-        Matcher matcher = pattern.matcher(text);
+    public IncrementalMatcher incrementalMatcher(int maxMatchLength, Consumer<? super Match> consumer) {
+        return new IncrementalMatcher(cursor(), maxMatchLength, consumer);
+    }
 
-        Stream<Match> stream = StreamSupport.stream(new FindingSpliterator(matcher), false);
+    @Override
+    public Result<Match> findAllInAsMatch(Path path, int maxMatchLength) {
+        Stream<Match> stream = StreamSupport.stream(new MappedFileSpliterator(new Utf8MatchCursor(cursor()), path, maxMatchLength), false);
 
         return new MatchedResult<>(stream);
     }
 
     @Override
-    public Result<String> findGroupsIn(String text) {
+    public Result<String> findGroupsIn(CharSequence text) {
         return new MatchedResult<>(findGroupsInAsMatch(text).stream().map(Match::text));
     }
 
     @Override
-    public Result<Match> findGroupsInAsMatch(String text) {
-        Matcher matcher = pattern.matcher(text);
+    public Result<Match> findGroupsInAsMatch(CharSequence text) {
+        Matcher matcher = matcher(text);
         if (matcher.find()) {
-            return new MatchedResult<>(IntStream.range(1, matcher.groupCount() + 1).mapToObj(i -> new Match(matcher.group(i), matcher.start(i), matcher.end(i))));
+            return new MatchedResult<>(IntStream.range(1, matcher.groupCount() + 1).mapToObj(i -> Match.of(text, matcher.start(i), matcher.end(i))));
         } else {
             return MatchedResult.empty();
         }
     }
 
     @Override
-    public Result<String> split(String text) {
-        Matcher matcher = pattern.matcher(text);
+    public void forEachMatch(CharSequence text, MatchVisitor visitor) {
+        Matcher matcher = matcher(text);
+        while (matcher.find()) {
+            visitor.visit(matcher.start(), matcher.end());
+        }
+    }
+
+    @Override
+    public void forEachGroupMatch(CharSequence text, GroupVisitor visitor) {
+        Matcher matcher = matcher(text);
+        int groupCount = matcher.groupCount();
+        while (matcher.find()) {
+            for (int i = 0; i <= groupCount; i++) {
+                visitor.visit(i, matcher.start(i), matcher.end(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean forFirstGroupMatch(CharSequence text, GroupVisitor visitor) {
+        if (!literal.isPresentIn(text)) {
+            return false;
+        }
+        Matcher matcher = acquire(text);
+        try {
+            if (!matcher.find()) {
+                return false;
+            }
+            for (int i = 0; i <= matcher.groupCount(); i++) {
+                visitor.visit(i, matcher.start(i), matcher.end(i));
+            }
+            return true;
+        } finally {
+            release(matcher);
+        }
+    }
 
-        Stream<String> stream = StreamSupport.stream(new SplittingSpliterator(matcher, text), false);
+    @Override
+    public Map<String, Integer> groupNames() {
+        Map<String, Integer> names = groupNames;
+        if (names == null) {
+            // Pattern of Java 8 doesn't expose names of its groups
+            try {
+                names = PatternParser.parse(pattern.pattern(), Syntax.JAVA, RegexFlag.decode(new JavaRegexFactory().resolver(), pattern.flags())).groupNames();
+            } catch (PatternSyntaxException e) {
+                throw new IllegalStateException(String.format("Can't resolve named groups of pattern: %s.", pattern), e);
+            }
+            groupNames = names;
+        }
+        return names;
+    }
+
+    @Override
+    public Result<String> split(CharSequence text) {
+        Stream<String> stream = StreamSupport.stream(new SplittingSpliterator(this::cursor, text), false);
 
         return new MatchedResult<>(stream);
     }
 
+    private MatchCursor cursor() {
+        return new JavaMatchCursor(pattern, budget);
+    }
+
+    private Matcher matcher(CharSequence text) {
+        return pattern.matcher(budget.isLimited() ? new BudgetedCharSequence(text, budget) : text);
+    }
+
+    private Matcher reset(Matcher matcher, CharSequence text) {
+        if (matcher == null) {
+            return matcher(text);
+        }
+        return matcher.reset(budget.isLimited() ? new BudgetedCharSequence(text, budget) : text);
+    }
+
+    private boolean test(CharSequence text, boolean whole) {
+        if (!literal.isPresentIn(text)) {
+            return false;
+        }
+        Matcher matcher = acquire(text);
+        try {
+            return whole ? matcher.matches() : matcher.find();
+        } finally {
+            release(matcher);
+        }
+    }
+
+    /**
+     * @return matcher of text, taken from the pool if matchers are reused
+     */
+    private Matcher acquire(CharSequence text) {
+        return reset(matchers != null ? matchers.acquire() : null, text);
+    }
+
+    private void release(Matcher matcher) {
+        if (matchers != null) {
+            matchers.release(matcher.reset(""));
+        }
+    }
+
+    private BitSet testAll(List<? extends CharSequence> texts, boolean whole) {
+        BitSet found = new BitSet(texts.size());
+        Matcher matcher = null;
+        int i = 0;
+        for (CharSequence text : texts) {
+            if (literal.isPresentIn(text)) {
+                matcher = reset(matcher, text);
+                if (whole ? matcher.matches() : matcher.find()) {
+                    found.set(i);
+                }
+            }
+            i++;
+        }
+        return found;
+    }
+
     @Override
     public Predicate<String> asFindPredicate() {
-        return string -> pattern.matcher(string).find();
+        return string -> test(string, false);
     }
 
     @Override
     public Predicate<String> asMatchPredicate() {
-        return string -> pattern.matcher(string).matches();
+        return string -> test(string, true);
+    }
+
+    @Override
+    public BitSet matchesAll(List<? extends CharSequence> texts) {
+        return testAll(texts, true);
+    }
+
+    @Override
+    public BitSet findsAll(List<? extends CharSequence> texts) {
+        return testAll(texts, false);
+    }
+
+    @Override
+    public List<Match> findFirstInAll(List<? extends CharSequence> texts) {
+        List<Match> matches = new ArrayList<>(texts.size());
+        Matcher matcher = null;
+        for (CharSequence text : texts) {
+            Match match = null;
+            if (literal.isPresentIn(text)) {
+                matcher = reset(matcher, text);
+                if (matcher.find()) {
+                    match = Match.of(text, matcher.start(), matcher.end());
+                }
+            }
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    @Override
+    public Regex withBudget(Budget budget) {
+        return budget.equals(this.budget) ? this : new JavaRegex(pattern, literal, budget, matchers);
+    }
+
+    @Override
+    public Regex withMatcherReuse(boolean reuse) {
+        return reuse == (matchers != null) ? this : new JavaRegex(pattern, literal, budget, reuse ? new Pool<>() : null);
     }
 
 }
@@ -3,6 +3,11 @@ package io.plainregex;
 import java.util.regex.Pattern;
 
 public class JavaRegexFactory implements RegexFactory {
+    @Override
+    public Engine engine() {
+        return Engine.JAVA;
+    }
+
     @Override
     public RegexFlagResolver resolver() {
         return flag -> {
@@ -33,6 +38,10 @@ public class JavaRegexFactory implements RegexFactory {
 
     @Override
     public Regex create(String pattern, int flags) {
+        String literal = LiteralRegex.literalOf(pattern, flags, resolver());
+        if (literal != null) {
+            return new LiteralRegex(literal, () -> new JavaRegex(pattern, flags));
+        }
         return new JavaRegex(pattern, flags);
     }
 }
@@ -5,14 +5,33 @@ import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.plainregex.RegexFlag.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 class RegexTest {
 
@@ -53,4 +72,435 @@ class RegexTest {
         }
     }
 
+    @Test
+    void testCacheEviction() {
+        RegexCache cache = new RegexCache(2);
+        JavaRegexFactory factory = new JavaRegexFactory();
+
+        Regex first = cache.get(factory, "a", 0);
+        cache.get(factory, "b", 0);
+        assertThat(cache.get(factory, "a", 0)).isSameAs(first);
+        cache.get(factory, "c", 0);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.get(factory, "a", 0)).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+
+    @Test
+    void testEngineSelection() {
+        assertThat(Engine.JAVA.isAvailable()).isTrue();
+        assertThat(Engine.RE2J.isAvailable()).isFalse();
+        assertThat(Regex.of("[a-z]+", Engine.named("java"))).isInstanceOf(JavaRegex.class);
+        assertThat(Regex.of("[a-z]+", Engine.JAVA, 0)).isSameAs(Regex.of("[a-z]+"));
+        assertThrows(IllegalStateException.class, () -> Regex.of("[a-z]+", Engine.RE2J));
+    }
+
+    @Test
+    void testInvalidEngineProperty() {
+        try {
+            for (String name : Arrays.asList("nope", "re2j")) {
+                System.setProperty(RegexFactories.ENGINE_PROPERTY, name);
+                IllegalStateException exception = assertThrows(IllegalStateException.class, RegexFactories::resolveDefault);
+                assertThat(exception.getMessage()).contains(name, RegexFactories.ENGINE_PROPERTY);
+                assertThat(Regex.of("[a-z]+", Engine.JAVA).matches("abc")).isTrue();
+                assertThat(Engine.JAVA.isAvailable()).isTrue();
+            }
+        } finally {
+            System.clearProperty(RegexFactories.ENGINE_PROPERTY);
+        }
+        assertThat(RegexFactories.resolveDefault().engine()).isEqualTo(Engine.JAVA);
+    }
+
+    @Test
+    void testAutoRouting() {
+        assertThat(routing("(a)\\1")).isEqualTo(new Routing(Engine.JAVA, Routing.Reason.BACKTRACKING_CONSTRUCT, "backreference"));
+        assertThat(routing("(x+x+)+y")).isEqualTo(new Routing(Engine.JAVA, Routing.Reason.NESTED_QUANTIFIER, null));
+        assertThat(routing("(\\d{3}-)+")).isEqualTo(new Routing(Engine.JAVA, Routing.Reason.DEFAULT, null));
+        assertThat(routing("--")).isEqualTo(new Routing(Engine.JAVA, Routing.Reason.LITERAL, null));
+        assertThat(routing("[a-z]+", CANON_EQ).reason()).isEqualTo(Routing.Reason.UNANALYZED);
+
+        Regex regex = Regex.of("(a)\\1", Engine.AUTO);
+        assertThat(regex.findAllIn("aa bb aa").list()).containsExactly("aa", "aa");
+        assertThat(Regex.of("(a)\\1", Engine.AUTO, 0)).isSameAs(regex);
+        assertThat(Regex.of("--", Engine.named("auto")).replaceIn("a--b", "+")).isEqualTo("a+b");
+        assertThrows(PatternSyntaxException.class, () -> Regex.of("[a", Engine.AUTO));
+        assertThrows(UnsupportedOperationException.class, () -> Regex.of("[a-z]+", Engine.AUTO, DISABLE_UNICODE_GROUPS));
+    }
+
+    @Test
+    void testBudget() {
+        String text = String.join("", Collections.nCopies(40, "x"));
+        Regex regex = Regex.of("(.*x){12}[yz]").withBudget(Budget.ofSteps(100_000));
+
+        assertThat(regex.findAllIn("xxxxxxxxxxxxy").list()).containsExactly("xxxxxxxxxxxxy");
+        assertThrows(BudgetExceededException.class, () -> regex.matches(text));
+        assertThrows(BudgetExceededException.class, () -> regex.findAllIn(text).list());
+        assertThrows(BudgetExceededException.class, () -> regex.asFindPredicate().test(text));
+        assertThrows(BudgetExceededException.class, () -> regex.findAllInAsMatch(new StringReader(text), 64).list());
+        assertThrows(BudgetExceededException.class, () -> regex.split(text).list());
+
+        Regex timed = Regex.of("(.*x){12}[yz]").withBudget(Budget.ofTimeout(Duration.ofMillis(50)));
+        BudgetExceededException exception = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(BudgetExceededException.class, () -> timed.replaceIn(text, "-")));
+        assertThat(exception.budget().timeout()).isEqualTo(Duration.ofMillis(50));
+
+        Regex unlimited = Regex.of("(.*x){12}[yz]");
+        assertThat(unlimited.withBudget(Budget.UNLIMITED)).isSameAs(unlimited);
+        assertThat(Regex.of("(a)\\1", Engine.AUTO).withBudget(Budget.ofSteps(1))).isInstanceOf(RoutedRegex.class);
+        assertThrows(IllegalArgumentException.class, () -> Budget.ofSteps(0));
+        assertThrows(IllegalArgumentException.class, () -> Budget.ofTimeout(Duration.ZERO));
+    }
+
+    @Test
+    void testMatcherReuse() throws Exception {
+        Regex allocating = new JavaRegex("([ABC]+)-(\\d+)", 0);
+        Regex regex = allocating.withMatcherReuse(true);
+        assertThat(regex).isNotSameAs(allocating);
+        assertThat(regex.withMatcherReuse(true)).isSameAs(regex);
+        assertThat(allocating.withMatcherReuse(false)).isSameAs(allocating);
+        System.setProperty(Pool.REUSE_MATCHERS_PROPERTY, "true");
+        try {
+            Regex reusing = new JavaRegex("([ABC]+)-(\\d+)", 0);
+            assertThat(reusing.withMatcherReuse(true)).isSameAs(reusing);
+        } finally {
+            System.clearProperty(Pool.REUSE_MATCHERS_PROPERTY);
+        }
+        Predicate<String> find = regex.asFindPredicate();
+        Predicate<String> match = regex.asMatchPredicate();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String text = "ABC".substring(i % 3) + "-" + i;
+                        assertThat(regex.matches(text)).isTrue();
+                        assertThat(match.test("x" + text)).isFalse();
+                        assertThat(find.test("x" + text)).isTrue();
+                        assertThat(find.test(text.replace('-', '+'))).isFalse();
+                        assertThat(regex.findFirstInAsMatch("x" + text)).contains(new Match(text, 1, text.length() + 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        RegexMetrics registry = new RegexMetrics(false);
+        List<RegexOperation> operations = Collections.synchronizedList(new ArrayList<>());
+        registry.addListener((pattern, engine, operation, hit, nanos, characters) -> operations.add(operation));
+        ObjectName name = RegexMetrics.objectName("[ABC]+", Engine.JAVA, 0);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            Regex regex = registry.instrument(Regex.of("[ABC]+"), "[ABC]+", Engine.JAVA, 0);
+            assertThat(regex.matches("AB")).isTrue();
+            assertThat(regex.asFindPredicate().test("xx")).isFalse();
+            assertThat(regex.findAllIn("A x B").list()).containsExactly("A", "B");
+            assertThat(regex.findAllIn("A").stream().findFirst()).contains("A");
+            assertThat(regex.split("xAx").stream().parallel().collect(Collectors.toList())).containsExactly("x", "x");
+            assertThat(regex.replaceIn("xy", "-")).isEqualTo("xy");
+            assertThat(regex.findAllIn("AxB").count()).isEqualTo(2);
+
+            assertThat(registry.patterns()).hasSize(1);
+            PatternMetrics metrics = registry.patterns().iterator().next();
+            assertThat(operations).containsExactly(RegexOperation.MATCH, RegexOperation.FIND, RegexOperation.FIND_ALL, RegexOperation.SPLIT, RegexOperation.REPLACE, RegexOperation.FIND_ALL);
+            assertThat(metrics.getCalls()).isEqualTo(6);
+            assertThat(metrics.getCalls(RegexOperation.FIND_ALL)).isEqualTo(2);
+            assertThat(metrics.getHits()).isEqualTo(4);
+            assertThat(metrics.getCharacters()).isEqualTo(17);
+            assertThat(metrics.getMaxNanos()).isPositive().isLessThanOrEqualTo(metrics.getTotalNanos());
+            assertThat(server.getAttribute(name, "Calls")).isEqualTo(6L);
+            assertThat(server.getAttribute(name, "HitRate")).isEqualTo(4.0 / 6);
+
+            assertThat(registry.instrument(Regex.of("[ABC]+"), "[ABC]+", Engine.JAVA, 0).matches("C")).isTrue();
+            assertThat(metrics.getCalls(RegexOperation.MATCH)).isEqualTo(2);
+        } finally {
+            registry.clear();
+        }
+        assertThat(server.isRegistered(name)).isFalse();
+        assertThat(RegexMetrics.getInstance().isEnabled()).isFalse();
+        assertThat(Regex.of("[ABC]+")).isInstanceOf(JavaRegex.class);
+    }
+
+    @Test
+    void testMetricsLimit() {
+        RegexMetrics registry = new RegexMetrics(false, 2);
+        List<Boolean> hits = Collections.synchronizedList(new ArrayList<>());
+        registry.addListener((pattern, engine, operation, hit, nanos, characters) -> hits.add(hit));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            Regex a = registry.instrument(Regex.of("a"), "a", Engine.JAVA, 0);
+            Regex b = registry.instrument(Regex.of("b"), "b", Engine.JAVA, 0);
+            assertThat(a.replaceIn("xay", "-")).isEqualTo("x-y");
+            assertThat(a.replaceIn(new StringBuilder("xyz"), "-")).isEqualTo("xyz");
+            assertThat(a.replaceFirstIn("xyz", "-")).isEqualTo("xyz");
+            assertThat(a.replaceIn(new StringBuilder("xa"), s -> "b")).isEqualTo("xb");
+            assertThat(hits).containsExactly(true, false, false, true);
+
+            registry.instrument(Regex.of("c"), "c", Engine.JAVA, 0);
+            assertThat(registry.patterns()).extracting(PatternMetrics::getPattern).containsExactlyInAnyOrder("a", "c");
+            assertThat(server.isRegistered(RegexMetrics.objectName("b", Engine.JAVA, 0))).isFalse();
+            assertThat(server.isRegistered(RegexMetrics.objectName("c", Engine.JAVA, 0))).isTrue();
+            assertThat(b.matches("b")).isTrue();
+            assertThrows(IllegalArgumentException.class, () -> new RegexMetrics(false, 0));
+        } finally {
+            registry.clear();
+        }
+    }
+
+    @Test
+    void testLatencyReport() throws Exception {
+        for (long value : new long[]{0, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE / 2}) {
+            long highest = LatencyHistogram.highestValue(LatencyHistogram.index(value));
+            assertThat(highest).as("bucket of %s", value).isGreaterThanOrEqualTo(value).isLessThanOrEqualTo(value + value / 16);
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.percentile(50)).isBetween(500_000L, 500_000L + 500_000L / 16);
+        assertThat(histogram.percentile(99)).isBetween(990_000L, 990_000L + 990_000L / 16);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+
+        LatencyHistogram shared = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        shared.record(j % 100);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(shared.count()).isEqualTo(40_000);
+        assertThat(shared.percentile(100)).isBetween(99L, 99L + 99 / 16);
+
+        RegexMetrics registry = new RegexMetrics(false);
+        try {
+            registry.instrument(Regex.of("x"), "x", Engine.JAVA, 0);
+            registry.instrument(Regex.of("(.*x){6}[yz]"), "(.*x){6}[yz]", Engine.JAVA, 0);
+            PatternMetrics fast = metrics(registry, "x");
+            PatternMetrics slow = metrics(registry, "(.*x){6}[yz]");
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 150; i++) {
+                text.append(i % 30 == 0 ? '\n' : 'x');
+            }
+            // recorded directly, so ranking doesn't depend on timing of the machine
+            for (int i = 0; i < 20; i++) {
+                registry.record(fast, RegexOperation.MATCH, true, 1_000 + i, 1, "x");
+                registry.record(slow, RegexOperation.MATCH, false, 2_000 + i, 2, "xy");
+            }
+            registry.record(slow, RegexOperation.FIND_FIRST, false, 5_000_000, text.length(), text);
+
+            List<PatternMetrics> slowest = registry.slowest(1, RegexMetrics.Ranking.MAX);
+            assertThat(slowest).extracting(PatternMetrics::getPattern).containsExactly("(.*x){6}[yz]");
+            PatternMetrics metrics = slowest.get(0);
+            assertThat(metrics.getWorstInput()).hasSize(PatternMetrics.SAMPLE_LENGTH + 3).startsWith("\nxxx").endsWith("...");
+            assertThat(metrics.getP50Nanos()).isPositive().isLessThanOrEqualTo(metrics.getP99Nanos());
+            assertThat(metrics.getP999Nanos()).isLessThanOrEqualTo(metrics.getMaxNanos());
+            assertThat(registry.slowest(5, RegexMetrics.Ranking.P99)).hasSize(2);
+
+            String report = registry.report(5, "max");
+            assertThat(report.split(System.lineSeparator())).hasSize(2);
+            assertThat(report).startsWith("1. \"(.*x){6}[yz]\" [JAVA] calls=21 ").contains("max=5000.0us").contains("worstInput=\"\\nxxx").contains("2. \"x\"");
+        } finally {
+            registry.clear();
+        }
+    }
+
+    private static PatternMetrics metrics(RegexMetrics registry, String pattern) {
+        return registry.patterns().stream().filter(metrics -> metrics.getPattern().equals(pattern)).findFirst().get();
+    }
+
+    private static Routing routing(String pattern, RegexFlag... flags) {
+        return ((RoutedRegex) Regex.of(pattern, Engine.AUTO, flags)).routing();
+    }
+
+    @Test
+    void testChunkedFinder() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            text.append(i % 7 == 0 ? "aaaaa\n" : i % 3 == 0 ? "b a" : "ab_");
+        }
+
+        for (String pattern : Arrays.asList("aa", "a+b?", "\\b\\w", "a$", "(?m)a$", "(?<=b)a", "x*", "^a|\\n")) {
+            Pattern compiled = Pattern.compile(pattern);
+            List<Integer> expected = new ArrayList<>();
+            Matcher matcher = compiled.matcher(text);
+            while (matcher.find()) {
+                expected.add(matcher.start());
+                expected.add(matcher.end());
+            }
+
+            for (int from : new int[]{0, 1, 17}) {
+                ChunkedFinder finder = new ChunkedFinder(() -> new JavaMatchCursor(compiled, Budget.UNLIMITED), text, 50, 8);
+                List<Integer> found = Arrays.stream(finder.findAll(from)).boxed().collect(Collectors.toList());
+                assertThat(found).as(pattern + " from " + from).isEqualTo(from == 0 ? expected : sequential(compiled, text, from));
+            }
+        }
+    }
+
+    @Test
+    void testContiguousMatches() {
+        for (String pattern : Arrays.asList("\\G\\W*", "\\G\\W?", "\\Gx?", "\\G.", "\\G", "\\G(?:x|$)")) {
+            Pattern compiled = Pattern.compile(pattern);
+            Regex regex = new JavaRegex(pattern, 0);
+            for (String text : Arrays.asList("", "{ .B", "xxyx", "x{ x")) {
+                List<Integer> expected = sequential(compiled, text);
+                String description = pattern + " in " + text;
+                List<Integer> found = regex.findAllInAsMatch(text).stream()
+                        .flatMap(match -> Stream.of((int) match.start(), (int) match.end()))
+                        .collect(Collectors.toList());
+                assertThat(found).as(description).isEqualTo(expected);
+                assertThat(regex.findAllIn(text).count()).as(description).isEqualTo(expected.size() / 2);
+                assertThat(regex.findAllOffsetsIn(text)).as(description).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+                assertThat(regex.replaceIn(text, "<$0>")).as(description).isEqualTo(compiled.matcher(text).replaceAll("<$0>"));
+            }
+        }
+    }
+
+    @Test
+    void testRegexSetAgreesWithEngine() {
+        List<String> patterns = Arrays.asList("a$", "(?m)^b", "\\bé\\w*", "(a)\\1", "a(?=b)", "a++b", "[a-c&&[^b]]+\\Z",
+                "(?i)K", "(?iu)[a-z]{2}", "\\p{Lu}\\s", "(?:x*|\\b){2}", "\\Qa.b\\E", "(?x) a \\  b # comment", "\\u00e9|\\x{1F600}");
+        List<String> texts = Arrays.asList("", "a", "a\n", "ab\r\nb", "aa\nb", "é and \u212A", "a.b", "a b", "Z \uD83D\uDE00", "ABC\r\n");
+
+        for (RegexFlag[] flags : new RegexFlag[][]{{}, {MULTILINE}, {CASE_INSENSITIVE}, {DOTALL, UNIX_LINES}}) {
+            RegexSet set = RegexSet.of(patterns, Engine.JAVA, flags);
+            for (String text : texts) {
+                BitSet found = set.findIn(text);
+                BitSet matched = set.matches(text);
+                for (int i = 0; i < patterns.size(); i++) {
+                    Pattern pattern = Pattern.compile(patterns.get(i), RegexFlag.resolve(new JavaRegexFactory().resolver(), flags));
+                    assertThat(found.get(i)).as(patterns.get(i) + " in " + text).isEqualTo(pattern.matcher(text).find());
+                    assertThat(matched.get(i)).as(patterns.get(i) + " matching " + text).isEqualTo(pattern.matcher(text).matches());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRequiredLiteral() {
+        assertThat(literal(".*ERROR\\s+(\\w+)")).isEqualTo("ERROR");
+        assertThat(literal("\\bfoo\\b(bar){2}\\d")).isEqualTo("foobarbar");
+        assertThat(literal("(?:abc)+x|yz")).isNull();
+        assertThat(literal("a(b|b)c[d]")).isEqualTo("abcd");
+        assertThat(literal("xy(?=z)z+w")).isEqualTo("xy");
+        assertThat(literal("(a)\\1bcd")).isEqualTo("bcd");
+        assertThat(literal("a.b*")).isEqualTo("a");
+        assertThat(literal("(?i)error: 42")).isEqualTo(": 42");
+        assertThat(literal("\\d+")).isNull();
+        assertThat(RequiredLiteral.of("a+b", Syntax.JAVA, EnumSet.of(LITERAL)).literal()).isEqualTo("a+b");
+        assertThat(RequiredLiteral.of("(?<x>a)b", Syntax.JAVA, EnumSet.of(CANON_EQ)).literal()).isNull();
+
+        for (CharSequence text : Arrays.asList("xxabyyab", new StringBuilder("xxabyyab"), CharBuffer.wrap("xxabyyab"))) {
+            LiteralSearcher searcher = new LiteralSearcher("ab");
+            assertThat(searcher.indexIn(text, 0)).isEqualTo(2);
+            assertThat(searcher.indexIn(text, 3)).isEqualTo(6);
+            assertThat(searcher.indexIn(text, 7)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void testRequiredLiteralAgreesWithEngine() {
+        List<String> patterns = Arrays.asList(Pattern.quote("ab") + "{2}", "x\\Qa|b)\\E+", "a\\Q\\E{2}", "\\Q\\E{2}b",
+                "(?x)\\.+ {1,2}", "(?x)a b {2}", "(?x)\\Qa b\\E+", "a(?m){2}b", "(?m){2}ab", "ab+{2}", "a\\Qb");
+        List<String> texts = Arrays.asList("xabbx", "xababx", "xa|b))", "aab", "b", "a..b", "abb", "a b b", "ab", "abbb", "a\\Qb");
+
+        for (String pattern : patterns) {
+            Pattern expected = Pattern.compile(pattern);
+            String required = literal(pattern);
+            for (String text : texts) {
+                boolean found = expected.matcher(text).find();
+                assertThat(Regex.of(pattern).asFindPredicate().test(text)).as(pattern + " in " + text).isEqualTo(found);
+                assertThat(!found || required == null || text.contains(required)).as(pattern + " requiring " + required).isTrue();
+            }
+        }
+        assertThat(literal(Pattern.quote("ab") + "{2}")).isEqualTo("abb");
+    }
+
+    private static String literal(String pattern) {
+        return RequiredLiteral.of(pattern, Syntax.JAVA, EnumSet.noneOf(RegexFlag.class)).literal();
+    }
+
+    @Test
+    void testLiteralRegexAgreesWithEngine() {
+        List<String> patterns = Arrays.asList("ab", "aa", "a b", "é", "\uD83D\uDE00", "x");
+        List<String> texts = Arrays.asList("", "ab", "abab", "aaa", "xabyab", "a b a b", "é\uD83D\uDE00é", "b");
+
+        for (RegexFlag[] flags : new RegexFlag[][]{{}, {LITERAL}, {MULTILINE, DOTALL}}) {
+            for (String pattern : patterns) {
+                Regex literal = new JavaRegexFactory().create(pattern, flags);
+                Regex regex = new JavaRegex(pattern, RegexFlag.resolve(new JavaRegexFactory().resolver(), flags));
+                assertThat(literal).isInstanceOf(LiteralRegex.class);
+
+                for (String text : texts) {
+                    assertThat(literal.matches(text)).isEqualTo(regex.matches(text));
+                    assertThat(literal.asMatchPredicate().test(text)).isEqualTo(regex.asMatchPredicate().test(text));
+                    assertThat(literal.asFindPredicate().test(text)).isEqualTo(regex.asFindPredicate().test(text));
+                    assertThat(literal.findFirstInAsMatch(text)).isEqualTo(regex.findFirstInAsMatch(text));
+                    assertThat(literal.findAllInAsMatch(text).list()).isEqualTo(regex.findAllInAsMatch(text).list());
+                    assertThat(literal.findAllInAsMatch(new StringReader(text), 4).list()).isEqualTo(regex.findAllInAsMatch(new StringReader(text), 4).list());
+                    assertThat(literal.findGroupsInAsMatch(text).list()).isEqualTo(regex.findGroupsInAsMatch(text).list());
+                    assertThat(literal.split(text).list()).isEqualTo(regex.split(text).list());
+                    assertThat(literal.replaceFirstIn(text, "<$0>")).isEqualTo(regex.replaceFirstIn(text, "<$0>"));
+                    assertThat(literal.replaceIn(text, "-")).isEqualTo(regex.replaceIn(text, "-"));
+                    assertThat(literal.replaceIn(text, (i, s) -> i + s)).isEqualTo(regex.replaceIn(text, (i, s) -> i + s));
+
+                    List<Integer> visited = new ArrayList<>();
+                    List<Integer> expected = new ArrayList<>();
+                    literal.forEachGroupMatch(text, (group, start, end) -> visited.addAll(Arrays.asList(group, start, end)));
+                    regex.forEachGroupMatch(text, (group, start, end) -> expected.addAll(Arrays.asList(group, start, end)));
+                    assertThat(visited).isEqualTo(expected);
+                }
+            }
+        }
+
+        assertThat(Regex.of("a.b")).isNotInstanceOf(LiteralRegex.class);
+        assertThat(Regex.of("ab", CASE_INSENSITIVE)).isNotInstanceOf(LiteralRegex.class);
+        assertThat(Regex.of("")).isNotInstanceOf(LiteralRegex.class);
+    }
+
+    private static List<Integer> sequential(Pattern pattern, CharSequence text) {
+        List<Integer> bounds = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            bounds.add(matcher.start());
+            bounds.add(matcher.end());
+        }
+        return bounds;
+    }
+
+    private static List<Integer> sequential(Pattern pattern, CharSequence text, int from) {
+        List<Integer> bounds = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        int position = from;
+        while (position <= text.length() && matcher.find(position)) {
+            bounds.add(matcher.start());
+            bounds.add(matcher.end());
+            position = matcher.start() == matcher.end() ? matcher.end() + 1 : matcher.end();
+        }
+        return bounds;
+    }
+
 }
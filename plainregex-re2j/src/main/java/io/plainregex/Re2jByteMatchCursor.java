@@ -0,0 +1,64 @@
+package io.plainregex;
+
+import com.google.re2j.Matcher;
+import com.google.re2j.Pattern;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matches UTF-8 encoded bytes with the byte matcher of RE2/J, without decoding them.
+ * Bytes which aren't backed by an array of exactly their size are copied.
+ */
+class Re2jByteMatchCursor implements ByteMatchCursor {
+
+    private final Pattern pattern;
+    private Matcher matcher;
+    private byte[] bytes = new byte[0];
+
+    Re2jByteMatchCursor(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void reset(ByteBuffer buffer) {
+        bytes = array(buffer, bytes);
+
+        if (matcher == null) {
+            matcher = pattern.matcher(bytes);
+        } else {
+            matcher.reset(bytes);
+        }
+    }
+
+    /**
+     * @param reused array to fill if it has the size of the bytes
+     * @return array of exactly the bytes between position and limit of the buffer
+     */
+    static byte[] array(ByteBuffer buffer, byte[] reused) {
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0 && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = reused.length == buffer.remaining() ? reused : new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean find(int from) {
+        while (from < bytes.length && ByteMatchCursor.isContinuation(bytes[from])) {
+            from++;
+        }
+        return matcher.find(from);
+    }
+
+    @Override
+    public int start() {
+        return matcher.start();
+    }
+
+    @Override
+    public int end() {
+        return matcher.end();
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.plainregex;
+
+import com.google.re2j.Matcher;
+import com.google.re2j.Pattern;
+
+class Re2jMatchCursor implements MatchCursor {
+
+    private final Pattern pattern;
+    private Matcher matcher;
+
+    Re2jMatchCursor(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void reset(CharSequence text) {
+        if (matcher == null) {
+            matcher = pattern.matcher(text);
+        } else {
+            matcher.reset(text);
+        }
+    }
+
+    @Override
+    public boolean find(int from) {
+        return matcher.find(from);
+    }
+
+    @Override
+    public int start() {
+        return matcher.start();
+    }
+
+    @Override
+    public int end() {
+        return matcher.end();
+    }
+
+}
@@ -4,6 +4,11 @@ import com.google.re2j.Pattern;
 
 public class Re2jRegexFactory implements RegexFactory {
 
+    @Override
+    public Engine engine() {
+        return Engine.RE2J;
+    }
+
     @Override
     public RegexFlagResolver resolver() {
         return flag -> {
@@ -22,8 +27,17 @@ public class Re2jRegexFactory implements RegexFactory {
         };
     }
 
+    @Override
+    public Syntax syntax() {
+        return Syntax.RE2;
+    }
+
     @Override
     public Regex create(String pattern, int flags) {
+        String literal = LiteralRegex.literalOf(pattern, flags, resolver());
+        if (literal != null) {
+            return new LiteralRegex(literal, () -> new Re2jRegex(pattern, flags));
+        }
         return new Re2jRegex(pattern, flags);
     }
 }
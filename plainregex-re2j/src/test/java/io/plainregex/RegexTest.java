@@ -6,9 +6,16 @@ import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import static io.plainregex.RegexFlag.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -55,4 +62,126 @@ class RegexTest {
         }
     }
 
+    @Test
+    void testEngineSelection() {
+        assertThat(Engine.RE2J.isAvailable()).isTrue();
+        assertThat(Engine.JAVA.isAvailable()).isFalse();
+        assertThat(Regex.of("[a-z]+", Engine.named("re2j"))).isInstanceOf(Re2jRegex.class);
+        assertThat(Regex.of("[a-z]+", Engine.RE2J, 0)).isSameAs(Regex.of("[a-z]+"));
+        assertThrows(IllegalStateException.class, () -> Regex.of("[a-z]+", Engine.JAVA));
+    }
+
+    @Test
+    void testAutoRouting() {
+        assertThat(routing("(x+x+)+y")).isEqualTo(new Routing(Engine.RE2J, Routing.Reason.NESTED_QUANTIFIER, null));
+        assertThat(routing("[a-z]+", DOTALL)).isEqualTo(new Routing(Engine.RE2J, Routing.Reason.DEFAULT, null));
+        assertThat(Regex.of("(x+x+)+y", Engine.AUTO).findAllIn("xxxy xx").list()).containsExactly("xxxy");
+        assertThrows(IllegalStateException.class, () -> Regex.of("\\s+", Engine.AUTO));
+        assertThrows(IllegalStateException.class, () -> Regex.of("(a|)+", Engine.AUTO));
+        assertThrows(IllegalStateException.class, () -> Regex.of("(?i)[a-z]+", Engine.AUTO));
+        assertThrows(IllegalStateException.class, () -> Regex.of("[a-z]+", Engine.AUTO, UNIX_LINES));
+    }
+
+    @Test
+    void testMatcherReuse() throws Exception {
+        Regex allocating = new Re2jRegex("([ABC]+)-(\\d+)", 0);
+        Regex regex = allocating.withMatcherReuse(true);
+        assertThat(regex).isNotSameAs(allocating);
+        assertThat(regex.withMatcherReuse(true)).isSameAs(regex);
+        assertThat(allocating.withMatcherReuse(false)).isSameAs(allocating);
+        System.setProperty(Pool.REUSE_MATCHERS_PROPERTY, "true");
+        try {
+            Regex reusing = new Re2jRegex("([ABC]+)-(\\d+)", 0);
+            assertThat(reusing.withMatcherReuse(true)).isSameAs(reusing);
+        } finally {
+            System.clearProperty(Pool.REUSE_MATCHERS_PROPERTY);
+        }
+        Predicate<String> find = regex.asFindPredicate();
+        Predicate<String> match = regex.asMatchPredicate();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String text = "ABC".substring(i % 3) + "-" + i;
+                        assertThat(regex.matches(text)).isTrue();
+                        assertThat(match.test("x" + text)).isFalse();
+                        assertThat(find.test("x" + text)).isTrue();
+                        assertThat(find.test(text.replace('-', '+'))).isFalse();
+                        assertThat(regex.findFirstInAsMatch("x" + text)).contains(new Match(text, 1, text.length() + 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Routing routing(String pattern, RegexFlag... flags) {
+        return ((RoutedRegex) Regex.of(pattern, Engine.AUTO, flags)).routing();
+    }
+
+    @Test
+    void testRegexSetAgreesWithEngine() {
+        List<String> patterns = Arrays.asList("a$", "(?m)^b$", "\\bé\\w*", "(?P<x>a)b", "(?i)K", "(?i)\\W", "\\p{Greek}+",
+                "[[:alpha:]]+\\z", "(?U)a+", "\\Qa.b\\E", "x{2,}|\\B", "\\x{1F600}");
+        List<String> texts = Arrays.asList("", "a", "a\n", "ab\nb\n", "é and \u212A", "a.b", "αβγ", "xxx", "\uD83D\uDE00");
+
+        for (RegexFlag[] flags : new RegexFlag[][]{{}, {MULTILINE}, {CASE_INSENSITIVE}, {DOTALL}}) {
+            RegexSet set = RegexSet.of(patterns, Engine.RE2J, flags);
+            for (String text : texts) {
+                BitSet found = set.findIn(text);
+                BitSet matched = set.matches(text);
+                for (int i = 0; i < patterns.size(); i++) {
+                    Regex regex = Regex.of(patterns.get(i), Engine.RE2J, flags);
+                    assertThat(found.get(i)).as(patterns.get(i) + " in " + text).isEqualTo(regex.findFirstInAsMatch(text).isPresent());
+                    assertThat(matched.get(i)).as(patterns.get(i) + " matching " + text).isEqualTo(regex.matches(text));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLiteralRegexAgreesWithEngine() {
+        List<String> patterns = Arrays.asList("ab", "aa", "a b", "é", "\uD83D\uDE00", "x");
+        List<String> texts = Arrays.asList("", "ab", "abab", "aaa", "xabyab", "a b a b", "é\uD83D\uDE00é", "b");
+
+        for (RegexFlag[] flags : new RegexFlag[][]{{}, {MULTILINE, DOTALL}}) {
+            for (String pattern : patterns) {
+                Regex literal = new Re2jRegexFactory().create(pattern, flags);
+                Regex regex = new Re2jRegex(pattern, RegexFlag.resolve(new Re2jRegexFactory().resolver(), flags));
+                assertThat(literal).isInstanceOf(LiteralRegex.class);
+
+                for (String text : texts) {
+                    assertThat(literal.matches(text)).isEqualTo(regex.matches(text));
+                    assertThat(literal.asMatchPredicate().test(text)).isEqualTo(regex.asMatchPredicate().test(text));
+                    assertThat(literal.asFindPredicate().test(text)).isEqualTo(regex.asFindPredicate().test(text));
+                    assertThat(literal.findFirstInAsMatch(text)).isEqualTo(regex.findFirstInAsMatch(text));
+                    assertThat(literal.findAllInAsMatch(text).list()).isEqualTo(regex.findAllInAsMatch(text).list());
+                    assertThat(literal.findAllInAsMatch(new StringReader(text), 4).list()).isEqualTo(regex.findAllInAsMatch(new StringReader(text), 4).list());
+                    assertThat(literal.findGroupsInAsMatch(text).list()).isEqualTo(regex.findGroupsInAsMatch(text).list());
+                    assertThat(literal.split(text).list()).isEqualTo(regex.split(text).list());
+                    assertThat(literal.replaceFirstIn(text, "<$0>")).isEqualTo(regex.replaceFirstIn(text, "<$0>"));
+                    assertThat(literal.replaceIn(text, "-")).isEqualTo(regex.replaceIn(text, "-"));
+                    assertThat(literal.replaceIn(text, (i, s) -> i + s)).isEqualTo(regex.replaceIn(text, (i, s) -> i + s));
+
+                    List<Integer> visited = new ArrayList<>();
+                    List<Integer> expected = new ArrayList<>();
+                    literal.forEachGroupMatch(text, (group, start, end) -> visited.addAll(Arrays.asList(group, start, end)));
+                    regex.forEachGroupMatch(text, (group, start, end) -> expected.addAll(Arrays.asList(group, start, end)));
+                    assertThat(visited).isEqualTo(expected);
+                }
+            }
+        }
+
+        assertThat(Regex.of("a.b")).isNotInstanceOf(LiteralRegex.class);
+        assertThat(Regex.of("ab", CASE_INSENSITIVE)).isNotInstanceOf(LiteralRegex.class);
+        assertThat(Regex.of("")).isNotInstanceOf(LiteralRegex.class);
+    }
+
 }
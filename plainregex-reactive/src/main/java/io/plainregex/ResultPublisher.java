@@ -0,0 +1,205 @@
+package io.plainregex;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Publishes lazily computed results of regex, e.g. matches of a large file, with backpressure.
+ *
+ * <p> Every subscriber gets results of its own call of the supplier. Results are pulled only as
+ * subscriber requests them, and at most one result ahead of the demand, which tells whether they
+ * are complete, so memory stays bounded however slow the subscriber is. Results are searched in
+ * the thread calling {@link Subscription#request(long)} or, if given, by the executor. Exceptions
+ * thrown while searching are passed to {@link Subscriber#onError(Throwable)}, and the stream of
+ * results is closed when it ends or the subscription is cancelled. Exceptions thrown by the subscriber
+ * cancel the subscription and are passed to the uncaught exception handler of the thread signalling it,
+ * so they never propagate out of {@link #subscribe(Subscriber)} or {@link Subscription#request(long)}.
+ *
+ * @param <T> type of the results
+ */
+public final class ResultPublisher<T> implements Publisher<T> {
+
+    private final Supplier<? extends Result<T>> results;
+    private final Executor executor;
+
+    private ResultPublisher(Supplier<? extends Result<T>> results, Executor executor) {
+        this.results = Objects.requireNonNull(results);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Creates publisher searching in threads requesting the results.
+     * @param results supplier called once for every subscriber, e.g. {@code () -> regex.findAllInAsMatch(reader, 1024)}
+     * @param <T> type of the results
+     * @return new publisher
+     */
+    public static <T> ResultPublisher<T> of(Supplier<? extends Result<T>> results) {
+        return new ResultPublisher<>(results, Runnable::run);
+    }
+
+    /**
+     * Creates publisher searching by the executor, which must not reject tasks.
+     * @param results supplier called once for every subscriber
+     * @param executor executor searching and signalling the subscribers
+     * @param <T> type of the results
+     * @return new publisher
+     */
+    public static <T> ResultPublisher<T> of(Supplier<? extends Result<T>> results, Executor executor) {
+        return new ResultPublisher<>(results, executor);
+    }
+
+    /**
+     * Creates publisher of matches in UTF-8 encoded file, found as described in {@link Regex#findAllInAsMatch(Path, int)}.
+     * @param regex the regex
+     * @param path the file to search
+     * @param maxMatchLength maximum length of match in bytes
+     * @return new publisher
+     */
+    public static ResultPublisher<Match> matches(Regex regex, Path path, int maxMatchLength) {
+        return of(() -> regex.findAllInAsMatch(path, maxMatchLength));
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        new ResultSubscription<>(Objects.requireNonNull(subscriber), results, executor).schedule();
+    }
+
+    /**
+     * Signals are serialized by counting pending runs of {@link #run()}, so a run started by one thread
+     * also handles runs requested meanwhile by others.
+     */
+    private static final class ResultSubscription<T> implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+        private final Supplier<? extends Result<T>> results;
+        private final Executor executor;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean cancelled = false;
+        private volatile IllegalArgumentException invalidRequest;
+
+        private boolean subscribed = false;
+        private boolean done = false;
+        private Stream<T> stream;
+        private Iterator<T> iterator;
+
+        ResultSubscription(Subscriber<? super T> subscriber, Supplier<? extends Result<T>> results, Executor executor) {
+            this.subscriber = subscriber;
+            this.results = results;
+            this.executor = executor;
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException(String.format("Number of requested results must be positive: %d.", n));
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        /**
+         * Signals the subscriber. An exception thrown by the subscriber cancels the subscription and is
+         * reported once pending runs are handled, so later requests don't wait for a run which never ends.
+         */
+        @Override
+        public void run() {
+            RuntimeException failure = null;
+            int runs = 1;
+            do {
+                try {
+                    if (!subscribed) {
+                        subscribed = true;
+                        subscriber.onSubscribe(this);
+                    }
+                    if (!done) {
+                        emit();
+                    }
+                } catch (RuntimeException e) {
+                    close();
+                    failure = e;
+                }
+                runs = pending.addAndGet(-runs);
+            } while (runs != 0);
+            if (failure != null) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+            }
+        }
+
+        private void emit() {
+            while (!done) {
+                if (cancelled) {
+                    close();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    close();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+
+                boolean hasNext;
+                boolean demanded = requested.get() > 0;
+                T next = null;
+                try {
+                    if (iterator == null) {
+                        stream = results.get().stream();
+                        iterator = stream.iterator();
+                    }
+                    hasNext = iterator.hasNext();
+                    if (hasNext && demanded) {
+                        next = iterator.next();
+                    }
+                } catch (RuntimeException e) {
+                    close();
+                    subscriber.onError(e);
+                    return;
+                }
+
+                if (!hasNext) {
+                    close();
+                    subscriber.onComplete();
+                } else if (!demanded) {
+                    return;
+                } else {
+                    requested.updateAndGet(current -> current == Long.MAX_VALUE ? current : current - 1);
+                    subscriber.onNext(next);
+                }
+            }
+        }
+
+        private void close() {
+            done = true;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+    }
+
+}
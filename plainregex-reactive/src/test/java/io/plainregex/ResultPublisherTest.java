@@ -0,0 +1,219 @@
+package io.plainregex;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultPublisherTest {
+
+    @Test
+    void testBackpressure() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.append("word").append(i).append(' ');
+        }
+        CountingReader reader = new CountingReader(builder.toString());
+        Regex regex = Regex.of("\\d+");
+
+        RecordingSubscriber<Match> subscriber = new RecordingSubscriber<>();
+        ResultPublisher.of(() -> regex.findAllInAsMatch(reader, 16)).subscribe(subscriber);
+        assertThat(subscriber.items).isEmpty();
+
+        subscriber.subscription.request(2);
+        assertThat(subscriber.items).containsExactly(new Match("0", 4, 5), new Match("1", 10, 11));
+        assertThat(subscriber.completed).isFalse();
+        assertThat(reader.read).isLessThan(builder.length() / 10);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.items).hasSize(10_000);
+        assertThat(subscriber.items.get(9_999).text()).isEqualTo("9999");
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void testRequestFromOnNext() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.append("a ");
+        }
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>() {
+            @Override
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        ResultPublisher.of(() -> Regex.of("a").findAllIn(builder)).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.items).hasSize(100_000);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void testCancel() {
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        ResultPublisher.of(() -> new MatchedResult<>(Stream.of(1, 2, 3).onClose(() -> closed.set(true)))).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+
+        assertThat(subscriber.items).containsExactly(1);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void testErrors() {
+        RecordingSubscriber<String> invalid = new RecordingSubscriber<>();
+        ResultPublisher.of(() -> Regex.of("a").findAllIn("aaa")).subscribe(invalid);
+        invalid.subscription.request(0);
+        invalid.subscription.request(1);
+        assertThat(invalid.items).isEmpty();
+        assertThat(invalid.error).isInstanceOf(IllegalArgumentException.class);
+
+        RecordingSubscriber<Match> failing = new RecordingSubscriber<>();
+        Reader reader = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Broken.");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ResultPublisher.of(() -> Regex.of("a").findAllInAsMatch(reader, 8)).subscribe(failing);
+        failing.subscription.request(1);
+        assertThat(failing.error).isInstanceOf(UncheckedIOException.class);
+        assertThat(failing.completed).isFalse();
+
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber<Integer> throwing = new RecordingSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                throw new IllegalStateException("Broken.");
+            }
+        };
+        List<Throwable> reported = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            ResultPublisher.of(() -> new MatchedResult<>(Stream.of(1, 2, 3).onClose(() -> closed.set(true)))).subscribe(throwing);
+            throwing.subscription.request(2);
+            throwing.subscription.request(2);
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+        assertThat(throwing.items).containsExactly(1);
+        assertThat(throwing.error).isNull();
+        assertThat(closed).isTrue();
+        assertThat(reported).hasSize(1).first().isInstanceOf(IllegalStateException.class);
+
+        RecordingSubscriber<Match> empty = new RecordingSubscriber<>();
+        ResultPublisher.of(() -> Regex.of("a").findAllInAsMatch("bbb")).subscribe(empty);
+        assertThat(empty.completed).isTrue();
+    }
+
+    @Test
+    void testExecutor() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String text = "a1 b22 c333 d4444";
+            CountDownLatch latch = new CountDownLatch(1);
+            RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    super.onSubscribe(subscription);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(String item) {
+                    super.onNext(item);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onComplete() {
+                    super.onComplete();
+                    latch.countDown();
+                }
+            };
+            ResultPublisher.of(() -> Regex.of("\\d+").findAllIn(text), executor).subscribe(subscriber);
+
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.items).containsExactly("1", "22", "333", "4444");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class RecordingSubscriber<T> implements Subscriber<T> {
+
+        final List<T> items = new ArrayList<>();
+        volatile Subscription subscription;
+        volatile boolean completed = false;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+    }
+
+    private static class CountingReader extends StringReader {
+
+        int read = 0;
+
+        CountingReader(String text) {
+            super(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            read += Math.max(count, 0);
+            return count;
+        }
+
+    }
+
+}